@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.date;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads a holiday calendar file: one ISO-8601 date (yyyy-MM-dd) per line.
+ * Blank lines and lines starting with '#' are ignored.
+ */
+public class HolidayCalendarReader {
+    public WorkingDayCalendar read(Path file) {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            List<LocalDate> holidays = lines
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(line -> parseDate(line, file))
+                .collect(Collectors.toList());
+            return WorkingDayCalendar.withHolidays(holidays);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalDate parseDate(String line, Path file) {
+        try {
+            return LocalDate.parse(line);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Holiday '" + line + "' in file '" + file + "' is not a valid date, expected yyyy-MM-dd");
+        }
+    }
+}
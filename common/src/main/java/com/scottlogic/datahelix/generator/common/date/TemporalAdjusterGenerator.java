@@ -16,8 +16,6 @@
 
 package com.scottlogic.datahelix.generator.common.date;
 
-import org.threeten.extra.Temporals;
-
 import java.time.Duration;
 import java.time.Period;
 import java.time.temporal.ChronoUnit;
@@ -30,9 +28,16 @@ public class TemporalAdjusterGenerator {
 
     private final boolean workingDay;
 
+    private final WorkingDayCalendar calendar;
+
     public TemporalAdjusterGenerator(ChronoUnit chronoUnit, boolean workingDay) {
+        this(chronoUnit, workingDay, WorkingDayCalendar.WEEKENDS_ONLY);
+    }
+
+    public TemporalAdjusterGenerator(ChronoUnit chronoUnit, boolean workingDay, WorkingDayCalendar calendar) {
         this.chronoUnit = chronoUnit;
         this.workingDay = workingDay;
+        this.calendar = calendar;
     }
 
     public TemporalAdjuster adjuster(int value) {
@@ -40,8 +45,7 @@ public class TemporalAdjusterGenerator {
     }
 
     private TemporalAdjuster getWorkingDayAdjusterFunction(int value) {
-        TemporalAdjuster adjuster = value >= 0 ? Temporals.nextWorkingDay() : Temporals.previousWorkingDay();
-        return new RepeatedTemporalAdjuster(adjuster, Math.abs(value));
+        return new WorkingDayAdjuster(calendar, value);
     }
 
     private TemporalAdjuster getAdjusterFunction(ChronoUnit unit, int value) {
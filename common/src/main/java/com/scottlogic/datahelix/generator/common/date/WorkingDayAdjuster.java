@@ -16,24 +16,28 @@
 
 package com.scottlogic.datahelix.generator.common.date;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAdjuster;
 
-public class RepeatedTemporalAdjuster implements TemporalAdjuster {
-    private final TemporalAdjuster underlyingAdjuster;
-
-    private final int timesToRepeat;
+/**
+ * Moves a temporal by a number of working days in constant time, preserving its time of day.
+ */
+public class WorkingDayAdjuster implements TemporalAdjuster {
+    private final WorkingDayCalendar calendar;
+    private final int amount;
 
-    public RepeatedTemporalAdjuster(TemporalAdjuster underlyingAdjuster, int timesToRepeat) {
-        this.underlyingAdjuster = underlyingAdjuster;
-        this.timesToRepeat = timesToRepeat;
+    public WorkingDayAdjuster(WorkingDayCalendar calendar, int amount) {
+        this.calendar = calendar;
+        this.amount = amount;
     }
 
     @Override
     public Temporal adjustInto(Temporal temporal) {
-        for (int i = 0; i < timesToRepeat; i++) {
-            temporal = underlyingAdjuster.adjustInto(temporal);
-        }
-        return temporal;
+        LocalDate date = LocalDate.ofEpochDay(temporal.getLong(ChronoField.EPOCH_DAY));
+        LocalDate adjusted = calendar.addWorkingDays(date, amount);
+        return temporal.plus(adjusted.toEpochDay() - date.toEpochDay(), ChronoUnit.DAYS);
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.date;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * A calendar of working days: Monday to Friday, excluding any configured holidays.
+ *
+ * Every working day has an ordinal (its position in the sequence of all working days), which is computed
+ * in closed form from the epoch day (weeks * 5 plus a remainder), minus the number of holidays that fall
+ * before it. Holidays are held in a sorted table so that both directions of the mapping are a binary search.
+ */
+public class WorkingDayCalendar {
+    public static final WorkingDayCalendar WEEKENDS_ONLY = new WorkingDayCalendar(new long[0]);
+
+    private static final int WORKING_DAYS_PER_WEEK = 5;
+    private static final int DAYS_PER_WEEK = 7;
+
+    // LocalDate.ofEpochDay(0) is a Thursday, shift so that day zero is a Monday
+    private static final long MONDAY_EPOCH_OFFSET = 3;
+
+    private final long[] holidays;
+
+    // weekday ordinal of each holiday minus its index in the table,
+    // i.e. the working day ordinal that comes straight after the holiday
+    private final long[] ordinalsAfterHolidays;
+
+    private WorkingDayCalendar(long[] sortedWeekdayHolidays) {
+        this.holidays = sortedWeekdayHolidays;
+        this.ordinalsAfterHolidays = new long[sortedWeekdayHolidays.length];
+        for (int i = 0; i < sortedWeekdayHolidays.length; i++) {
+            ordinalsAfterHolidays[i] = weekdaysBefore(sortedWeekdayHolidays[i]) - i;
+        }
+    }
+
+    public static WorkingDayCalendar withHolidays(Collection<LocalDate> holidays) {
+        return new WorkingDayCalendar(holidays.stream()
+            .filter(WorkingDayCalendar::isWeekday)
+            .mapToLong(LocalDate::toEpochDay)
+            .distinct()
+            .sorted()
+            .toArray());
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return isWeekday(date) && Arrays.binarySearch(holidays, date.toEpochDay()) < 0;
+    }
+
+    /**
+     * @return the date that is the given number of working days after (or before, if negative) the given date.
+     * Matches repeatedly applying next/previous working day, so the start date does not need to be a working day.
+     */
+    public LocalDate addWorkingDays(LocalDate date, long amount) {
+        if (amount == 0) {
+            return date;
+        }
+
+        long ordinal = workingDaysBefore(date.toEpochDay());
+        if (amount > 0) {
+            long firstAfter = isWorkingDay(date) ? ordinal + 1 : ordinal;
+            return fromOrdinal(firstAfter + amount - 1);
+        }
+        return fromOrdinal(ordinal + amount);
+    }
+
+    /**
+     * @return the number of working days in the range [inclusiveStart, exclusiveEnd)
+     */
+    public long workingDaysBetween(LocalDate inclusiveStart, LocalDate exclusiveEnd) {
+        long count = workingDaysBefore(exclusiveEnd.toEpochDay()) - workingDaysBefore(inclusiveStart.toEpochDay());
+        return Math.max(count, 0);
+    }
+
+    /**
+     * Picks a working day uniformly from the range [inclusiveStart, exclusiveEnd) by choosing an ordinal directly,
+     * so non-working days never need to be generated and rejected.
+     *
+     * @return empty if the range does not contain any working days
+     */
+    public Optional<LocalDate> randomWorkingDay(LocalDate inclusiveStart,
+                                                LocalDate exclusiveEnd,
+                                                RandomNumberGenerator randomNumberGenerator) {
+        long lowest = workingDaysBefore(inclusiveStart.toEpochDay());
+        long highest = workingDaysBefore(exclusiveEnd.toEpochDay());
+        if (highest <= lowest) {
+            return Optional.empty();
+        }
+        return Optional.of(fromOrdinal(randomNumberGenerator.nextLong(lowest, highest)));
+    }
+
+    private long workingDaysBefore(long epochDay) {
+        return weekdaysBefore(epochDay) - holidaysBefore(epochDay);
+    }
+
+    private LocalDate fromOrdinal(long ordinal) {
+        long weekdayOrdinal = ordinal + holidaysUpToOrdinal(ordinal);
+        long weeks = Math.floorDiv(weekdayOrdinal, WORKING_DAYS_PER_WEEK);
+        long dayOfWeek = Math.floorMod(weekdayOrdinal, WORKING_DAYS_PER_WEEK);
+        return LocalDate.ofEpochDay(weeks * DAYS_PER_WEEK + dayOfWeek - MONDAY_EPOCH_OFFSET);
+    }
+
+    private int holidaysBefore(long epochDay) {
+        int index = Arrays.binarySearch(holidays, epochDay);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int holidaysUpToOrdinal(long ordinal) {
+        int low = 0;
+        int high = ordinalsAfterHolidays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ordinalsAfterHolidays[mid] <= ordinal) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long weekdaysBefore(long epochDay) {
+        long daysSinceMonday = epochDay + MONDAY_EPOCH_OFFSET;
+        long weeks = Math.floorDiv(daysSinceMonday, DAYS_PER_WEEK);
+        long dayOfWeek = Math.floorMod(daysSinceMonday, DAYS_PER_WEEK);
+        return weeks * WORKING_DAYS_PER_WEEK + Math.min(dayOfWeek, WORKING_DAYS_PER_WEEK);
+    }
+
+    private static boolean isWeekday(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WorkingDayCalendar that = (WorkingDayCalendar) o;
+        return Arrays.equals(holidays, that.holidays);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(holidays);
+    }
+
+    @Override
+    public String toString() {
+        return holidays.length == 0 ? "weekends only" : holidays.length + " holidays";
+    }
+}
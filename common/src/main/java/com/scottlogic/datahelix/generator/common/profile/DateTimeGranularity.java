@@ -18,20 +18,24 @@ package com.scottlogic.datahelix.generator.common.profile;
 
 import com.scottlogic.datahelix.generator.common.ValidationException;
 import com.scottlogic.datahelix.generator.common.date.TemporalAdjusterGenerator;
+import com.scottlogic.datahelix.generator.common.date.WorkingDayCalendar;
 import com.scottlogic.datahelix.generator.common.util.defaults.DateTimeDefaults;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
+import java.util.Optional;
 
 public class DateTimeGranularity implements Granularity<OffsetDateTime> {
     public static final DateTimeGranularity DEFAULT = new DateTimeGranularity(ChronoUnit.MILLIS, false);
 
     private final ChronoUnit chronoUnit;
     private final boolean workingDay;
+    private final WorkingDayCalendar calendar;
     private final TemporalAdjusterGenerator temporalAdjusterGenerator;
 
     public DateTimeGranularity(ChronoUnit chronoUnit) {
@@ -39,15 +43,24 @@ public class DateTimeGranularity implements Granularity<OffsetDateTime> {
     }
 
     public DateTimeGranularity(ChronoUnit chronoUnit, boolean workingDay) {
+        this(chronoUnit, workingDay, WorkingDayCalendar.WEEKENDS_ONLY);
+    }
+
+    public DateTimeGranularity(ChronoUnit chronoUnit, boolean workingDay, WorkingDayCalendar calendar) {
         this.chronoUnit = chronoUnit;
         this.workingDay = workingDay;
-        this.temporalAdjusterGenerator = new TemporalAdjusterGenerator(chronoUnit, workingDay);
+        this.calendar = calendar;
+        this.temporalAdjusterGenerator = new TemporalAdjusterGenerator(chronoUnit, workingDay, calendar);
     }
 
     public static DateTimeGranularity create(String granularity){
+        return create(granularity, WorkingDayCalendar.WEEKENDS_ONLY);
+    }
+
+    public static DateTimeGranularity create(String granularity, WorkingDayCalendar calendar){
         String offsetUnitUpperCase = granularity.toUpperCase();
         boolean workingDay = offsetUnitUpperCase.equals("WORKING DAYS");
-        return new DateTimeGranularity(Enum.valueOf(ChronoUnit.class, workingDay ? "DAYS" : offsetUnitUpperCase), workingDay);
+        return new DateTimeGranularity(Enum.valueOf(ChronoUnit.class, workingDay ? "DAYS" : offsetUnitUpperCase), workingDay, calendar);
     }
 
     @Override
@@ -105,6 +118,13 @@ public class DateTimeGranularity implements Granularity<OffsetDateTime> {
 
     @Override
     public OffsetDateTime getRandom(OffsetDateTime min, OffsetDateTime max, RandomNumberGenerator randomNumberGenerator) {
+        if (workingDay) {
+            Optional<LocalDate> randomWorkingDay = getRandomWorkingDay(min, max, randomNumberGenerator);
+            if (randomWorkingDay.isPresent()) {
+                return randomWorkingDay.get().atStartOfDay().atOffset(ZoneOffset.UTC);
+            }
+        }
+
         long generatedLong = randomNumberGenerator.nextLong(getMilli(min), getMilli(max));
 
         OffsetDateTime generatedDate = Instant.ofEpochMilli(generatedLong).atZone(ZoneOffset.UTC).toOffsetDateTime();
@@ -112,6 +132,12 @@ public class DateTimeGranularity implements Granularity<OffsetDateTime> {
         return trimToGranularity(generatedDate);
     }
 
+    private Optional<LocalDate> getRandomWorkingDay(OffsetDateTime min, OffsetDateTime max, RandomNumberGenerator randomNumberGenerator) {
+        LocalDate firstDay = isCorrectScale(min) ? min.toLocalDate() : min.toLocalDate().plusDays(1);
+        LocalDate endDay = isCorrectScale(max) ? max.toLocalDate() : max.toLocalDate().plusDays(1);
+        return calendar.randomWorkingDay(firstDay, endDay, randomNumberGenerator);
+    }
+
     private long getMilli(OffsetDateTime date) {
         return date.toInstant().toEpochMilli();
     }
@@ -128,12 +154,13 @@ public class DateTimeGranularity implements Granularity<OffsetDateTime> {
         if (o == null || getClass() != o.getClass()) return false;
         DateTimeGranularity that = (DateTimeGranularity) o;
         return workingDay == that.workingDay &&
-            chronoUnit == that.chronoUnit;
+            chronoUnit == that.chronoUnit &&
+            calendar.equals(that.calendar);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(chronoUnit, workingDay);
+        return Objects.hash(chronoUnit, workingDay, calendar);
     }
 
     @Override
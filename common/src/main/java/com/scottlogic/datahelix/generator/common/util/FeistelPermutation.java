@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+
+/**
+ * A keyed, random looking bijection of the range [0, size), built from a Feistel network.
+ *
+ * The network permutes the smallest even number of bits that covers the range; values it maps outside the range
+ * are fed back through until they land inside it (cycle walking), which, as the covered space is less than four
+ * times the range, takes a constant number of rounds on average. Applying it to 0, 1, 2... gives every value in
+ * the range exactly once, in a shuffled order, without remembering which values have already been produced.
+ */
+public class FeistelPermutation {
+    private static final int ROUNDS = 6;
+
+    private final long size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public FeistelPermutation(long size, RandomNumberGenerator randomNumberGenerator) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Cannot permute a negative sized range");
+        }
+
+        this.size = size;
+        int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(Math.max(size - 1, 1)));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = halfBits == 32 ? 0xFFFFFFFFL : (1L << halfBits) - 1;
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = ((long) randomNumberGenerator.nextInt() << 32) ^ (randomNumberGenerator.nextInt() & 0xFFFFFFFFL);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the value that the given position in the range maps to, also in the range
+     */
+    public long apply(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        long value = encrypt(index);
+        while (Long.compareUnsigned(value, size) >= 0) {
+            value = encrypt(value);
+        }
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = (value >>> halfBits) & halfMask;
+        long right = value & halfMask;
+        for (long roundKey : roundKeys) {
+            long mixed = left ^ (mix(right ^ roundKey) & halfMask);
+            left = right;
+            right = mixed;
+        }
+        return (left << halfBits) | right;
+    }
+
+    // the finalising step of SplitMix64, which spreads every input bit across the output
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.whitelist;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of strings packed as UTF-8 into a single byte arena, with an offsets array marking where
+ * each one starts. Strings are only decoded when they are read, so a large list costs roughly one byte per
+ * character plus four bytes per entry, rather than a String object (and its backing array) per entry.
+ */
+public class CompactStringList extends AbstractList<String> implements RandomAccess {
+    private final byte[] arena;
+
+    // offsets[i] is the start of the i-th string in the arena, offsets[size] is the end of the last
+    private final int[] offsets;
+
+    private CompactStringList(byte[] arena, int[] offsets) {
+        this.arena = arena;
+        this.offsets = offsets;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return new String(arena, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Builds a weighted list of strings into a {@link CompactStringList}, optionally dropping entries that have
+     * the same value and weight as one added earlier. Duplicates are found with an open-addressing table of
+     * positions, comparing the encoded bytes in place, so no String needs to be retained to detect them.
+     */
+    public static class Builder {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final boolean distinct;
+
+        private byte[] arena = new byte[INITIAL_CAPACITY * 8];
+        private int arenaLength;
+        private int[] offsets = new int[INITIAL_CAPACITY + 1];
+        private double[] weights = new double[INITIAL_CAPACITY];
+        private int size;
+
+        // positions plus one of the entries added so far, zero marking an empty slot
+        private int[] table = new int[INITIAL_CAPACITY * 2];
+
+        public Builder(boolean distinct) {
+            this.distinct = distinct;
+        }
+
+        /**
+         * @return false if the entry was dropped as a duplicate
+         */
+        public boolean add(String value, double weight) {
+            if (weight <= 0.0D) {
+                throw new IllegalArgumentException("Cannot have a zero or negative valued weight");
+            }
+
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int slot = -1;
+            if (distinct) {
+                slot = findSlot(encoded, weight);
+                if (table[slot] != 0) {
+                    return false;
+                }
+            }
+
+            append(encoded, weight);
+            if (distinct) {
+                table[slot] = size;
+                if (size * 2 > table.length) {
+                    rehash();
+                }
+            }
+            return true;
+        }
+
+        public DistributedList<String> build() {
+            CompactStringList list = new CompactStringList(
+                Arrays.copyOf(arena, arenaLength),
+                Arrays.copyOf(offsets, size + 1));
+            return DistributedList.fromWeights(list, Arrays.copyOf(weights, size));
+        }
+
+        private void append(byte[] encoded, double weight) {
+            if (size == weights.length) {
+                weights = Arrays.copyOf(weights, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+            }
+            if ((long) arenaLength + encoded.length > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Too much data to hold in a compact string list");
+            }
+            if (arenaLength + encoded.length > arena.length) {
+                arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8L,
+                    Math.max(arena.length * 2L, (long) arenaLength + encoded.length)));
+            }
+
+            System.arraycopy(encoded, 0, arena, arenaLength, encoded.length);
+            arenaLength += encoded.length;
+            weights[size] = weight;
+            size++;
+            offsets[size] = arenaLength;
+        }
+
+        private int findSlot(byte[] encoded, double weight) {
+            int mask = table.length - 1;
+            int slot = hash(encoded, weight) & mask;
+            while (table[slot] != 0 && !matches(table[slot] - 1, encoded, weight)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private boolean matches(int position, byte[] encoded, double weight) {
+            int start = offsets[position];
+            int length = offsets[position + 1] - start;
+            if (length != encoded.length || Double.compare(weights[position], weight) != 0) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (arena[start + i] != encoded[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            int mask = table.length - 1;
+            for (int position = 0; position < size; position++) {
+                int start = offsets[position];
+                int slot = hash(arena, start, offsets[position + 1], weights[position]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = position + 1;
+            }
+        }
+
+        private static int hash(byte[] encoded, double weight) {
+            return hash(encoded, 0, encoded.length, weight);
+        }
+
+        private static int hash(byte[] bytes, int from, int to, double weight) {
+            int hash = Double.hashCode(weight);
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            // spread the high bits down, as the table is indexed by the low bits
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
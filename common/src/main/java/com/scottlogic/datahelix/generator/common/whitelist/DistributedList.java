@@ -17,37 +17,138 @@
 package com.scottlogic.datahelix.generator.common.whitelist;
 
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.util.NumberUtils;
 
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * An immutable list of elements, each with a normalised weight.
+ *
+ * Elements and weights are held separately, the weights in a primitive array, so no wrapper is kept per element;
+ * {@link #distributedList()} is a view that creates the {@link WeightedElement}s as they are read.
+ *
+ * Random picks use Vose's alias method: the weights are folded once, on construction, into a table of
+ * probabilities and alias indexes held in primitive arrays, so each pick is a single random draw and
+ * two array lookups regardless of the number of elements.
+ */
 public class DistributedList<T> {
     private static final DistributedList<?> EMPTY = new DistributedList<>(Collections.emptyList());
 
-    private final List<WeightedElement<T>> underlyingWeights;
+    private final List<T> elements;
+
+    private final double[] weights;
 
-    private final List<WeightedElement<T>> underlyingCumulativeWeights;
+    private final List<WeightedElement<T>> weightedView;
+
+    private final double[] probabilities;
+
+    private final int[] aliases;
+
+    // built on first lookup, maps each element's index key to the position it first appears at
+    private volatile Map<Object, Integer> index;
 
     public DistributedList(final List<WeightedElement<T>> underlyingWeights) {
         if (underlyingWeights.contains(null)) {
             throw new IllegalArgumentException("DistributedSet should not contain null elements");
         }
 
-        List<WeightedElement<T>> normalisedWeights = normalise(underlyingWeights);
-        this.underlyingWeights = Collections.unmodifiableList(normalisedWeights);
-        this.underlyingCumulativeWeights = cumulative(normalisedWeights);
+        List<T> elements = new ArrayList<>(underlyingWeights.size());
+        double[] weights = new double[underlyingWeights.size()];
+        int position = 0;
+        for (WeightedElement<T> holder : underlyingWeights) {
+            elements.add(holder.element());
+            weights[position++] = holder.weight();
+        }
+
+        this.elements = Collections.unmodifiableList(elements);
+        this.weights = normalise(weights);
+        this.weightedView = new WeightedView();
+        this.probabilities = new double[weights.length];
+        this.aliases = new int[weights.length];
+        buildAliasTable();
     }
 
-    private static <T> List<WeightedElement<T>> normalise(final List<WeightedElement<T>> denormalised) {
-        final double total = denormalised.stream()
-            .map(WeightedElement::weight)
-            .reduce(0.0D, Double::sum);
+    private DistributedList(final List<T> elements, final double[] weights) {
+        this.elements = elements;
+        this.weights = normalise(weights);
+        this.weightedView = new WeightedView();
+        this.probabilities = new double[weights.length];
+        this.aliases = new int[weights.length];
+        buildAliasTable();
+    }
 
-        // Stream (even with 0 elements) ensure a copy of the original set is returned
-        return denormalised.stream()
-            .map(holder -> new WeightedElement<>(holder.element(), holder.weight() / total))
-            .collect(Collectors.toList());
+    /**
+     * Creates a list directly from its elements and their (not necessarily normalised) weights, without
+     * wrapping each element. The elements list is used as-is, so it must not be modified afterwards.
+     */
+    public static <T> DistributedList<T> fromWeights(final List<T> elements, final double[] weights) {
+        if (elements.size() != weights.length) {
+            throw new IllegalArgumentException("DistributedSet must have exactly one weight per element");
+        }
+        for (double weight : weights) {
+            if (weight <= 0.0D) {
+                throw new IllegalArgumentException("Cannot have a zero or negative valued weight");
+            }
+        }
+        return new DistributedList<>(elements, weights);
+    }
+
+    private static double[] normalise(final double[] denormalised) {
+        double total = 0.0D;
+        for (double weight : denormalised) {
+            total += weight;
+        }
+
+        double[] normalised = new double[denormalised.length];
+        for (int i = 0; i < denormalised.length; i++) {
+            normalised[i] = denormalised[i] / total;
+        }
+        return normalised;
+    }
+
+    private void buildAliasTable() {
+        int size = weights.length;
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            aliases[i] = i;
+            scaled[i] = weights[i] * size;
+            if (scaled[i] < 1.0D) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0D;
+            if (scaled[more] < 1.0D) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // anything left over is only short of (or over) 1 by floating point error
+        while (largeCount > 0) {
+            probabilities[large[--largeCount]] = 1.0D;
+        }
+        while (smallCount > 0) {
+            probabilities[small[--smallCount]] = 1.0D;
+        }
     }
 
     public static <T> DistributedList<T> singleton(final T element) {
@@ -71,63 +172,26 @@ public class DistributedList<T> {
                 .collect(Collectors.toList()));
     }
 
-    private static <T> List<WeightedElement<T>> cumulative(List<WeightedElement<T>> nonCumulative) {
-        List<WeightedElement<T>> cumulative = new LinkedList<>();
-        double runningTotal = 0.0D;
-        for (WeightedElement<T> holder : nonCumulative) {
-            runningTotal += holder.weight();
-            cumulative.add(new WeightedElement<>(holder.element(), runningTotal));
-        }
-
-        if (!cumulative.isEmpty()) {
-           replaceLastCumulativeElement(cumulative);
-        }
-
-        return new ArrayList<>(cumulative);
-    }
-
-    private static <T> void replaceLastCumulativeElement(List<WeightedElement<T>> cumulative) {
-        int lastIndex = cumulative.size() - 1;
-        WeightedElement<T> last = cumulative.get(lastIndex);
-        cumulative.remove(lastIndex);
-        cumulative.add(new WeightedElement<>(last.element(), 1.0D));
-    }
-
     @SuppressWarnings("unchecked")
     public static <T> DistributedList<T> empty() {
         return (DistributedList<T>) EMPTY;
     }
 
     public List<WeightedElement<T>> distributedList() {
-        return underlyingWeights;
+        return weightedView;
     }
 
     public T pickRandomly(RandomNumberGenerator random) {
-        return getElementFromCumulativeDistribution(1.0D - random.nextDouble(0.0D, 1.0D));
-    }
-
-    private T getElementFromCumulativeDistribution(final double value) {
-        List<Double> weights = underlyingCumulativeWeights.stream()
-            .map(WeightedElement::weight)
-            .collect(Collectors.toList());
-
-        final int index = binarySearch(weights, value);
-
-        return underlyingCumulativeWeights.get(index).element();
+        return getElementFromAliasTable(random.nextDouble(0.0D, 1.0D));
     }
 
-    private static int binarySearch(List<Double> weights, double target) {
-        final int index = Collections.binarySearch(weights, target, Double::compare);
+    private T getElementFromAliasTable(final double value) {
+        // the whole part of the scaled value picks a column, the fractional part picks between it and its alias
+        final double scaled = value * weights.length;
+        final int column = Math.min((int) scaled, weights.length - 1);
+        final double remainder = scaled - column;
 
-        // We need to resolve the index.
-        // A positive index represents an exact match
-        // A negative index represents an inexact match
-        // See Collections.binarySearch javadoc for more information
-        if (index < 0) {
-            return (-index) - 1;
-        } else {
-            return index;
-        }
+        return elements.get(remainder < probabilities[column] ? column : aliases[column]);
     }
 
     @Override
@@ -135,12 +199,12 @@ public class DistributedList<T> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DistributedList<?> that = (DistributedList<?>) o;
-        return Objects.equals(underlyingWeights, that.underlyingWeights);
+        return Objects.equals(elements, that.elements) && Arrays.equals(weights, that.weights);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(underlyingWeights);
+        return 31 * elements.hashCode() + Arrays.hashCode(weights);
     }
 
     @Override
@@ -149,14 +213,75 @@ public class DistributedList<T> {
     }
 
     public Stream<T> stream() {
-        return distributedList().stream().map(WeightedElement::element);
+        return elements.stream();
     }
 
     public List<T> list() {
-        return stream().collect(Collectors.toList());
+        return new ArrayList<>(elements);
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public T get(int position) {
+        return elements.get(position);
+    }
+
+    /**
+     * @return whether the list contains the value, where numbers are considered equal if they are numerically equal
+     * (as with compareTo), so 2 and 2.0 match
+     */
+    public boolean contains(Object value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return the position of the first element matching the value, comparing numbers as in {@link #contains},
+     * or -1 if there is none
+     */
+    public int indexOf(Object value) {
+        return getIndex().getOrDefault(indexKey(value), -1);
+    }
+
+    private Map<Object, Integer> getIndex() {
+        Map<Object, Integer> built = index;
+        if (built == null) {
+            built = new HashMap<>(elements.size() * 4 / 3 + 1);
+            for (int i = 0; i < elements.size(); i++) {
+                built.putIfAbsent(indexKey(elements.get(i)), i);
+            }
+            index = built;
+        }
+        return built;
+    }
+
+    private static Object indexKey(Object value) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        if (value instanceof Double && !Double.isFinite((Double) value)
+            || value instanceof Float && !Float.isFinite((Float) value)) {
+            return value;
+        }
+
+        BigDecimal number = NumberUtils.coerceToBigDecimal(value);
+        return number == null ? value : number.stripTrailingZeros();
     }
 
     public boolean isEmpty(){
         return distributedList().isEmpty();
     }
+
+    private class WeightedView extends AbstractList<WeightedElement<T>> implements RandomAccess {
+        @Override
+        public WeightedElement<T> get(int position) {
+            return new WeightedElement<>(elements.get(position), weights[position]);
+        }
+
+        @Override
+        public int size() {
+            return weights.length;
+        }
+    }
 }
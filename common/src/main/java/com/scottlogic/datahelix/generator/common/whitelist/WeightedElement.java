@@ -27,7 +27,7 @@ import java.util.function.Function;
  * @param <E>
  */
 public class WeightedElement<E> {
-    private static final double DEFAULT_WEIGHT = 1.0D;
+    public static final double DEFAULT_WEIGHT = 1.0D;
 
     private static final WeightedElement<?> NULL = withDefaultWeight(null);
 
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.date;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayCalendarReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private final HolidayCalendarReader reader = new HolidayCalendarReader();
+
+    @Test
+    void read_skipsCommentsAndBlankLines() throws IOException {
+        Path file = write(
+            "# UK bank holidays",
+            "2019-12-25",
+            "",
+            "   ",
+            "  2019-12-26  ",
+            "#2019-12-27");
+
+        WorkingDayCalendar calendar = reader.read(file);
+
+        assertEquals(
+            WorkingDayCalendar.withHolidays(Arrays.asList(LocalDate.of(2019, 12, 25), LocalDate.of(2019, 12, 26))),
+            calendar);
+        assertTrue(calendar.isWorkingDay(LocalDate.of(2019, 12, 27)));
+    }
+
+    @Test
+    void read_withOnlyComments_givesWeekendsOnlyCalendar() throws IOException {
+        Path file = write("# no holidays this year", "");
+
+        assertEquals(WorkingDayCalendar.WEEKENDS_ONLY, reader.read(file));
+    }
+
+    @Test
+    void read_withInvalidDate_throwsValidationException() throws IOException {
+        Path file = write("2019-12-25", "25/12/2019");
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> reader.read(file));
+
+        assertTrue(exception.getMessage().contains("'25/12/2019'"), exception.getMessage());
+    }
+
+    private Path write(String... lines) throws IOException {
+        Path file = tempDir.resolve("holidays.txt");
+        Files.write(file, Arrays.asList(lines));
+        return file;
+    }
+}
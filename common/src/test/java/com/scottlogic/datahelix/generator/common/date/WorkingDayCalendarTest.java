@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.date;
+
+import com.scottlogic.datahelix.generator.common.TestRandomNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkingDayCalendarTest {
+    private static final LocalDate FRIDAY = LocalDate.of(2019, 12, 20);
+    private static final LocalDate SATURDAY = LocalDate.of(2019, 12, 21);
+    private static final LocalDate CHRISTMAS = LocalDate.of(2019, 12, 25);
+    private static final LocalDate BOXING_DAY = LocalDate.of(2019, 12, 26);
+
+    private final WorkingDayCalendar christmasCalendar = WorkingDayCalendar.withHolidays(Arrays.asList(CHRISTMAS, BOXING_DAY));
+
+    @Test
+    void addWorkingDays_matchesRepeatedNextWorkingDay_forLargeOffsets() {
+        LocalDate start = LocalDate.of(1999, 3, 14);
+        LocalDate expected = start;
+        for (int i = 0; i < 1000; i++) {
+            expected = nextWeekday(expected);
+            assertEquals(expected, WorkingDayCalendar.WEEKENDS_ONLY.addWorkingDays(start, i + 1));
+        }
+    }
+
+    @Test
+    void addWorkingDays_matchesRepeatedPreviousWorkingDay_forNegativeOffsets() {
+        LocalDate start = LocalDate.of(1969, 12, 31);
+        LocalDate expected = start;
+        for (int i = 0; i < 1000; i++) {
+            expected = previousWeekday(expected);
+            assertEquals(expected, WorkingDayCalendar.WEEKENDS_ONLY.addWorkingDays(start, -(i + 1)));
+        }
+    }
+
+    @Test
+    void addWorkingDays_fromWeekend_movesToFollowingMonday() {
+        assertEquals(LocalDate.of(2019, 12, 23), WorkingDayCalendar.WEEKENDS_ONLY.addWorkingDays(SATURDAY, 1));
+    }
+
+    @Test
+    void addWorkingDays_withZero_returnsSameDate() {
+        assertEquals(SATURDAY, WorkingDayCalendar.WEEKENDS_ONLY.addWorkingDays(SATURDAY, 0));
+    }
+
+    @Test
+    void addWorkingDays_withHolidays_skipsHolidays() {
+        assertEquals(LocalDate.of(2019, 12, 24), christmasCalendar.addWorkingDays(FRIDAY, 2));
+        assertEquals(LocalDate.of(2019, 12, 27), christmasCalendar.addWorkingDays(FRIDAY, 3));
+        assertEquals(LocalDate.of(2019, 12, 24), christmasCalendar.addWorkingDays(LocalDate.of(2019, 12, 27), -1));
+    }
+
+    @Test
+    void addWorkingDays_fromHoliday_movesToNextWorkingDay() {
+        assertEquals(LocalDate.of(2019, 12, 27), christmasCalendar.addWorkingDays(CHRISTMAS, 1));
+        assertEquals(LocalDate.of(2019, 12, 24), christmasCalendar.addWorkingDays(CHRISTMAS, -1));
+    }
+
+    @Test
+    void isWorkingDay_returnsFalse_forWeekendsAndHolidays() {
+        assertTrue(christmasCalendar.isWorkingDay(FRIDAY));
+        assertFalse(christmasCalendar.isWorkingDay(SATURDAY));
+        assertFalse(christmasCalendar.isWorkingDay(CHRISTMAS));
+    }
+
+    @Test
+    void workingDaysBetween_excludesWeekendsAndHolidays() {
+        assertEquals(6, christmasCalendar.workingDaysBetween(FRIDAY, LocalDate.of(2020, 1, 1)));
+    }
+
+    @Test
+    void randomWorkingDay_onlyReturnsWorkingDays() {
+        TestRandomNumberGenerator random = new TestRandomNumberGenerator();
+        for (double d = 0; d < 1; d += 0.05) {
+            random.setNextDouble(d);
+            LocalDate picked = christmasCalendar.randomWorkingDay(FRIDAY, LocalDate.of(2020, 1, 1), random).get();
+            assertTrue(christmasCalendar.isWorkingDay(picked), picked + " is not a working day");
+        }
+    }
+
+    @Test
+    void randomWorkingDay_withNoWorkingDaysInRange_returnsEmpty() {
+        Optional<LocalDate> picked = christmasCalendar.randomWorkingDay(CHRISTMAS, LocalDate.of(2019, 12, 27), new TestRandomNumberGenerator());
+        assertFalse(picked.isPresent());
+    }
+
+    private static LocalDate nextWeekday(LocalDate date) {
+        do {
+            date = date.plusDays(1);
+        } while (date.getDayOfWeek().getValue() > 5);
+        return date;
+    }
+
+    private static LocalDate previousWeekday(LocalDate date) {
+        do {
+            date = date.minusDays(1);
+        } while (date.getDayOfWeek().getValue() > 5);
+        return date;
+    }
+}
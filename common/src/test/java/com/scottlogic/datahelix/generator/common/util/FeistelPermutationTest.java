@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeistelPermutationTest {
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 7, 64, 1000, 4097})
+    void apply_visitsEveryValueInRangeExactlyOnce(long size) {
+        FeistelPermutation permutation = new FeistelPermutation(size, randomWithSeed(size));
+
+        boolean[] seen = new boolean[(int) size];
+        LongStream.range(0, size).forEach(index -> {
+            long value = permutation.apply(index);
+            assertTrue(value >= 0 && value < size);
+            assertFalse(seen[(int) value], "value " + value + " produced twice");
+            seen[(int) value] = true;
+        });
+    }
+
+    @Test
+    void apply_shufflesValues() {
+        FeistelPermutation permutation = new FeistelPermutation(1000, randomWithSeed(0));
+
+        long inPlace = LongStream.range(0, 1000).filter(index -> permutation.apply(index) == index).count();
+
+        assertTrue(inPlace < 10);
+    }
+
+    @Test
+    void apply_withLargestRange_staysInRange() {
+        FeistelPermutation permutation = new FeistelPermutation(Long.MAX_VALUE, randomWithSeed(0));
+
+        LongStream.of(0, 1, Long.MAX_VALUE / 2, Long.MAX_VALUE - 1)
+            .forEach(index -> assertTrue(permutation.apply(index) >= 0));
+    }
+
+    @Test
+    void apply_outsideRange_throws() {
+        FeistelPermutation permutation = new FeistelPermutation(10, randomWithSeed(0));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> permutation.apply(10));
+    }
+
+    private static RandomNumberGenerator randomWithSeed(long seed) {
+        Random random = new Random(seed);
+        RandomNumberGenerator generator = mock(RandomNumberGenerator.class);
+        when(generator.nextInt()).then(invocation -> random.nextInt());
+        return generator;
+    }
+}
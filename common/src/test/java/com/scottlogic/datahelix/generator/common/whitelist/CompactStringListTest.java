@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.whitelist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactStringListTest {
+    @Test
+    public void testValuesAreReadBackInOrder() {
+        CompactStringList.Builder builder = new CompactStringList.Builder(false);
+        builder.add("first", 1);
+        builder.add("", 1);
+        builder.add("ünïcødé ✓", 1);
+        builder.add("first", 1);
+
+        DistributedList<String> list = builder.build();
+
+        assertEquals(Arrays.asList("first", "", "ünïcødé ✓", "first"), list.list());
+    }
+
+    @Test
+    public void testDistinctDropsRepeatedValueAndWeight() {
+        CompactStringList.Builder builder = new CompactStringList.Builder(true);
+
+        assertTrue(builder.add("a", 1));
+        assertTrue(builder.add("b", 1));
+        assertFalse(builder.add("a", 1));
+        assertTrue(builder.add("a", 2));
+
+        DistributedList<String> list = builder.build();
+        DistributedList<String> expected = new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("a", 1),
+            new WeightedElement<>("b", 1),
+            new WeightedElement<>("a", 2)));
+
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void testDistinctSurvivesGrowth() {
+        CompactStringList.Builder builder = new CompactStringList.Builder(true);
+        IntStream.range(0, 5000).forEach(i -> builder.add("value" + (i % 3000), 1));
+
+        List<String> expected = IntStream.range(0, 3000).mapToObj(i -> "value" + i).collect(Collectors.toList());
+
+        assertEquals(expected, builder.build().list());
+    }
+
+    @Test
+    public void testNonPositiveWeightIsRejected() {
+        CompactStringList.Builder builder = new CompactStringList.Builder(false);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add("a", 0));
+    }
+}
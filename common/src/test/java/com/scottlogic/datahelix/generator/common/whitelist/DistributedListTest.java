@@ -19,10 +19,14 @@ package com.scottlogic.datahelix.generator.common.whitelist;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -109,6 +113,34 @@ class DistributedListTest {
         assertEquals(fourthValue, otherFourthValue);
     }
 
+    @Test
+    public void testRandomPickFollowsWeights() {
+        DistributedList<String> set = new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("first", 1),
+            new WeightedElement<>("second", 2),
+            new WeightedElement<>("third", 5)));
+
+        Map<String, Long> counts = IntStream.range(0, 8000)
+            .mapToObj(i -> set.pickRandomly(mockOfRandom(i / 8000.0D)))
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        assertEquals(1000L, counts.get("first"));
+        assertEquals(2000L, counts.get("second"));
+        assertEquals(5000L, counts.get("third"));
+    }
+
+    @Test
+    public void testIndexOfMatchesNumericallyEqualValues() {
+        DistributedList<Object> set = DistributedList.uniform(Arrays.asList("a", new BigDecimal("2"), new BigDecimal("3.50")));
+
+        assertEquals(1, set.indexOf(new BigDecimal("2.0")));
+        assertEquals(1, set.indexOf(2));
+        assertEquals(2, set.indexOf(3.5D));
+        assertEquals(0, set.indexOf("a"));
+        assertEquals(-1, set.indexOf("2"));
+        assertFalse(set.contains(new BigDecimal("4")));
+    }
+
     private static RandomNumberGenerator mockOfRandom(double value) {
         RandomNumberGenerator generator = mock(RandomNumberGenerator.class);
         when(generator.nextDouble(0.0D, 1.0D)).thenReturn(value);
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.StandardSpecificFieldType;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time the pinning and minimal strategies spend per row combining already generated bags, against the
+ * implementations they replaced. Run with {@code ./gradlew :core:jmh -PjmhInclude=CombinationStrategyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(CombinationStrategyBenchmark.ROWS)
+public class CombinationStrategyBenchmark {
+    static final int ROWS = 10_000;
+
+    @Param({"10", "30", "50"})
+    public int partitions;
+
+    private List<List<DataBag>> sequences;
+
+    @Setup
+    public void setup() {
+        sequences = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            Field field = new Field(
+                "field" + partition,
+                StandardSpecificFieldType.INTEGER.toSpecificFieldType(),
+                false, null, false, false, null);
+            List<DataBag> bags = new ArrayList<>();
+            for (int row = 0; row < ROWS; row++) {
+                bags.add(new DataBag(Collections.singletonMap(field, new DataBagValue(row))));
+            }
+            sequences.add(bags);
+        }
+    }
+
+    @Benchmark
+    public void pinning(Blackhole blackhole) {
+        consume(new PinningCombinationStrategy(), blackhole);
+    }
+
+    @Benchmark
+    public void baselinePinning(Blackhole blackhole) {
+        consume(new BaselinePinningCombinationStrategy(), blackhole);
+    }
+
+    @Benchmark
+    public void minimal(Blackhole blackhole) {
+        consume(new MinimalCombinationStrategy(), blackhole);
+    }
+
+    @Benchmark
+    public void baselineMinimal(Blackhole blackhole) {
+        consume(new BaselineMinimalCombinationStrategy(), blackhole);
+    }
+
+    private void consume(CombinationStrategy strategy, Blackhole blackhole) {
+        Stream<Supplier<Stream<DataBag>>> suppliers = sequences.stream().map(bags -> bags::stream);
+        strategy.permute(suppliers).limit(ROWS).forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.iterators;
+
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonUtils;
+import com.scottlogic.datahelix.generator.core.generation.string.TransitionTable;
+import dk.brics.automaton.Automaton;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares enumerating a whole regex language with {@link FiniteStringAutomatonIterator} against the object-graph
+ * iterator it replaced. Run with {@code ./gradlew :core:jmh}, adding {@code -PjmhInclude=<regex>} to pick benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiniteStringAutomatonIteratorBenchmark {
+    @Param({"[A-Z]{3}[0-9]{2}", "[A-Z]{2}[0-9]{4}", "(GB|US|FR)[0-9A-F]{4}"})
+    public String regex;
+
+    private Automaton automaton;
+    private TransitionTable table;
+
+    @Setup
+    public void setup() {
+        automaton = AutomatonUtils.createAutomaton(regex, true);
+        table = TransitionTable.compile(automaton);
+    }
+
+    @Benchmark
+    public void transitionTable(Blackhole blackhole) {
+        consume(new FiniteStringAutomatonIterator(table), blackhole);
+    }
+
+    @Benchmark
+    public void transitionTableIncludingCompilation(Blackhole blackhole) {
+        consume(new FiniteStringAutomatonIterator(TransitionTable.compile(automaton)), blackhole);
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        consume(new BaselineStringAutomatonIterator(automaton), blackhole);
+    }
+
+    private static void consume(Iterator<String> iterator, Blackhole blackhole) {
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
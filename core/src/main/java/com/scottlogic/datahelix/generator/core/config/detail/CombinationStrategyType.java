@@ -19,5 +19,7 @@ package com.scottlogic.datahelix.generator.core.config.detail;
 public enum CombinationStrategyType {
     EXHAUSTIVE,
     PINNING,
-    MINIMAL
+    MINIMAL,
+    PAIRWISE,
+    TRIPLEWISE
 }
@@ -18,6 +18,7 @@ package com.scottlogic.datahelix.generator.core.fieldspecs;
 
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.NullAppendingValueSource;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringBlacklistDecisions;
 
 public abstract class FieldSpec {
     public abstract boolean canCombineWithWhitelistValue(Object value);
@@ -34,6 +35,11 @@ public abstract class FieldSpec {
         return nullable;
     }
 
+    // records how any string blacklist is excluded in the given decisions
+    public FieldValueSource getFieldValueSource(StringBlacklistDecisions blacklistDecisions) {
+        return getFieldValueSource();
+    }
+
     protected FieldValueSource appendNullSource(FieldValueSource source){
         if (!nullable){
             return source;
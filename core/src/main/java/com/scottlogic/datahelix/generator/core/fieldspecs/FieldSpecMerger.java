@@ -24,6 +24,8 @@ import com.scottlogic.datahelix.generator.core.restrictions.TypedRestrictions;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictionsMerger;
 import com.scottlogic.datahelix.generator.common.SetUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -74,19 +76,19 @@ public class FieldSpecMerger {
     //TODO try a performance test with this replaced with combineSetWithRestrictions()
 
     private Optional<FieldSpec> mergeSets(WhitelistFieldSpec left, WhitelistFieldSpec right) {
-        DistributedList<Object> set = new DistributedList<>(left.getWhitelist().distributedList().stream()
-            .flatMap(leftHolder -> right.getWhitelist().distributedList().stream()
-                .filter(rightHolder -> elementsEqual(leftHolder, rightHolder))
-                .map(rightHolder -> mergeElements(leftHolder, rightHolder)))
-            .distinct()
-            .collect(Collectors.toList()));
+        DistributedList<Object> rightWhitelist = right.getWhitelist();
+        List<WeightedElement<Object>> merged = new ArrayList<>();
+        for (WeightedElement<Object> leftHolder : left.getWhitelist().distributedList()) {
+            int rightIndex = rightWhitelist.indexOf(leftHolder.element());
+            if (rightIndex >= 0) {
+                merged.add(mergeElements(leftHolder, rightWhitelist.distributedList().get(rightIndex)));
+            }
+        }
+        DistributedList<Object> set = new DistributedList<>(merged.stream().distinct().collect(Collectors.toList()));
 
         FieldSpec newFieldSpec = set.isEmpty() ? FieldSpecFactory.nullOnly() : FieldSpecFactory.fromList(set);
         return addNullability(left.isNullable(), right.isNullable(), newFieldSpec);
     }
-    private static <T> boolean elementsEqual(WeightedElement<T> left, WeightedElement<T> right) {
-        return left.element().equals(right.element());
-    }
 
     private Optional<FieldSpec> combineSetWithRestrictions(WhitelistFieldSpec set, FieldSpec restrictions) {
         DistributedList<Object> newSet = new DistributedList<>(
@@ -17,6 +17,7 @@
 package com.scottlogic.datahelix.generator.core.fieldspecs;
 
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringBlacklistDecisions;
 import com.scottlogic.datahelix.generator.core.restrictions.TypedRestrictions;
 
 import java.util.Collection;
@@ -40,8 +41,13 @@ public class RestrictionsFieldSpec extends FieldSpec {
 
     @Override
     public FieldValueSource getFieldValueSource() {
+        return getFieldValueSource(new StringBlacklistDecisions());
+    }
+
+    @Override
+    public FieldValueSource getFieldValueSource(StringBlacklistDecisions blacklistDecisions) {
         return appendNullSource(
-            restrictions.createFieldValueSource(blacklist));
+            restrictions.createFieldValueSource(blacklist, blacklistDecisions));
     }
 
     @Override
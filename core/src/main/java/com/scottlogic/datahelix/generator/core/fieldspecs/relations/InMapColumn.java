@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.fieldspecs.relations;
+
+import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The values of an inMap column, shared between an {@link InMapRelation} and its inverse {@link InMapIndexRelation}.
+ *
+ * Holds the index FieldSpec for the most recent FieldSpec of the value field, so the column is not scanned on every
+ * row. The single value FieldSpec for an index is cheap to build, so it is built whenever it is asked for rather than
+ * kept for every index of what may be a very large column.
+ */
+class InMapColumn {
+    private final DistributedList<Object> values;
+
+    private volatile IndexSpec lastIndexSpec;
+
+    InMapColumn(DistributedList<Object> values) {
+        this.values = values;
+    }
+
+    DistributedList<Object> getValues() {
+        return values;
+    }
+
+    FieldSpec valueAt(int index) {
+        return FieldSpecFactory.fromList(DistributedList.singleton(values.get(index)));
+    }
+
+    FieldSpec indexesPermittedBy(FieldSpec valueFieldSpec) {
+        IndexSpec last = lastIndexSpec;
+        if (last != null && last.valueFieldSpec.equals(valueFieldSpec)) {
+            return last.indexFieldSpec;
+        }
+
+        List<Object> indexes = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (valueFieldSpec.canCombineWithWhitelistValue(values.get(i))) {
+                indexes.add(BigDecimal.valueOf(i));
+            }
+        }
+        FieldSpec indexFieldSpec = FieldSpecFactory.fromList(DistributedList.uniform(indexes)).withNotNull();
+
+        lastIndexSpec = new IndexSpec(valueFieldSpec, indexFieldSpec);
+        return indexFieldSpec;
+    }
+
+    private static final class IndexSpec {
+        private final FieldSpec valueFieldSpec;
+        private final FieldSpec indexFieldSpec;
+
+        private IndexSpec(FieldSpec valueFieldSpec, FieldSpec indexFieldSpec) {
+            this.valueFieldSpec = valueFieldSpec;
+            this.indexFieldSpec = indexFieldSpec;
+        }
+    }
+}
@@ -18,38 +18,29 @@ package com.scottlogic.datahelix.generator.core.fieldspecs.relations;
 
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
-import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
 import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
-
 public class InMapIndexRelation implements FieldSpecRelation
 {
     private final Field main;
     private final Field other;
-    private final DistributedList<Object> underlyingList;
+    private final InMapColumn column;
 
     public InMapIndexRelation(Field main, Field other, DistributedList<Object> underlyingList) {
+        this(main, other, new InMapColumn(underlyingList));
+    }
+
+    InMapIndexRelation(Field main, Field other, InMapColumn column) {
         this.main = main;
         this.other = other;
-        this.underlyingList = underlyingList;
+        this.column = column;
     }
 
     @Override
     public FieldSpec createModifierFromOtherFieldSpec(FieldSpec otherFieldSpec) {
-        List<Object> whiteList = new ArrayList<>();
-
-        for (int i = 0; i < underlyingList.list().size(); i++) {
-            Object testingElement = underlyingList.list().get(i);
-            if (otherFieldSpec.canCombineWithWhitelistValue(testingElement)) {
-                whiteList.add(BigDecimal.valueOf(i));
-            }
-        }
-        return FieldSpecFactory.fromList(DistributedList.uniform(whiteList)).withNotNull();
+        return column.indexesPermittedBy(otherFieldSpec);
     }
 
     @Override
@@ -59,7 +50,7 @@ public class InMapIndexRelation implements FieldSpecRelation
 
     @Override
     public FieldSpecRelation inverse() {
-        return new InMapRelation(main, other, underlyingList);
+        return new InMapRelation(main, other, column);
     }
 
     @Override
@@ -73,7 +64,7 @@ public class InMapIndexRelation implements FieldSpecRelation
     }
 
     public DistributedList<Object> getUnderlyingList() {
-        return this.underlyingList;
+        return column.getValues();
     }
 
     @Override
@@ -18,7 +18,6 @@ package com.scottlogic.datahelix.generator.core.fieldspecs.relations;
 
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
-import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
 import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
@@ -29,12 +28,16 @@ public class InMapRelation implements FieldSpecRelation
 {
     private final Field main;
     private final Field other;
-    private final DistributedList<Object> underlyingList;
+    private final InMapColumn column;
 
     public InMapRelation(Field main, Field other, DistributedList<Object> underlyingList) {
+        this(main, other, new InMapColumn(underlyingList));
+    }
+
+    InMapRelation(Field main, Field other, InMapColumn column) {
         this.main = main;
         this.other = other;
-        this.underlyingList = underlyingList;
+        this.column = column;
     }
 
     @Override
@@ -46,13 +49,12 @@ public class InMapRelation implements FieldSpecRelation
     public FieldSpec createModifierFromOtherValue(DataBagValue otherFieldGeneratedValue) {
         BigDecimal value = (BigDecimal) otherFieldGeneratedValue.getValue();
 
-        DistributedList<Object> newList = DistributedList.singleton(underlyingList.list().get(value.intValue()));
-        return FieldSpecFactory.fromList(newList);
+        return column.valueAt(value.intValue());
     }
 
     @Override
     public FieldSpecRelation inverse() {
-        return new InMapIndexRelation(other, main, underlyingList);
+        return new InMapIndexRelation(other, main, column);
     }
 
     @Override
@@ -66,7 +68,7 @@ public class InMapRelation implements FieldSpecRelation
     }
 
     public DistributedList<Object> getUnderlyingList() {
-        return this.underlyingList;
+        return column.getValues();
     }
 
     @Override
@@ -21,11 +21,12 @@ import com.google.inject.Inject;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 public abstract class AbstractDataGeneratorMonitor implements DataGeneratorMonitor {
     final PrintWriter writer;
 
-    private List<String> linesToPrintAtEndOfGeneration = new ArrayList<>();
+    private List<Supplier<String>> linesToPrintAtEndOfGeneration = new ArrayList<>();
 
     @Inject
     AbstractDataGeneratorMonitor(PrintWriter writer) {
@@ -33,10 +34,20 @@ public abstract class AbstractDataGeneratorMonitor implements DataGeneratorMonit
     }
 
     public void endGeneration() {
-        linesToPrintAtEndOfGeneration.forEach(writer::println);
+        for (Supplier<String> line : linesToPrintAtEndOfGeneration) {
+            String text = line.get();
+            if (text != null) {
+                writer.println(text);
+            }
+        }
     }
 
     public void addLineToPrintAtEndOfGeneration(String line) {
+        linesToPrintAtEndOfGeneration.add(() -> line);
+    }
+
+    // evaluated when generation ends, for summaries of state that changes as rows are produced, nothing is printed if null
+    public void addLineToPrintAtEndOfGeneration(Supplier<String> line) {
         linesToPrintAtEndOfGeneration.add(line);
     }
 }
\ No newline at end of file
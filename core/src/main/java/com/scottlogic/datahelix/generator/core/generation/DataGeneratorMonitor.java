@@ -18,9 +18,12 @@ package com.scottlogic.datahelix.generator.core.generation;
 
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
 
+import java.util.function.Supplier;
+
 public interface DataGeneratorMonitor {
     default void generationStarting() {}
     default void rowEmitted(GeneratedObject row) {}
     default void endGeneration() {}
     void addLineToPrintAtEndOfGeneration(String line);
+    void addLineToPrintAtEndOfGeneration(Supplier<String> line);
 }
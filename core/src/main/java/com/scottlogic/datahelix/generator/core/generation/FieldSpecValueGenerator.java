@@ -23,6 +23,7 @@ import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringBlacklistDecisions;
 import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
 
 import java.util.stream.Stream;
@@ -30,18 +31,22 @@ import java.util.stream.Stream;
 public class FieldSpecValueGenerator {
     private final DataGenerationType dataType;
     private final RandomNumberGenerator randomNumberGenerator;
+    private final StringBlacklistDecisions blacklistDecisions;
 
     @Inject
     public FieldSpecValueGenerator(DataGenerationType dataGenerationType,
-                                   JavaUtilRandomNumberGenerator randomNumberGenerator) {
+                                   JavaUtilRandomNumberGenerator randomNumberGenerator,
+                                   StringBlacklistDecisions blacklistDecisions) {
         this.dataType = dataGenerationType;
         this.randomNumberGenerator = randomNumberGenerator;
+        this.blacklistDecisions = blacklistDecisions;
     }
 
     public FieldSpecValueGenerator(DataGenerationType dataGenerationType,
                                    RandomNumberGenerator randomNumberGenerator) {
         this.dataType = dataGenerationType;
         this.randomNumberGenerator = randomNumberGenerator;
+        this.blacklistDecisions = new StringBlacklistDecisions();
     }
 
     public boolean isRandom() {
@@ -49,7 +54,7 @@ public class FieldSpecValueGenerator {
     }
 
     public Stream<DataBagValue> generate(Field field, FieldSpec spec) {
-        FieldValueSource fieldValueSource = spec.getFieldValueSource();
+        FieldValueSource fieldValueSource = spec.getFieldValueSource(blacklistDecisions);
 
         return getDataValues(fieldValueSource, field.isUnique())
             .map(DataBagValue::new);
@@ -57,8 +62,10 @@ public class FieldSpecValueGenerator {
 
     private Stream<Object> getDataValues(FieldValueSource source, boolean unique) {
         if (unique) {
-            return source.generateAllValues();
-        } 
+            return isRandom()
+                ? source.generateUniqueRandomValues(randomNumberGenerator)
+                : source.generateAllValues();
+        }
 
         switch (dataType) {
             case FULL_SEQUENTIAL:
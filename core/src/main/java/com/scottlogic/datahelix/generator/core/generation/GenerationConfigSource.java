@@ -26,6 +26,8 @@ import java.nio.file.Path;
 public interface GenerationConfigSource  {
     DataGenerationType getGenerationType();
     CombinationStrategyType getCombinationStrategyType();
+    long getMaxBufferedValues();
+    long getMaxConsecutiveDuplicates();
     Long getMaxRows();
     boolean getInfiniteOutput();
 
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.core.generation.deduplication.UniqueKeyFilter;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class UniqueKeyDataGenerator implements DataGenerator {
+    public static final long DEFAULT_MAX_CONSECUTIVE_DUPLICATES = 100_000;
+
+    private final DataGenerator dataGenerator;
+    private final DataGeneratorMonitor monitor;
+    private final long defaultExpectedRows;
+    private final Long maxConsecutiveDuplicates;
+
+    //created by DataGeneratorProvider
+    /**
+     * @param maxConsecutiveDuplicates how many rows in a row may be duplicates before the keys are taken to be
+     *                                 exhausted, or null if generation should never be stopped for duplicates. Only
+     *                                 random generation can spin forever on exhausted keys, so other modes pass null.
+     */
+    public UniqueKeyDataGenerator(
+        DataGenerator dataGenerator,
+        DataGeneratorMonitor monitor,
+        long defaultExpectedRows,
+        Long maxConsecutiveDuplicates) {
+        this.dataGenerator = dataGenerator;
+        this.monitor = monitor;
+        this.defaultExpectedRows = defaultExpectedRows;
+        this.maxConsecutiveDuplicates = maxConsecutiveDuplicates;
+    }
+
+    @Override
+    public Stream<GeneratedObject> generateData(Profile profile) {
+        if (profile.getUniqueKeys().isEmpty()) {
+            return dataGenerator.generateData(profile);
+        }
+
+        UniqueKeyFilter filter = new UniqueKeyFilter(new ArrayList<>(profile.getUniqueKeys()), defaultExpectedRows);
+        monitor.addLineToPrintAtEndOfGeneration(filter::summary);
+
+        Stream<GeneratedObject> rows = dataGenerator.generateData(profile);
+        return StreamSupport.stream(new DeduplicatingSpliterator(rows.iterator(), filter), false)
+            .onClose(rows::close);
+    }
+
+    private class DeduplicatingSpliterator extends Spliterators.AbstractSpliterator<GeneratedObject> {
+        private final Iterator<GeneratedObject> rows;
+        private final UniqueKeyFilter filter;
+
+        DeduplicatingSpliterator(Iterator<GeneratedObject> rows, UniqueKeyFilter filter) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rows = rows;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super GeneratedObject> action) {
+            long consecutiveDuplicates = 0;
+            while (rows.hasNext()) {
+                GeneratedObject row = rows.next();
+                if (filter.accept(row)) {
+                    action.accept(row);
+                    return true;
+                }
+                if (maxConsecutiveDuplicates != null && ++consecutiveDuplicates >= maxConsecutiveDuplicates) {
+                    throw new ValidationException("Generated " + consecutiveDuplicates +
+                        " duplicate rows in a row, the unique keys may be exhausted. " +
+                        "Use --max-consecutive-duplicates to allow more.");
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Outputs rows in which every combination of values from any {@code strength} of the sequences appears at least
+ * once, i.e. the rows form a covering array. With a strength of 2 every pair of values from different sequences
+ * appears together in some row.
+ *
+ * Rows are built one at a time, greedily: each starts from a combination that has not been covered yet and then picks,
+ * sequence by sequence, the bag that covers the most combinations that have not been covered yet. So each row can be
+ * emitted as soon as it is built. The number of rows grows with the product of the sizes of the {@code strength}
+ * largest sequences and only logarithmically with the number of sequences, rather than with the product of all the
+ * sequences' sizes as exhaustive combination does.
+ *
+ * A bit is kept for every combination of values that could appear together, so only the first
+ * {@link #MAX_VALUES_PER_SEQUENCE} bags of each sequence are combined, and fewer than that if those bits would take
+ * more than {@link #MAX_ESTIMATED_BYTES}. The monitor is told when any sequence is cut short.
+ */
+public class CoveringArrayCombinationStrategy implements CombinationStrategy {
+    static final int MAX_VALUES_PER_SEQUENCE = 1_000;
+    static final long MAX_ESTIMATED_BYTES = 64L * 1024 * 1024;
+
+    // an allowance for the tuple indexes and BitSet that each combination of `strength` sequences has
+    private static final int BYTES_PER_COMBINATION = 96;
+
+    private final int strength;
+    private final DataGeneratorMonitor monitor;
+    private final int maxValuesPerSequence;
+    private final long maxEstimatedBytes;
+    private final AtomicBoolean reportedTruncation = new AtomicBoolean();
+
+    public CoveringArrayCombinationStrategy(int strength, DataGeneratorMonitor monitor) {
+        this(strength, monitor, MAX_VALUES_PER_SEQUENCE, MAX_ESTIMATED_BYTES);
+    }
+
+    CoveringArrayCombinationStrategy(int strength, DataGeneratorMonitor monitor, int maxValuesPerSequence,
+                                     long maxEstimatedBytes) {
+        if (strength < 1) {
+            throw new IllegalArgumentException("Strength must be at least 1, was " + strength);
+        }
+        this.strength = strength;
+        this.monitor = monitor;
+        this.maxValuesPerSequence = maxValuesPerSequence;
+        this.maxEstimatedBytes = maxEstimatedBytes;
+    }
+
+    @Override
+    public Stream<DataBag> permute(Stream<Supplier<Stream<DataBag>>> dataBagSequences) {
+        List<Supplier<Stream<DataBag>>> sequences = dataBagSequences.collect(Collectors.toList());
+        Iterator<DataBag> iterator = new LazyIterator(sequences);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    // reads the sequences when the first row is asked for, rather than when the stream is created
+    private class LazyIterator implements Iterator<DataBag> {
+        private final List<Supplier<Stream<DataBag>>> sequences;
+        private Iterator<DataBag> rows;
+
+        LazyIterator(List<Supplier<Stream<DataBag>>> sequences) {
+            this.sequences = sequences;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (rows == null) {
+                List<DataBag[]> values = sequences.stream()
+                    .map(sequence -> sequence.get().limit(maxValuesPerSequence + 1L).toArray(DataBag[]::new))
+                    .collect(Collectors.toList());
+                rows = values.stream().anyMatch(bags -> bags.length == 0)
+                    ? Collections.emptyIterator()
+                    : new InternalIterator(truncate(values), Math.min(strength, values.size()));
+            }
+            return rows.hasNext();
+        }
+
+        @Override
+        public DataBag next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return rows.next();
+        }
+    }
+
+    // cuts each sequence down to the most values whose combinations fit in the memory allowed
+    private DataBag[][] truncate(List<DataBag[]> values) {
+        int combinedStrength = Math.min(strength, values.size());
+        int[] sizes = values.stream().mapToInt(bags -> bags.length).toArray();
+        if (estimatedBytes(sizes, combinedStrength, 1) > maxEstimatedBytes) {
+            throw new ValidationException(String.format(
+                "There are too many independent groups of fields (%d) to combine %s, use another combination strategy.",
+                values.size(),
+                describeStrength()));
+        }
+
+        int cap = 1;
+        int uncapped = maxValuesPerSequence;
+        while (cap < uncapped) {
+            int mid = (int) (((long) cap + uncapped + 1) / 2);
+            if (estimatedBytes(sizes, combinedStrength, mid) <= maxEstimatedBytes) {
+                cap = mid;
+            } else {
+                uncapped = mid - 1;
+            }
+        }
+
+        DataBag[][] truncated = new DataBag[values.size()][];
+        int truncatedCount = 0;
+        for (int sequence = 0; sequence < truncated.length; sequence++) {
+            DataBag[] bags = values.get(sequence);
+            if (bags.length > cap) {
+                bags = Arrays.copyOf(bags, cap);
+                truncatedCount++;
+            }
+            truncated[sequence] = bags;
+        }
+
+        if (truncatedCount > 0 && reportedTruncation.compareAndSet(false, true)) {
+            monitor.addLineToPrintAtEndOfGeneration(String.format(
+                "Only the first %d values of %d of the %d independent groups of fields were combined %s.",
+                cap,
+                truncatedCount,
+                values.size(),
+                describeStrength()));
+        }
+        return truncated;
+    }
+
+    // the memory needed to track every tuple of `strength` sequences, with no more than `cap` values in each sequence
+    private static double estimatedBytes(int[] sizes, int strength, int cap) {
+        // the sums of the products of the sizes, and of the number, of every combination of up to `strength` sequences
+        double[] tuples = new double[strength + 1];
+        double[] combinations = new double[strength + 1];
+        tuples[0] = 1;
+        combinations[0] = 1;
+        for (int size : sizes) {
+            int capped = Math.min(size, cap);
+            for (int chosen = strength; chosen > 0; chosen--) {
+                tuples[chosen] += tuples[chosen - 1] * capped;
+                combinations[chosen] += combinations[chosen - 1];
+            }
+        }
+        return tuples[strength] / Byte.SIZE + combinations[strength] * BYTES_PER_COMBINATION;
+    }
+
+    private String describeStrength() {
+        switch (strength) {
+            case 2: return "pairwise";
+            case 3: return "triplewise";
+            default: return "with a strength of " + strength;
+        }
+    }
+
+    static class InternalIterator implements Iterator<DataBag> {
+        private static final int UNASSIGNED = -1;
+
+        private final DataBag[][] values;
+
+        // every combination of `strength` sequences, with a bit set for each of its value tuples not yet in a row
+        private final int[][] combinations;
+        private final BitSet[] uncovered;
+        private final int[] uncoveredCounts;
+        private long totalUncovered;
+
+        // the indexes into combinations of those that include each sequence
+        private final int[][] combinationsOfSequence;
+
+        // the number of uncovered tuples that each value of each sequence is in
+        private final long[][] uncoveredWithValue;
+
+        private final int[] assignment;
+        private final DataBag[] row;
+
+        InternalIterator(DataBag[][] values, int strength) {
+            this.values = values;
+            this.combinations = combinations(values.length, strength);
+            this.uncovered = new BitSet[combinations.length];
+            this.uncoveredCounts = new int[combinations.length];
+            for (int c = 0; c < combinations.length; c++) {
+                int tuples = 1;
+                for (int sequence : combinations[c]) {
+                    tuples = Math.multiplyExact(tuples, values[sequence].length);
+                }
+                uncovered[c] = new BitSet(tuples);
+                uncovered[c].set(0, tuples);
+                uncoveredCounts[c] = tuples;
+                totalUncovered += tuples;
+            }
+
+            int[] counts = new int[values.length];
+            for (int[] combination : combinations) {
+                for (int sequence : combination) {
+                    counts[sequence]++;
+                }
+            }
+            this.combinationsOfSequence = new int[values.length][];
+            for (int sequence = 0; sequence < values.length; sequence++) {
+                combinationsOfSequence[sequence] = new int[counts[sequence]];
+            }
+            Arrays.fill(counts, 0);
+            for (int c = 0; c < combinations.length; c++) {
+                for (int sequence : combinations[c]) {
+                    combinationsOfSequence[sequence][counts[sequence]++] = c;
+                }
+            }
+
+            this.uncoveredWithValue = new long[values.length][];
+            for (int sequence = 0; sequence < values.length; sequence++) {
+                uncoveredWithValue[sequence] = new long[values[sequence].length];
+                for (int c : combinationsOfSequence[sequence]) {
+                    long tuplesWithValue = uncoveredCounts[c] / values[sequence].length;
+                    for (int value = 0; value < values[sequence].length; value++) {
+                        uncoveredWithValue[sequence][value] += tuplesWithValue;
+                    }
+                }
+            }
+
+            this.assignment = new int[values.length];
+            this.row = new DataBag[values.length];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return totalUncovered > 0;
+        }
+
+        @Override
+        public DataBag next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Arrays.fill(assignment, UNASSIGNED);
+            seedFromMostUncoveredCombination();
+            for (int sequence = 0; sequence < values.length; sequence++) {
+                if (assignment[sequence] == UNASSIGNED) {
+                    assignment[sequence] = bestValue(sequence);
+                }
+            }
+            markCovered();
+
+            for (int sequence = 0; sequence < values.length; sequence++) {
+                row[sequence] = values[sequence][assignment[sequence]];
+            }
+            return DataBag.merge(row);
+        }
+
+        private void seedFromMostUncoveredCombination() {
+            int best = 0;
+            for (int c = 1; c < combinations.length; c++) {
+                if (uncoveredCounts[c] > uncoveredCounts[best]) {
+                    best = c;
+                }
+            }
+
+            int tuple = uncovered[best].nextSetBit(0);
+            int[] combination = combinations[best];
+            for (int i = combination.length - 1; i >= 0; i--) {
+                int size = values[combination[i]].length;
+                assignment[combination[i]] = tuple % size;
+                tuple /= size;
+            }
+        }
+
+        // the value of the sequence that completes the most uncovered tuples with the values already assigned,
+        // or if there is a tie the one that is in the most uncovered tuples overall
+        private int bestValue(int sequence) {
+            int bestValue = 0;
+            int bestCovered = -1;
+            for (int value = 0; value < values[sequence].length; value++) {
+                assignment[sequence] = value;
+                int covered = 0;
+                for (int c : combinationsOfSequence[sequence]) {
+                    int tuple = tupleIndex(c);
+                    if (tuple >= 0 && uncovered[c].get(tuple)) {
+                        covered++;
+                    }
+                }
+                if (covered > bestCovered
+                    || (covered == bestCovered
+                        && uncoveredWithValue[sequence][value] > uncoveredWithValue[sequence][bestValue])) {
+                    bestCovered = covered;
+                    bestValue = value;
+                }
+            }
+            assignment[sequence] = UNASSIGNED;
+            return bestValue;
+        }
+
+        private void markCovered() {
+            for (int c = 0; c < combinations.length; c++) {
+                int tuple = tupleIndex(c);
+                if (uncovered[c].get(tuple)) {
+                    uncovered[c].clear(tuple);
+                    uncoveredCounts[c]--;
+                    totalUncovered--;
+                    for (int sequence : combinations[c]) {
+                        uncoveredWithValue[sequence][assignment[sequence]]--;
+                    }
+                }
+            }
+        }
+
+        // the index of the combination's tuple in the current assignment, or -1 if any of its sequences is unassigned
+        private int tupleIndex(int c) {
+            int tuple = 0;
+            for (int sequence : combinations[c]) {
+                int value = assignment[sequence];
+                if (value == UNASSIGNED) {
+                    return -1;
+                }
+                tuple = tuple * values[sequence].length + value;
+            }
+            return tuple;
+        }
+
+        private static int[][] combinations(int sequences, int strength) {
+            List<int[]> combinations = new ArrayList<>();
+            int[] combination = new int[strength];
+            for (int i = 0; i < strength; i++) {
+                combination[i] = i;
+            }
+            while (true) {
+                combinations.add(combination.clone());
+
+                int i = strength - 1;
+                while (i >= 0 && combination[i] == sequences - strength + i) {
+                    i--;
+                }
+                if (i < 0) {
+                    return combinations.toArray(new int[0][]);
+                }
+                combination[i]++;
+                for (int j = i + 1; j < strength; j++) {
+                    combination[j] = combination[j - 1] + 1;
+                }
+            }
+        }
+    }
+}
@@ -19,32 +19,108 @@ package com.scottlogic.datahelix.generator.core.generation.combinationstrategies
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator.flatMap;
 
+/**
+ * Combines every bag of each sequence with every combination of bags from the sequences after it.
+ *
+ * Each sequence after the first is read once per bag before it, so those sequences are recorded the first time they
+ * are read and then replayed. Up to the given number of field values are held in memory across all the sequences of
+ * every permutation made by the strategy, the rest are written to temporary files. Recordings are dropped once the
+ * permuted stream has been read to the end or closed.
+ */
 public class ExhaustiveCombinationStrategy implements CombinationStrategy {
+    public static final long DEFAULT_MAXIMUM_BUFFERED_VALUES = 1_000_000;
+
+    private final AtomicLong remainingBudget;
+
+    public ExhaustiveCombinationStrategy() {
+        this(DEFAULT_MAXIMUM_BUFFERED_VALUES);
+    }
+
+    public ExhaustiveCombinationStrategy(long maximumBufferedValues) {
+        this.remainingBudget = new AtomicLong(maximumBufferedValues);
+    }
+
     @Override
     public Stream<DataBag> permute(Stream<Supplier<Stream<DataBag>>> dataBagSequences) {
-        return flatten(dataBagSequences.iterator()).get();
+        Iterator<Supplier<Stream<DataBag>>> sequences = dataBagSequences.iterator();
+        Supplier<Stream<DataBag>> firstDataBagStream = sequences.next();
+
+        if (!sequences.hasNext()){
+            return firstDataBagStream.get();
+        }
+
+        List<ReplayableDataBagSequence> recorded = new ArrayList<>();
+        Stream<DataBag> combined = combine(firstDataBagStream, flatten(sequences, recorded)).get();
+        ReleasingSpliterator spliterator = new ReleasingSpliterator(combined.spliterator(), recorded);
+        return StreamSupport.stream(spliterator, false)
+            .onClose(() -> {
+                spliterator.release();
+                combined.close();
+            });
     }
 
-    public Supplier<Stream<DataBag>> flatten(Iterator<Supplier<Stream<DataBag>>> remainingBags) {
-        Supplier<Stream<DataBag>> firstDataBagStream = remainingBags.next();
+    long getRemainingBudget() {
+        return remainingBudget.get();
+    }
+
+    private Supplier<Stream<DataBag>> flatten(Iterator<Supplier<Stream<DataBag>>> remainingBags,
+                                              List<ReplayableDataBagSequence> recorded) {
+        ReplayableDataBagSequence firstDataBagStream =
+            new ReplayableDataBagSequence(remainingBags.next(), remainingBudget);
+        recorded.add(firstDataBagStream);
 
         if (!remainingBags.hasNext()){
             return firstDataBagStream;
         }
 
-        Supplier<Stream<DataBag>> otherDataBags = flatten(remainingBags);
+        return combine(firstDataBagStream, flatten(remainingBags, recorded));
+    }
 
+    private static Supplier<Stream<DataBag>> combine(Supplier<Stream<DataBag>> firstDataBagStream,
+                                                     Supplier<Stream<DataBag>> otherDataBags) {
         return ()-> flatMap(
             firstDataBagStream.get(),
             currentBag ->
                 otherDataBags.get()
                     .map(subBag ->
                         DataBag.merge(currentBag, subBag)));
+    }
+
+    /**
+     * Releases the recorded sequences as soon as the last combination has been read
+     */
+    private static class ReleasingSpliterator extends Spliterators.AbstractSpliterator<DataBag> {
+        private final Spliterator<DataBag> combinations;
+        private List<ReplayableDataBagSequence> recorded;
 
+        ReleasingSpliterator(Spliterator<DataBag> combinations, List<ReplayableDataBagSequence> recorded) {
+            super(combinations.estimateSize(), combinations.characteristics() & Spliterator.ORDERED);
+            this.combinations = combinations;
+            this.recorded = recorded;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DataBag> action) {
+            if (combinations.tryAdvance(action)) {
+                return true;
+            }
+            release();
+            return false;
+        }
+
+        void release() {
+            if (recorded != null) {
+                recorded.forEach(ReplayableDataBagSequence::release);
+                recorded = null;
+            }
+        }
     }
 }
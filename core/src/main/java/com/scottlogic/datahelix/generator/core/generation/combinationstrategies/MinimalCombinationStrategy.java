@@ -14,6 +14,7 @@
  * limitations under the License.
  */
 
+
 package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
 
 import com.scottlogic.datahelix.generator.core.generation.databags.*;
@@ -22,6 +23,10 @@ import java.util.*;
 import java.util.function.Supplier;
 import java.util.stream.*;
 
+/**
+ * Advances every sequence together, repeating the last bag of any sequence that runs out, until all the sequences
+ * have run out or a sequence with a unique field has.
+ */
 public class MinimalCombinationStrategy implements CombinationStrategy {
     @Override
     public Stream<DataBag> permute(Stream<Supplier<Stream<DataBag>>> dataBagSequences) {
@@ -42,38 +47,49 @@ public class MinimalCombinationStrategy implements CombinationStrategy {
 
     static class InternalIterator implements Iterator<DataBag> {
         private final List<Iterator<DataBag>> iterators;
-        private final Map<Iterator<DataBag>, DataBag> lastValues;
+        private final DataBag[] row;
+
+        // the indexes of the sequences that have more bags, in the first liveCount entries
+        private final int[] live;
+        private int liveCount;
+        private boolean uniqueSequenceExhausted;
 
         InternalIterator(List<Iterator<DataBag>> iterators) {
-            this.iterators = iterators;
-            this.lastValues = new HashMap<>();
+            this.iterators = new ArrayList<>(iterators);
+            this.row = new DataBag[iterators.size()];
+            this.live = new int[iterators.size()];
+            for (int i = 0; i < live.length; i++) {
+                if (this.iterators.get(i).hasNext()) {
+                    live[liveCount++] = i;
+                }
+            }
         }
 
         @Override
         public boolean hasNext() {
-            return uniqueHasNext() && anyHasNext();
-        }
-
-        private boolean uniqueHasNext() {
-            return lastValues.entrySet().stream()
-                .filter(entry -> entry.getValue().isUnique())
-                .allMatch(entry -> entry.getKey().hasNext());
-        }
-
-        private boolean anyHasNext() {
-            return iterators
-                .stream()
-                .anyMatch(Iterator::hasNext);
+            return !uniqueSequenceExhausted && liveCount > 0;
         }
 
         @Override
         public DataBag next() {
-            iterators
-                .stream()
-                .filter(Iterator::hasNext)
-                .forEach(iterator -> lastValues.put(iterator, iterator.next()));
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            int stillLive = 0;
+            for (int i = 0; i < liveCount; i++) {
+                int sequence = live[i];
+                Iterator<DataBag> iterator = iterators.get(sequence);
+                row[sequence] = iterator.next();
+                if (iterator.hasNext()) {
+                    live[stillLive++] = sequence;
+                } else if (row[sequence].isUnique()) {
+                    uniqueSequenceExhausted = true;
+                }
+            }
+            liveCount = stillLive;
 
-            return DataBag.merge(lastValues.values().toArray(new DataBag[0]));
+            return DataBag.merge(row);
         }
     }
 }
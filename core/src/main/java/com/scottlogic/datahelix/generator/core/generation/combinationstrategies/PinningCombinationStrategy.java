@@ -14,6 +14,7 @@
  * limitations under the License.
  */
 
+
 package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
 
 import com.scottlogic.datahelix.generator.core.generation.databags.*;
@@ -21,9 +22,14 @@ import com.scottlogic.datahelix.generator.core.generation.databags.*;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.function.Supplier;
 import java.util.stream.*;
 
+/**
+ * Emits a baseline row made of the first bag of every sequence, then varies one sequence at a time through the rest
+ * of its bags while every other sequence stays at its baseline.
+ */
 public class PinningCombinationStrategy implements CombinationStrategy {
     @Override
     public Stream<DataBag> permute(Stream<Supplier<Stream<DataBag>>> dataBagSequences) {
@@ -42,80 +48,63 @@ public class PinningCombinationStrategy implements CombinationStrategy {
 
         @Override
         public Iterator<DataBag> iterator() {
-            List<SequenceAndBaselineTuple> tuples = dataBagSequences
+            List<Iterator<DataBag>> iterators = dataBagSequences
                 .map(Supplier::get)
                 .map(BaseStream::iterator)
-                .map(SequenceAndBaselineTuple::new)
                 .collect(Collectors.toList());
 
-            if (tuples.stream().anyMatch(t -> t.baseline == null))
-                return Collections.emptyIterator();
-
-            return new InternalIterator(tuples);
-        }
-    }
-
-    class SequenceAndBaselineTuple {
-        private Iterator<DataBag> iterator;
-        private DataBag baseline;
-
-        public SequenceAndBaselineTuple(Iterator<DataBag> iterator) {
-            this.iterator = iterator;
-            this.baseline = iterator.hasNext() ? iterator.next() : null;
-        }
-
-        public DataBag next(){
-            return iterator.next();
-        }
+            DataBag[] baselines = new DataBag[iterators.size()];
+            for (int i = 0; i < baselines.length; i++) {
+                Iterator<DataBag> iterator = iterators.get(i);
+                if (!iterator.hasNext()) {
+                    return Collections.emptyIterator();
+                }
+                baselines[i] = iterator.next();
+            }
 
-        public boolean hasNext(){
-            return iterator.hasNext();
+            return new InternalIterator(iterators, baselines);
         }
     }
 
-    class InternalIterator implements Iterator<DataBag> {
-        private final List<SequenceAndBaselineTuple> tuples;
+    static class InternalIterator implements Iterator<DataBag> {
+        private final List<Iterator<DataBag>> iterators;
+        private final DataBag[] baselines;
+        private final DataBag[] row;
 
-        private Integer indexOfSequenceToVary;
+        // -1 until the baseline row has been emitted
+        private int indexOfSequenceToVary = -1;
 
-        InternalIterator(List<SequenceAndBaselineTuple> tuples) {
-            this.tuples = tuples;
-            this.indexOfSequenceToVary = null;
+        InternalIterator(List<Iterator<DataBag>> iterators, DataBag[] baselines) {
+            this.iterators = iterators;
+            this.baselines = baselines;
+            this.row = baselines.clone();
         }
 
         @Override
         public boolean hasNext() {
-            if (this.indexOfSequenceToVary == null)
-                return true; // because this means we haven't output a baselines row yet. I know this code is awful, I'll definitely fix it -MH
+            if (indexOfSequenceToVary < 0) {
+                return true;
+            }
 
-            // kind of inefficient
-            return this.tuples.stream().anyMatch(tuple -> tuple.hasNext());
+            while (indexOfSequenceToVary < baselines.length && !iterators.get(indexOfSequenceToVary).hasNext()) {
+                row[indexOfSequenceToVary] = baselines[indexOfSequenceToVary];
+                indexOfSequenceToVary++;
+            }
+            return indexOfSequenceToVary < baselines.length;
         }
 
         @Override
         public DataBag next() {
-            if (this.indexOfSequenceToVary == null) {
-                this.indexOfSequenceToVary = 0;
-
-                return this.tuples.stream()
-                        .map(tuple -> tuple.baseline)
-                    .reduce(DataBag.empty, (db1, db2) -> DataBag.merge(db1, db2));
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
 
-            return IntStream.range(0, this.tuples.size())
-                .mapToObj(seqIndex -> {
-                    SequenceAndBaselineTuple tuple = this.tuples.get(seqIndex);
-
-                    if (seqIndex != this.indexOfSequenceToVary)
-                        return tuple.baseline;
-
-                    if (!tuple.hasNext()) {
-                        this.indexOfSequenceToVary++;
-                        return tuple.baseline;
-                    }
-                    return tuple.next();
-                })
-                .reduce(DataBag.empty, (db1, db2) -> DataBag.merge(db1, db2));
+            if (indexOfSequenceToVary < 0) {
+                indexOfSequenceToVary = 0;
+            } else {
+                row[indexOfSequenceToVary] = iterators.get(indexOfSequenceToVary).next();
+            }
+            return DataBag.merge(row);
         }
     }
 }
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
+
+import java.io.*;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A sequence of data bags that is generated once and then replayed, rather than regenerated every time it is asked
+ * for.
+ *
+ * The first time the sequence is read to the end it is recorded. Bags are held in memory while the shared budget of
+ * values allows, after which they are written to a temporary file. If the sequence is abandoned part way through the
+ * recording is dropped and the next read starts again from the source. If a value cannot be written to the file the
+ * sequence is read from the source every time, as it would have been without a buffer.
+ *
+ * A recording gives back its share of the budget and deletes its file when the sequence is released, or failing that
+ * once the sequence is no longer reachable, which is checked whenever another sequence is created. Files still in use
+ * when the JVM exits are deleted then.
+ */
+class ReplayableDataBagSequence implements Supplier<Stream<DataBag>> {
+    private static final int BAGS_BETWEEN_RESETS = 1024;
+
+    private static final ReferenceQueue<ReplayableDataBagSequence> unreachableSequences = new ReferenceQueue<>();
+    private static final Set<RecordingResources> liveResources = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(
+            new Thread(() -> liveResources.forEach(RecordingResources::release)));
+    }
+
+    private final Supplier<Stream<DataBag>> source;
+    private final AtomicLong remainingBudget;
+    private Recording recording;
+    private boolean replayable = true;
+
+    ReplayableDataBagSequence(Supplier<Stream<DataBag>> source, AtomicLong remainingBudget) {
+        this.source = source;
+        this.remainingBudget = remainingBudget;
+        releaseUnreachableRecordings();
+    }
+
+    /**
+     * Drops the recording, if there is one, after which the sequence is read from the source every time
+     */
+    void release() {
+        replayable = false;
+        if (recording != null) {
+            recording.discard();
+            recording = null;
+        }
+    }
+
+    private static void releaseUnreachableRecordings() {
+        Reference<? extends ReplayableDataBagSequence> reference;
+        while ((reference = unreachableSequences.poll()) != null) {
+            ((RecordingResources) reference).release();
+        }
+    }
+
+    @Override
+    public Stream<DataBag> get() {
+        if (recording != null) {
+            return recording.replay();
+        }
+        if (!replayable) {
+            return source.get();
+        }
+
+        Stream<DataBag> sourceStream = source.get();
+        RecordingIterator iterator = new RecordingIterator(sourceStream.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+            .onClose(() -> {
+                iterator.abandon();
+                sourceStream.close();
+            });
+    }
+
+    private class RecordingIterator implements Iterator<DataBag> {
+        private final Iterator<DataBag> sourceIterator;
+        private Recording pending = new Recording();
+
+        RecordingIterator(Iterator<DataBag> sourceIterator) {
+            this.sourceIterator = sourceIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = sourceIterator.hasNext();
+            if (!hasNext && pending != null) {
+                if (replayable && pending.finish()) {
+                    recording = pending;
+                } else {
+                    pending.discard();
+                    replayable = false;
+                }
+                pending = null;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public DataBag next() {
+            DataBag bag = sourceIterator.next();
+            if (pending != null && !pending.add(bag)) {
+                replayable = false;
+                pending = null;
+            }
+            return bag;
+        }
+
+        void abandon() {
+            if (pending != null) {
+                pending.discard();
+                pending = null;
+            }
+        }
+    }
+
+    private class Recording {
+        private final List<DataBag> bags = new ArrayList<>();
+        private final List<Field> fields = new ArrayList<>();
+        private final Map<Field, Integer> fieldIndexes = new HashMap<>();
+        private final RecordingResources resources =
+            new RecordingResources(ReplayableDataBagSequence.this, remainingBudget);
+        private ObjectOutputStream spillOutput;
+        private long spilledBags;
+
+        /**
+         * @return false if the bag could not be recorded, in which case the recording has been discarded
+         */
+        boolean add(DataBag bag) {
+            int values = bag.getFields().size();
+            if (spillOutput == null && remainingBudget.addAndGet(-values) >= 0) {
+                resources.reserve(values);
+                bags.add(bag);
+                return true;
+            }
+            if (spillOutput == null) {
+                remainingBudget.addAndGet(values);
+            }
+
+            try {
+                spill(bag);
+                return true;
+            } catch (IOException e) {
+                discard();
+                return false;
+            }
+        }
+
+        private void spill(DataBag bag) throws IOException {
+            if (spillOutput == null) {
+                spillOutput = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(
+                    resources.createSpillFile())));
+            }
+
+            Set<Field> bagFields = bag.getFields();
+            spillOutput.writeInt(bagFields.size());
+            for (Field field : bagFields) {
+                spillOutput.writeInt(fieldIndexes.computeIfAbsent(field, f -> {
+                    fields.add(f);
+                    return fields.size() - 1;
+                }));
+                spillOutput.writeObject(bag.getDataBagValue(field).getValue());
+            }
+
+            // stops the stream holding on to every value it has written
+            if (++spilledBags % BAGS_BETWEEN_RESETS == 0) {
+                spillOutput.reset();
+            }
+        }
+
+        boolean finish() {
+            if (spillOutput == null) {
+                return true;
+            }
+            try {
+                spillOutput.close();
+                spillOutput = null;
+                return true;
+            } catch (IOException e) {
+                discard();
+                return false;
+            }
+        }
+
+        void discard() {
+            bags.clear();
+            if (spillOutput != null) {
+                try {
+                    spillOutput.close();
+                } catch (IOException ignored) {
+                    // the file is deleted below regardless
+                }
+                spillOutput = null;
+            }
+            resources.release();
+        }
+
+        Stream<DataBag> replay() {
+            File spillFile = resources.getSpillFile();
+            if (spillFile == null) {
+                return bags.stream();
+            }
+
+            SpillFileIterator iterator = new SpillFileIterator(spillFile, fields, spilledBags);
+            return Stream.concat(
+                bags.stream(),
+                StreamSupport.stream(Spliterators.spliterator(iterator, spilledBags, Spliterator.ORDERED), false)
+                    .onClose(iterator::close));
+        }
+    }
+
+    /**
+     * The share of the budget and the file held by a recording, which are given back when the recording is discarded
+     * or the sequence it belongs to is no longer reachable
+     */
+    private static class RecordingResources extends PhantomReference<ReplayableDataBagSequence> {
+        private final AtomicLong remainingBudget;
+        private long reservedValues;
+        private File spillFile;
+
+        RecordingResources(ReplayableDataBagSequence sequence, AtomicLong remainingBudget) {
+            super(sequence, unreachableSequences);
+            this.remainingBudget = remainingBudget;
+            liveResources.add(this);
+        }
+
+        synchronized void reserve(long values) {
+            reservedValues += values;
+        }
+
+        synchronized File createSpillFile() throws IOException {
+            spillFile = File.createTempFile("datahelix-combinations-", ".bin");
+            return spillFile;
+        }
+
+        synchronized File getSpillFile() {
+            return spillFile;
+        }
+
+        synchronized void release() {
+            remainingBudget.addAndGet(reservedValues);
+            reservedValues = 0;
+            if (spillFile != null) {
+                spillFile.delete();
+                spillFile = null;
+            }
+            liveResources.remove(this);
+        }
+    }
+
+    private static class SpillFileIterator implements Iterator<DataBag> {
+        private final File file;
+        private final List<Field> fields;
+        private final long size;
+        private ObjectInputStream input;
+        private long read;
+
+        SpillFileIterator(File file, List<Field> fields, long size) {
+            this.file = file;
+            this.fields = fields;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (read < size) {
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public DataBag next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                if (input == null) {
+                    input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+                }
+                int numberOfFields = input.readInt();
+                Map<Field, DataBagValue> values = new HashMap<>(numberOfFields * 2);
+                for (int i = 0; i < numberOfFields; i++) {
+                    Field field = fields.get(input.readInt());
+                    values.put(field, new DataBagValue(input.readObject()));
+                }
+                read++;
+                return new DataBag(values);
+            } catch (IOException | ClassNotFoundException e) {
+                close();
+                throw new UncheckedIOException(new IOException("Unable to replay combinations from " + file, e));
+            }
+        }
+
+        void close() {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException ignored) {
+                    // nothing more is read from the file
+                }
+                input = null;
+            }
+        }
+    }
+}
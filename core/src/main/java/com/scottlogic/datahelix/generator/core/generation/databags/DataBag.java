@@ -19,7 +19,6 @@ package com.scottlogic.datahelix.generator.core.generation.databags;
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.FieldType;
-import com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -68,6 +67,10 @@ public class DataBag implements GeneratedObject {
         }
     }
 
+    public Set<Field> getFields() {
+        return Collections.unmodifiableSet(fieldToValue.keySet());
+    }
+
     public DataBagValue getDataBagValue(Field field) {
         if (!fieldToValue.containsKey(field)) {
             throw new IllegalStateException("DataBag has no value stored for " + field);
@@ -90,17 +93,18 @@ public class DataBag implements GeneratedObject {
     }
 
     public static DataBag merge(DataBag... bags) {
-        Map<Field, DataBagValue> newFieldToValue = new HashMap<>();
+        int size = 0;
+        for (DataBag bag : bags) {
+            size += bag.fieldToValue.size();
+        }
 
-        FlatMappingSpliterator.flatMap(Arrays.stream(bags)
-            .map(r -> r.fieldToValue.entrySet().stream()),
-            entrySetStream -> entrySetStream)
-            .forEach(entry -> {
-                if (newFieldToValue.containsKey(entry.getKey()))
+        Map<Field, DataBagValue> newFieldToValue = new HashMap<>(size * 4 / 3 + 1);
+        for (DataBag bag : bags) {
+            for (Map.Entry<Field, DataBagValue> entry : bag.fieldToValue.entrySet()) {
+                if (newFieldToValue.putIfAbsent(entry.getKey(), entry.getValue()) != null)
                     throw new IllegalArgumentException("Databags can't be merged because they overlap on field " + entry.getKey().getName());
-
-                newFieldToValue.put(entry.getKey(), entry.getValue());
-            });
+            }
+        }
 
         return new DataBag(newFieldToValue);
     }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.deduplication;
+
+/**
+ * A Bloom filter over fingerprints, sized up front from the expected number of rows and the acceptable
+ * false positive rate. Memory use is fixed regardless of how many rows are generated; once more rows than
+ * expected have been added the false positive rate rises above the configured one.
+ *
+ * The bit positions are derived from the fingerprint by double hashing, so only one hash of the row is computed.
+ */
+public class BloomFilterFingerprintSet implements FingerprintSet {
+    private static final double LN_2 = Math.log(2);
+    private static final long MAXIMUM_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final long[] bits;
+    private final long numberOfBits;
+    private final int numberOfHashes;
+    private final double falsePositiveRate;
+
+    public BloomFilterFingerprintSet(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+
+        double optimalBits = -expectedInsertions * Math.log(falsePositiveRate) / (LN_2 * LN_2);
+        long requiredBits = (long) Math.min(Math.max(Math.ceil(optimalBits), Long.SIZE), MAXIMUM_BITS);
+        this.bits = new long[(int) ((requiredBits + Long.SIZE - 1) / Long.SIZE)];
+        this.numberOfBits = (long) bits.length * Long.SIZE;
+        this.numberOfHashes = Math.max(1, (int) Math.round((double) numberOfBits / expectedInsertions * LN_2));
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public boolean contains(long fingerprint) {
+        long combined = fingerprint;
+        long step = stepFor(fingerprint);
+        for (int i = 0; i < numberOfHashes; i++) {
+            long index = (combined & Long.MAX_VALUE) % numberOfBits;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+            combined += step;
+        }
+        return true;
+    }
+
+    @Override
+    public void add(long fingerprint) {
+        long combined = fingerprint;
+        long step = stepFor(fingerprint);
+        for (int i = 0; i < numberOfHashes; i++) {
+            long index = (combined & Long.MAX_VALUE) % numberOfBits;
+            bits[(int) (index >>> 6)] |= 1L << index;
+            combined += step;
+        }
+    }
+
+    @Override
+    public long memoryUsedInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    int getNumberOfHashes() {
+        return numberOfHashes;
+    }
+
+    private static long stepFor(long fingerprint) {
+        // odd, so successive probes don't collapse onto a short cycle
+        return Long.rotateLeft(fingerprint, 32) | 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Bloom filter (false positive rate " + falsePositiveRate + ", " + numberOfHashes + " hashes)";
+    }
+}
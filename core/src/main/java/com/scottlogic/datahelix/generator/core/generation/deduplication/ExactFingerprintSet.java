@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.deduplication;
+
+/**
+ * An exact set of fingerprints held in a single primitive array with open addressing and linear probing,
+ * so each row costs one long (at most two at the maximum load factor) rather than a boxed entry in a HashSet.
+ *
+ * Zero marks an empty slot, so a zero fingerprint is tracked separately.
+ */
+public class ExactFingerprintSet implements FingerprintSet {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private long[] table = new long[INITIAL_CAPACITY];
+    private int size;
+    private boolean containsZero;
+
+    @Override
+    public boolean contains(long fingerprint) {
+        if (fingerprint == 0) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        for (int i = slot(fingerprint, mask); ; i = (i + 1) & mask) {
+            long entry = table[i];
+            if (entry == 0) {
+                return false;
+            }
+            if (entry == fingerprint) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void add(long fingerprint) {
+        if (fingerprint == 0) {
+            containsZero = true;
+            return;
+        }
+        if (insert(table, fingerprint)) {
+            size++;
+            if (size * 2L > table.length) {
+                grow();
+            }
+        }
+    }
+
+    public long size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    @Override
+    public long memoryUsedInBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    private void grow() {
+        if (table.length == MAXIMUM_CAPACITY) {
+            if (size == MAXIMUM_CAPACITY - 1) {
+                throw new IllegalStateException("Unable to track more than " + size + " unique keys exactly, specify a false positive rate instead");
+            }
+            return;
+        }
+        long[] grown = new long[table.length * 2];
+        for (long entry : table) {
+            if (entry != 0) {
+                insert(grown, entry);
+            }
+        }
+        table = grown;
+    }
+
+    private static boolean insert(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        for (int i = slot(fingerprint, mask); ; i = (i + 1) & mask) {
+            long entry = table[i];
+            if (entry == 0) {
+                table[i] = fingerprint;
+                return true;
+            }
+            if (entry == fingerprint) {
+                return false;
+            }
+        }
+    }
+
+    private static int slot(long fingerprint, int mask) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        return "exact set";
+    }
+}
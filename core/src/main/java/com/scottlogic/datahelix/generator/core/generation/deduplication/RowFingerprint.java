@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.deduplication;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Reduces the values of a set of fields in a row to a 64-bit fingerprint.
+ *
+ * Numbers are compared by value, so 1.0 and 1 give the same fingerprint, and each value is tagged with its
+ * type so that, for example, the string "1" and the number 1 do not collide.
+ */
+public final class RowFingerprint {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long NULL_HASH = 0x7F4A7C159E3779B9L;
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private RowFingerprint() {
+        throw new UnsupportedOperationException("no instantiation of static class");
+    }
+
+    public static long of(GeneratedObject row, List<Field> fields) {
+        long fingerprint = SEED;
+        for (Field field : fields) {
+            fingerprint = mix(fingerprint + hash(row.getValue(field)));
+        }
+        return fingerprint;
+    }
+
+    private static long hash(Object value) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+
+        String canonical = value instanceof BigDecimal
+            ? ((BigDecimal) value).stripTrailingZeros().toString()
+            : value.toString();
+
+        long hash = FNV_OFFSET_BASIS ^ value.getClass().getName().hashCode();
+        for (int i = 0; i < canonical.length(); i++) {
+            hash = (hash ^ canonical.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    // the SplitMix64 finaliser, so that every input bit affects every output bit
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.deduplication;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.core.profile.UniqueKey;
+
+import java.util.List;
+
+/**
+ * Tracks the rows seen for a set of unique keys and rejects any row that repeats one of them.
+ *
+ * A row is only recorded against the keys once it has been accepted for all of them, so a row rejected by
+ * one key does not prevent a later row from using its values for another.
+ */
+public class UniqueKeyFilter {
+    private final List<UniqueKey> keys;
+    private final FingerprintSet[] seen;
+    private final long[] rejected;
+    private final long[] fingerprints;
+    private long rowsChecked;
+
+    public UniqueKeyFilter(List<UniqueKey> keys, long defaultExpectedRows) {
+        this.keys = keys;
+        this.seen = keys.stream()
+            .map(key -> key.isExact()
+                ? new ExactFingerprintSet()
+                : new BloomFilterFingerprintSet(
+                    key.getExpectedRows() == null ? defaultExpectedRows : key.getExpectedRows(),
+                    key.getFalsePositiveRate()))
+            .toArray(FingerprintSet[]::new);
+        this.rejected = new long[keys.size()];
+        this.fingerprints = new long[keys.size()];
+    }
+
+    public boolean accept(GeneratedObject row) {
+        rowsChecked++;
+        for (int i = 0; i < seen.length; i++) {
+            fingerprints[i] = RowFingerprint.of(row, keys.get(i).getFields());
+            if (seen[i].contains(fingerprints[i])) {
+                rejected[i]++;
+                return false;
+            }
+        }
+        for (int i = 0; i < seen.length; i++) {
+            seen[i].add(fingerprints[i]);
+        }
+        return true;
+    }
+
+    public long getRowsChecked() {
+        return rowsChecked;
+    }
+
+    public long getRowsRejected() {
+        long total = 0;
+        for (long count : rejected) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long memoryUsedInBytes() {
+        long total = 0;
+        for (FingerprintSet set : seen) {
+            total += set.memoryUsedInBytes();
+        }
+        return total;
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder(String.format(
+            "Unique keys: %d of %d rows rejected as duplicates (%.2f%%), using %d KiB",
+            getRowsRejected(),
+            rowsChecked,
+            rowsChecked == 0 ? 0.0 : 100.0 * getRowsRejected() / rowsChecked,
+            (memoryUsedInBytes() + 1023) / 1024));
+        for (int i = 0; i < seen.length; i++) {
+            summary.append(String.format(
+                "%n  %s: %d rejected, %s using %d KiB",
+                keys.get(i),
+                rejected[i],
+                seen[i],
+                (seen[i].memoryUsedInBytes() + 1023) / 1024));
+        }
+        return summary.toString();
+    }
+}
@@ -18,8 +18,10 @@ package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources;
 
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.util.FeistelPermutation;
 
 import java.util.Objects;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public class CannedValuesFieldValueSource implements FieldValueSource {
@@ -39,6 +41,13 @@ public class CannedValuesFieldValueSource implements FieldValueSource {
         return Stream.generate(() -> pickFromDistribution(randomNumberGenerator));
     }
 
+    @Override
+    public Stream<Object> generateUniqueRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        FeistelPermutation permutation = new FeistelPermutation(allValues.size(), randomNumberGenerator);
+        return LongStream.range(0, permutation.size())
+            .mapToObj(index -> allValues.get((int) permutation.apply(index)));
+    }
+
     private Object pickFromDistribution(RandomNumberGenerator random) {
         return allValues.pickRandomly(random);
     }
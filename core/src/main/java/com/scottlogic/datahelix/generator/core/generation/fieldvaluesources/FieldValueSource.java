@@ -24,5 +24,13 @@ public interface FieldValueSource<T> {
     Stream<T> generateAllValues();
 
     Stream<T> generateRandomValues(RandomNumberGenerator randomNumberGenerator);
+
+    /**
+     * Generates every value once, in a random order. Sources that cannot shuffle their values without holding
+     * them all produce them in the same order as {@link #generateAllValues()}.
+     */
+    default Stream<T> generateUniqueRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        return generateAllValues();
+    }
 }
 
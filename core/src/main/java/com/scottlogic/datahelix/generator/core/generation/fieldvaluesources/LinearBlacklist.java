@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources;
+
+import com.scottlogic.datahelix.generator.common.profile.Granularity;
+import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The values excluded from a linear range, held as a sorted array so that membership is a binary search
+ * and iteration can step over excluded values with a moving cursor.
+ *
+ * Only values that the range could produce are kept, so values off the granularity's grid, such as weekends under
+ * working day granularity, do not shorten the range. Alongside each excluded value the table holds that value
+ * moved back by its index, which is the highest value of the range with the excluded values removed that still
+ * maps below it. This lets a value chosen uniformly from a range shortened by the number of exclusions be mapped
+ * onto a permitted value without rejection.
+ */
+public class LinearBlacklist<T extends Comparable<T>> {
+    private final Object[] excluded;
+    private final Object[] shiftedExcluded;
+    private final Granularity<T> granularity;
+
+    /**
+     * @param blacklist values already trimmed to the granularity of the restrictions
+     */
+    public LinearBlacklist(LinearRestrictions<T> restrictions, Collection<T> blacklist) {
+        this.granularity = restrictions.getGranularity();
+        this.excluded = sortedDistinct(blacklist.stream()
+            .filter(restrictions::match)
+            .filter(this::isOnGrid)
+            .sorted()
+            .toArray());
+        this.shiftedExcluded = new Object[excluded.length];
+        for (int i = 0; i < excluded.length; i++) {
+            shiftedExcluded[i] = i == 0 ? excluded[i] : granularity.getNext(get(excluded, i), -i);
+        }
+    }
+
+    public boolean isEmpty() {
+        return excluded.length == 0;
+    }
+
+    public int size() {
+        return excluded.length;
+    }
+
+    public boolean contains(T value) {
+        return Arrays.binarySearch(excluded, value) >= 0;
+    }
+
+    /**
+     * @return the index of the first excluded value that is greater than or equal to the given value
+     */
+    public int indexOfFirstAtOrAfter(T value) {
+        int index = Arrays.binarySearch(excluded, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public T get(int index) {
+        return get(excluded, index);
+    }
+
+    /**
+     * Maps a value from the range with the excluded values removed onto the permitted value at the same position
+     * in the full range, by stepping forward once for every excluded value at or before it.
+     */
+    public T toPermittedValue(T valueInShortenedRange) {
+        int low = 0;
+        int high = shiftedExcluded.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            T shifted = get(shiftedExcluded, mid);
+            if (shifted.compareTo(valueInShortenedRange) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == 0 ? valueInShortenedRange : granularity.getNext(valueInShortenedRange, low);
+    }
+
+    // stepping back and forward again only returns to the value if it is one the granularity can step onto
+    private boolean isOnGrid(T value) {
+        return granularity.getNext(granularity.getPrevious(value)).compareTo(value) == 0;
+    }
+
+    // values are compared rather than checked for equality, so that 2 and 2.0 are treated as one value
+    private static <T extends Comparable<T>> Object[] sortedDistinct(Object[] sorted) {
+        int length = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (length == 0 || LinearBlacklist.<T>get(sorted, length - 1).compareTo(get(sorted, i)) != 0) {
+                sorted[length++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Object[] array, int index) {
+        return (T) array[index];
+    }
+}
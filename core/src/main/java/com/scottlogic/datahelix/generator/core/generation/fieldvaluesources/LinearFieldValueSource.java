@@ -16,12 +16,16 @@
 
 package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources;
 
+import com.scottlogic.datahelix.generator.common.profile.Granularity;
+import com.scottlogic.datahelix.generator.common.util.FeistelPermutation;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 
+import java.time.DateTimeException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static com.scottlogic.datahelix.generator.common.SetUtils.stream;
@@ -29,33 +33,119 @@ import static com.scottlogic.datahelix.generator.common.SetUtils.stream;
 public class LinearFieldValueSource<T extends Comparable<T>> implements FieldValueSource {
     private final LinearRestrictions<T> restrictions;
     private final Set<T> blacklist;
+    private final LinearBlacklist<T> sortedBlacklist;
 
     public LinearFieldValueSource(LinearRestrictions<T> restrictions, Set<T> blacklist) {
         this.restrictions = restrictions;
         this.blacklist = blacklist.stream()
             .map(i -> restrictions.getGranularity().trimToGranularity(i))
             .collect(Collectors.toSet());
+        this.sortedBlacklist = new LinearBlacklist<>(restrictions, this.blacklist);
     }
 
     @Override
     public Stream<T> generateAllValues() {
-        return stream(new LinearIterator<>(restrictions))
-            .filter(this::notInBlacklist);
+        return stream(new LinearIterator<>(restrictions, sortedBlacklist));
     }
 
     @Override
     public Stream<T> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
-        return Stream.generate(() -> restrictions.getGranularity()
-                .getRandom(
-                    restrictions.getMin(),
-                    restrictions.getGranularity().getNext(restrictions.getMax()),
-                    randomNumberGenerator))
-            .filter(this::notInBlacklist);
+        Granularity<T> granularity = restrictions.getGranularity();
+        if (sortedBlacklist.isEmpty()) {
+            return Stream.generate(() -> granularity.getRandom(
+                restrictions.getMin(),
+                granularity.getNext(restrictions.getMax()),
+                randomNumberGenerator));
+        }
+
+        // pick from the range shortened by the number of excluded values, then map onto a permitted value
+        T shortenedMax = granularity.getNext(restrictions.getMax(), -sortedBlacklist.size());
+        if (shortenedMax.compareTo(restrictions.getMin()) < 0 || shortenedMax.compareTo(restrictions.getMax()) > 0) {
+            return Stream.empty();
+        }
+
+        return Stream.generate(() -> sortedBlacklist.toPermittedValue(granularity.getRandom(
+            restrictions.getMin(),
+            granularity.getNext(shortenedMax),
+            randomNumberGenerator)));
+    }
+
+    /**
+     * Generates the permitted values in a random order by passing their positions through a {@link FeistelPermutation}.
+     * Positions are offsets from the minimum, so ranges of more than {@link Integer#MAX_VALUE} values only produce
+     * values from the start of the range.
+     */
+    @Override
+    public Stream<T> generateUniqueRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        Granularity<T> granularity = restrictions.getGranularity();
+        T min = restrictions.getMin();
+        long permittedCount = countValuesInRange() - sortedBlacklist.size();
+        if (permittedCount <= 0) {
+            return Stream.empty();
+        }
+
+        FeistelPermutation permutation = new FeistelPermutation(permittedCount, randomNumberGenerator);
+        return LongStream.range(0, permittedCount)
+            .mapToObj(index -> sortedBlacklist.toPermittedValue(
+                granularity.getNext(min, (int) permutation.apply(index))));
+    }
+
+    /**
+     * @return the number of values from the minimum to the maximum inclusive, capped at {@link Integer#MAX_VALUE}.
+     * Found by doubling then halving an offset from the minimum, so takes a logarithmic number of steps.
+     */
+    private int countValuesInRange() {
+        T min = restrictions.getMin();
+        if (min.compareTo(restrictions.getMax()) > 0) {
+            return 0;
+        }
+
+        long lastInRange = 0;
+        T lastInRangeValue = min;
+        long firstOutOfRange = 1;
+        while (firstOutOfRange <= Integer.MAX_VALUE) {
+            T value = offsetWithinRange(lastInRangeValue, firstOutOfRange);
+            if (value == null) {
+                break;
+            }
+            lastInRange = firstOutOfRange;
+            lastInRangeValue = value;
+            firstOutOfRange *= 2;
+        }
+        if (firstOutOfRange > Integer.MAX_VALUE) {
+            if (offsetWithinRange(lastInRangeValue, Integer.MAX_VALUE) != null) {
+                return Integer.MAX_VALUE;
+            }
+            firstOutOfRange = Integer.MAX_VALUE;
+        }
+
+        while (firstOutOfRange - lastInRange > 1) {
+            long middle = (lastInRange + firstOutOfRange) >>> 1;
+            T value = offsetWithinRange(lastInRangeValue, middle);
+            if (value == null) {
+                firstOutOfRange = middle;
+            } else {
+                lastInRange = middle;
+                lastInRangeValue = value;
+            }
+        }
+        return (int) lastInRange + 1;
     }
 
-    // we call this instead of .contains because .contains doesn't treat 2 and 2.0 as equal
-    private boolean notInBlacklist(T t) {
-        return blacklist.stream().noneMatch(x->x.compareTo(t)==0);
+    /**
+     * @return the value the given offset from the minimum, or null if it is past the maximum. The value must also be
+     * after the given earlier value, which catches granularities that wrap around (such as times of day) or overflow.
+     */
+    private T offsetWithinRange(T earlierValue, long offset) {
+        T value;
+        try {
+            value = restrictions.getGranularity().getNext(restrictions.getMin(), (int) offset);
+        } catch (ArithmeticException | DateTimeException e) {
+            return null;
+        }
+        return value.compareTo(earlierValue) >= 0 && value.compareTo(restrictions.getMax()) <= 0
+            ? value
+            : null;
     }
 
     @Override
@@ -18,17 +18,27 @@ package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources;
 
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
 
+import java.util.Collections;
 import java.util.Iterator;
 
 public class LinearIterator<T extends Comparable<T>> implements Iterator<T> {
     private final LinearRestrictions<T> linearRestrictions;
+    private final LinearBlacklist<T> blacklist;
+    private int nextExcludedIndex;
     private T next;
     private T current;
 
     public LinearIterator(LinearRestrictions<T> linearRestrictions) {
+        this(linearRestrictions, new LinearBlacklist<>(linearRestrictions, Collections.emptySet()));
+    }
+
+    public LinearIterator(LinearRestrictions<T> linearRestrictions, LinearBlacklist<T> blacklist) {
         this.linearRestrictions = linearRestrictions;
+        this.blacklist = blacklist;
         next = linearRestrictions.getMin();
         current = next;
+        nextExcludedIndex = blacklist.indexOfFirstAtOrAfter(next);
+        skipExcludedValues();
     }
 
     @Override
@@ -41,6 +51,24 @@ public class LinearIterator<T extends Comparable<T>> implements Iterator<T> {
     public T next() {
         current = next;
         next = linearRestrictions.getGranularity().getNext(next);
+        skipExcludedValues();
         return current;
     }
+
+    /**
+     * Both the values and the blacklist are in ascending order, so a single cursor into the blacklist
+     * is enough to step over excluded values without searching the blacklist for every value.
+     */
+    private void skipExcludedValues() {
+        while (nextExcludedIndex < blacklist.size()) {
+            int comparison = blacklist.get(nextExcludedIndex).compareTo(next);
+            if (comparison > 0) {
+                return;
+            }
+            if (comparison == 0) {
+                next = linearRestrictions.getGranularity().getNext(next);
+            }
+            nextExcludedIndex++;
+        }
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.grouped;
+
+import com.scottlogic.datahelix.generator.common.SetUtils;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecGroup;
+import com.scottlogic.datahelix.generator.core.fieldspecs.relations.FieldSpecRelation;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The order in which the fields of a group are generated, and the relations to apply after each one, worked out once
+ * for the whole group rather than again for every generated value.
+ *
+ * Fields are generated most related first. Every relation belongs to the step of whichever of its fields comes first:
+ * before that field is generated its spec is restricted by the specs of the fields it is related to, and once it has a
+ * value the specs of those later fields are restricted by the value.
+ */
+final class FieldSpecGroupPlan {
+    private final Field[] fields;
+    private final FieldSpec[] initialSpecs;
+
+    // for each step, the relations to later fields, with the step's field as main and the later field as other
+    private final FieldSpecRelation[][] relationsFromStep;
+
+    // for each step, the relations to later fields, with the later field as main and the step's field as other
+    private final FieldSpecRelation[][] relationsToLaterSteps;
+
+    // for each step, the step of the later field of each relation
+    private final int[][] laterSteps;
+
+    private FieldSpecGroupPlan(Field[] fields,
+                               FieldSpec[] initialSpecs,
+                               FieldSpecRelation[][] relationsFromStep,
+                               FieldSpecRelation[][] relationsToLaterSteps,
+                               int[][] laterSteps) {
+        this.fields = fields;
+        this.initialSpecs = initialSpecs;
+        this.relationsFromStep = relationsFromStep;
+        this.relationsToLaterSteps = relationsToLaterSteps;
+        this.laterSteps = laterSteps;
+    }
+
+    static FieldSpecGroupPlan compile(FieldSpecGroup group) {
+        int size = group.fieldSpecs().size();
+        Field[] fields = new Field[size];
+        FieldSpec[] initialSpecs = new FieldSpec[size];
+        List<List<FieldSpecRelation>> relationsOfSteps = new ArrayList<>();
+
+        Map<Field, FieldSpec> remainingSpecs = group.fieldSpecs();
+        Collection<FieldSpecRelation> remainingRelations = group.relations();
+        for (int step = 0; step < size; step++) {
+            Field field = mostRelated(remainingSpecs, remainingRelations);
+            fields[step] = field;
+            initialSpecs[step] = group.fieldSpecs().get(field);
+
+            relationsOfSteps.add(remainingRelations.stream()
+                .filter(relation -> isRelatedToField(field, relation))
+                .collect(Collectors.toList()));
+            remainingRelations = remainingRelations.stream()
+                .filter(relation -> !isRelatedToField(field, relation))
+                .collect(Collectors.toSet());
+            remainingSpecs = new HashMap<>(remainingSpecs);
+            remainingSpecs.remove(field);
+        }
+
+        Map<Field, Integer> stepOfField = new HashMap<>();
+        for (int step = 0; step < size; step++) {
+            stepOfField.put(fields[step], step);
+        }
+
+        FieldSpecRelation[][] relationsFromStep = new FieldSpecRelation[size][];
+        FieldSpecRelation[][] relationsToLaterSteps = new FieldSpecRelation[size][];
+        int[][] laterSteps = new int[size][];
+        for (int step = 0; step < size; step++) {
+            List<FieldSpecRelation> relations = relationsOfSteps.get(step);
+            relationsFromStep[step] = new FieldSpecRelation[relations.size()];
+            relationsToLaterSteps[step] = new FieldSpecRelation[relations.size()];
+            laterSteps[step] = new int[relations.size()];
+            for (int i = 0; i < relations.size(); i++) {
+                FieldSpecRelation relation = relations.get(i);
+                FieldSpecRelation inverse = relation.inverse();
+                boolean isMain = relation.main().equals(fields[step]);
+                relationsFromStep[step][i] = isMain ? relation : inverse;
+                relationsToLaterSteps[step][i] = isMain ? inverse : relation;
+                laterSteps[step][i] = stepOfField.get(relationsToLaterSteps[step][i].main());
+            }
+        }
+
+        return new FieldSpecGroupPlan(fields, initialSpecs, relationsFromStep, relationsToLaterSteps, laterSteps);
+    }
+
+    // the field in the most relations, or any field if there are no relations
+    private static Field mostRelated(Map<Field, FieldSpec> fieldSpecs, Collection<FieldSpecRelation> relations) {
+        Stream<FieldSpecRelation> bothDirections = Stream.concat(
+            relations.stream(),
+            relations.stream().map(FieldSpecRelation::inverse)
+        );
+        List<Map.Entry<Field, Integer>> list = new ArrayList<>(bothDirections
+            .collect(Collectors.toMap(
+                FieldSpecRelation::other,
+                r -> 1, Integer::sum)).entrySet());
+        list.sort(Comparator.comparing(Map.Entry::getValue, Comparator.reverseOrder()));
+        return list.isEmpty() ? SetUtils.firstIteratorElement(fieldSpecs.keySet()) : list.get(0).getKey();
+    }
+
+    private static boolean isRelatedToField(Field field, FieldSpecRelation relation) {
+        return relation.main().equals(field) || relation.other().equals(field);
+    }
+
+    int size() {
+        return fields.length;
+    }
+
+    Field field(int step) {
+        return fields[step];
+    }
+
+    FieldSpec[] initialSpecs() {
+        return initialSpecs.clone();
+    }
+
+    FieldSpecRelation[] relationsFromStep(int step) {
+        return relationsFromStep[step];
+    }
+
+    FieldSpecRelation[] relationsToLaterSteps(int step) {
+        return relationsToLaterSteps[step];
+    }
+
+    int[] laterSteps(int step) {
+        return laterSteps[step];
+    }
+}
@@ -27,10 +27,8 @@ import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
 import com.scottlogic.datahelix.generator.core.fieldspecs.relations.FieldSpecRelation;
 import com.scottlogic.datahelix.generator.core.generation.FieldSpecValueGenerator;
 import com.scottlogic.datahelix.generator.core.generation.databags.*;
-import com.scottlogic.datahelix.generator.common.SetUtils;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator.flatMap;
@@ -47,112 +45,114 @@ public class FieldSpecGroupValueGenerator {
     }
 
     public Stream<DataBag> generate(FieldSpecGroup group) {
-        Field first = getFirst(group);
+        FieldSpecGroupPlan plan = FieldSpecGroupPlan.compile(group);
 
-        if (group.fieldSpecs().size() == 1) {
+        if (plan.size() == 1) {
+            Field first = plan.field(0);
             return underlyingGenerator.generate(first, group.fieldSpecs().get(first))
                 .map(val -> toDataBag(first, val));
         }
 
-        FieldSpec firstSpec = updateFirstSpecFromRelations(first, group);
-
-        Stream<DataBag> firstDataBagValues = underlyingGenerator.generate(first, firstSpec)
-            .map(value -> toDataBag(first, value));
-
-        return flatMap(
-            firstDataBagValues,
-            dataBag -> generateRemainingData(first, dataBag, removeSpecFromGroup(first, group)));
+        return new Execution(plan).generate(0);
     }
 
-    private Field getFirst(FieldSpecGroup keySet) {
-        Stream<FieldSpecRelation> relations = Stream.concat(
-            keySet.relations().stream(),
-            keySet.relations().stream().map(FieldSpecRelation::inverse)
-        );
-        List<Map.Entry<Field, Integer>> list = new ArrayList<>(relations
-            .collect(Collectors.toMap(
-                FieldSpecRelation::other,
-                r -> 1, Integer::sum)).entrySet());
-        list.sort(Comparator.comparing(Map.Entry::getValue, Comparator.reverseOrder()));
-        return list.isEmpty() ? SetUtils.firstIteratorElement(keySet.fieldSpecs().keySet()) : list.get(0).getKey();
-    }
-
-    private FieldSpec updateFirstSpecFromRelations(Field first, FieldSpecGroup group) {
-        FieldSpec firstFieldSpec = group.fieldSpecs().get(first);
-
-        FieldSpec updatedFieldSpec = group.relations().stream()
-            .filter(relation -> isRelatedToField(first, relation))
-            .map(relation -> createModifierForField(first, relation, group))
-            .map(Optional::of)
-            .reduce(Optional.of(firstFieldSpec), this::mergeOptionalFieldspecs)
-            .orElseThrow(() ->  new ValidationException("The provided profile is wholly contradictory!"));
-
-        return applyGranularityToFieldSpec(firstFieldSpec, updatedFieldSpec);
-    }
-
-    private Optional<FieldSpec> mergeOptionalFieldspecs(Optional<FieldSpec> left, Optional<FieldSpec> right) {
-        return left.flatMap(
-            (leftFieldSpec) -> fieldSpecMerger.merge(leftFieldSpec, right.get(), true));
-    }
-
-    private boolean isRelatedToField(Field field, FieldSpecRelation relation) {
-        return relation.main().equals(field) || relation.other().equals(field);
-    }
-
-    private FieldSpec createModifierForField(Field first,
-                                             FieldSpecRelation relation,
-                                             FieldSpecGroup group) {
-        if (!relation.main().equals(first)){
-            relation = relation.inverse();
+    /**
+     * Generates the values of a group by following its plan. The specs for each step are held in a slot that is
+     * rewritten for every value of the step before, which is safe because each step's values are used up before the
+     * next value of the step before is generated.
+     */
+    private class Execution {
+        private final FieldSpecGroupPlan plan;
+        private final FieldSpec[][] specs;
+        private final FieldSpec[] updates;
+        private final DataBagValue[] values;
+
+        Execution(FieldSpecGroupPlan plan) {
+            this.plan = plan;
+            this.specs = new FieldSpec[plan.size()][];
+            this.specs[0] = plan.initialSpecs();
+            for (int step = 1; step < plan.size(); step++) {
+                specs[step] = new FieldSpec[plan.size()];
+            }
+            this.updates = new FieldSpec[plan.size()];
+            this.values = new DataBagValue[plan.size()];
         }
 
-        FieldSpec otherFieldSpec = group.fieldSpecs().get(relation.other());
-        return relation.createModifierFromOtherFieldSpec(otherFieldSpec);
-    }
-
-    private Stream<DataBag> generateRemainingData(Field generatedField, DataBag dataBag, FieldSpecGroup group) {
-        FieldSpecGroup newGroup = updateRelatedFieldSpecs(generatedField, dataBag.getDataBagValue(generatedField), group);
-
-        Stream<DataBag> dataBagStream = generate(newGroup)
-            .map(otherData -> DataBag.merge(dataBag, otherData));
-
-        return applyCombinationStrategy(dataBagStream);
-    }
-
-    private FieldSpecGroup updateRelatedFieldSpecs(Field generatedField, DataBagValue generatedValue, FieldSpecGroup group) {
-        Set<FieldSpecRelation> nonUpdatedRelations = group.relations().stream()
-            .filter(relation -> !isRelatedToField(generatedField, relation))
-            .collect(Collectors.toSet());
-
-        List<FieldSpecRelation> updatableRelations = group.relations().stream()
-            .filter(relation -> isRelatedToField(generatedField, relation))
-            .map(relations -> relations.other().equals(generatedField) ? relations : relations.inverse())
-            .collect(Collectors.toList());
-
-        Map<Field, FieldSpec> fieldUpdates = updatableRelations.stream()
-            .collect(Collectors.toMap(
-                FieldSpecRelation::main,
-                relation -> relation.createModifierFromOtherValue(generatedValue),
-                (l, r) -> fieldSpecMerger.merge(l, r, true)
-                    .orElseThrow(() -> new IllegalStateException("Failed to merge field specs in related fields"))));
+        Stream<DataBag> generate(int step) {
+            Field field = plan.field(step);
+            FieldSpec[] current = specs[step];
+
+            if (step == plan.size() - 1) {
+                return underlyingGenerator.generate(field, current[step])
+                    .map(value -> {
+                        values[step] = value;
+                        return toDataBag();
+                    });
+            }
+
+            return flatMap(
+                underlyingGenerator.generate(field, restrictByRelatedSpecs(step, current)),
+                value -> {
+                    values[step] = value;
+                    restrictByValue(step, value, current, specs[step + 1]);
+                    return applyCombinationStrategy(generate(step + 1));
+                });
+        }
 
-        Map<Field, FieldSpec> newFieldSpecsDefaultGranularities = group.fieldSpecs().entrySet().stream()
-            .collect(Collectors.toMap(
-                Map.Entry::getKey,
-                e -> updateSpec(e.getKey(), e.getValue(), fieldUpdates)));
+        private FieldSpec restrictByRelatedSpecs(int step, FieldSpec[] current) {
+            FieldSpecRelation[] relations = plan.relationsFromStep(step);
+            FieldSpec original = current[step];
+            if (relations.length == 0) {
+                return original;
+            }
+
+            int[] laterSteps = plan.laterSteps(step);
+            FieldSpec restricted = original;
+            for (int i = 0; i < relations.length; i++) {
+                FieldSpec modifier = relations[i].createModifierFromOtherFieldSpec(current[laterSteps[i]]);
+                restricted = fieldSpecMerger.merge(restricted, modifier, true)
+                    .orElseThrow(() -> new ValidationException("The provided profile is wholly contradictory!"));
+            }
+
+            return applyGranularityToFieldSpec(original, restricted);
+        }
 
-        Map<Field, FieldSpec> newFieldSpecs = applyGranularitiesToFieldSpecs(group.fieldSpecs(), newFieldSpecsDefaultGranularities);
+        private void restrictByValue(int step, DataBagValue value, FieldSpec[] current, FieldSpec[] next) {
+            System.arraycopy(current, step + 1, next, step + 1, plan.size() - step - 1);
+
+            FieldSpecRelation[] relations = plan.relationsToLaterSteps(step);
+            int[] laterSteps = plan.laterSteps(step);
+            for (int i = 0; i < relations.length; i++) {
+                int later = laterSteps[i];
+                FieldSpec modifier = relations[i].createModifierFromOtherValue(value);
+                updates[later] = updates[later] == null
+                    ? modifier
+                    : mergeRelated(updates[later], modifier);
+            }
+
+            for (int later : laterSteps) {
+                FieldSpec update = updates[later];
+                if (update == null) {
+                    continue;
+                }
+                FieldSpec updated = applyGranularityToFieldSpec(mergeRelated(update, current[later]), update);
+                next[later] = applyGranularityToFieldSpec(updated, current[later]);
+                updates[later] = null;
+            }
+        }
 
-        return new FieldSpecGroup(newFieldSpecs, nonUpdatedRelations);
+        private DataBag toDataBag() {
+            Map<Field, DataBagValue> map = new HashMap<>(values.length * 4 / 3 + 1);
+            for (int step = 0; step < values.length; step++) {
+                map.put(plan.field(step), values[step]);
+            }
+            return new DataBag(map);
+        }
     }
 
-    private Map<Field, FieldSpec> applyGranularitiesToFieldSpecs(Map<Field, FieldSpec> original, Map<Field, FieldSpec> withoutGranularities) {
-        return withoutGranularities.entrySet()
-            .stream()
-            .map(entry -> new AbstractMap.SimpleEntry<>(entry.getKey(), applyGranularityToFieldSpec(
-                withoutGranularities.get(entry.getKey()),
-                original.get(entry.getKey()))))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    private FieldSpec mergeRelated(FieldSpec left, FieldSpec right) {
+        return fieldSpecMerger.merge(left, right, true)
+            .orElseThrow(() -> new IllegalStateException("Failed to merge field specs in related fields"));
     }
 
     private FieldSpec applyGranularityToFieldSpec(FieldSpec original, FieldSpec withoutGranularity) {
@@ -162,26 +162,16 @@ public class FieldSpecGroupValueGenerator {
             false).get();
     }
 
-    private FieldSpec updateSpec(Field field, FieldSpec previous, Map<Field, FieldSpec> fieldUpdates){
-        if (!fieldUpdates.containsKey(field)){
-            return previous;
+    private Stream<DataBag> applyCombinationStrategy(Stream<DataBag> dataBagStream) {
+        if (underlyingGenerator.isRandom()) {
+            // random rows are drawn one after another from the same stream, so each needs a new first value
+            return dataBagStream.limit(1);
         }
 
-        FieldSpec updatedFieldSpec = fieldSpecMerger.merge(fieldUpdates.get(field), previous, true)
-            .orElseThrow(() ->
-                new IllegalStateException("Failed to merge field specs in related fields"));
-
-        Map<Field, FieldSpec> updatedFieldSpecsNoGranularities = new HashMap<>();
-        updatedFieldSpecsNoGranularities.put(field, updatedFieldSpec);
-
-        Map<Field, FieldSpec> updatedFieldSpecs = applyGranularitiesToFieldSpecs(fieldUpdates, updatedFieldSpecsNoGranularities);
-
-        return updatedFieldSpecs.get(field);
-    }
-
-    private Stream<DataBag> applyCombinationStrategy(Stream<DataBag> dataBagStream) {
         switch (combinationStrategy) {
             case EXHAUSTIVE:
+            case PAIRWISE:
+            case TRIPLEWISE:
                 return dataBagStream;
             case MINIMAL:
             case PINNING:
@@ -196,10 +186,4 @@ public class FieldSpecGroupValueGenerator {
         map.put(field, value);
         return new DataBag(map);
     }
-
-    private FieldSpecGroup removeSpecFromGroup(Field first, FieldSpecGroup group) {
-        HashMap<Field, FieldSpec> newFieldSpecs = new HashMap<>(group.fieldSpecs());
-        newFieldSpecs.remove(first);
-        return new FieldSpecGroup(newFieldSpecs, group.relations());
-    }
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe, least-recently-used cache of determinised automata, bounded by the total number of states
+ * and transitions held rather than by the number of entries, as a single automaton can be orders of magnitude
+ * larger than another.
+ *
+ * Entries are keyed on how the automaton was built (a regex, or the intersection or complement of other keys)
+ * so that repeated merges of the same restrictions during pruning reuse the result. Intersections are keyed on
+ * the unordered set of their operands, so A ∩ B and B ∩ A (and nested intersections) share an entry.
+ *
+ * Automata are built outside the lock, so two threads missing on the same key may both build it; the first to
+ * finish is cached and returned to both. Cached automata are shared and must not be modified by callers.
+ */
+public class AutomatonCache {
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 2_000_000;
+
+    private final long maximumWeight;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AutomatonCache(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    public Automaton computeIfAbsent(Key key, Supplier<Automaton> create) {
+        synchronized (entries) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached.automaton;
+            }
+        }
+
+        misses.increment();
+        Automaton created = create.get();
+        long weight = (long) created.getNumberOfStates() + created.getNumberOfTransitions();
+        if (weight > maximumWeight) {
+            return created;
+        }
+
+        synchronized (entries) {
+            Entry raced = entries.get(key);
+            if (raced != null) {
+                return raced.automaton;
+            }
+
+            entries.put(key, new Entry(created, weight));
+            totalWeight += weight;
+            Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+            while (totalWeight > maximumWeight) {
+                totalWeight -= leastRecentlyUsed.next().weight;
+                leastRecentlyUsed.remove();
+                evictions.increment();
+            }
+        }
+        return created;
+    }
+
+    public boolean contains(Key key) {
+        synchronized (entries) {
+            return entries.containsKey(key);
+        }
+    }
+
+    public Statistics getStatistics() {
+        synchronized (entries) {
+            return new Statistics(hits.sum(), misses.sum(), evictions.sum(), entries.size(), totalWeight);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            totalWeight = 0;
+        }
+    }
+
+    private static class Entry {
+        private final Automaton automaton;
+        private final long weight;
+
+        Entry(Automaton automaton, long weight) {
+            this.automaton = automaton;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Identifies an automaton by the operations that produced it.
+     */
+    public static final class Key {
+        private enum Kind { MATCHING, CONTAINING, COMPLEMENT, INTERSECTION }
+
+        private final Kind kind;
+        private final String regex;
+        private final Set<Key> operands;
+        private final int hashCode;
+
+        private Key(Kind kind, String regex, Set<Key> operands) {
+            this.kind = kind;
+            this.regex = regex;
+            this.operands = operands;
+            this.hashCode = Objects.hash(kind, regex, operands);
+        }
+
+        public static Key forRegex(String regex, boolean matchFullString) {
+            return new Key(matchFullString ? Kind.MATCHING : Kind.CONTAINING, regex, Collections.emptySet());
+        }
+
+        public static Key complementOf(Key key) {
+            return new Key(Kind.COMPLEMENT, null, Collections.singleton(key));
+        }
+
+        public static Key intersectionOf(Key left, Key right) {
+            Set<Key> operands = new HashSet<>();
+            addIntersectionOperands(left, operands);
+            addIntersectionOperands(right, operands);
+            return operands.size() == 1
+                ? operands.iterator().next()
+                : new Key(Kind.INTERSECTION, null, Collections.unmodifiableSet(operands));
+        }
+
+        private static void addIntersectionOperands(Key key, Set<Key> operands) {
+            if (key.kind == Kind.INTERSECTION) {
+                operands.addAll(key.operands);
+            } else {
+                operands.add(key);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return hashCode == key.hashCode &&
+                kind == key.kind &&
+                Objects.equals(regex, key.regex) &&
+                operands.equals(key.operands);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case MATCHING:
+                    return "/" + regex + "/";
+                case CONTAINING:
+                    return "*/" + regex + "/*";
+                case COMPLEMENT:
+                    return "not(" + operands.iterator().next() + ")";
+                default:
+                    return operands.toString();
+            }
+        }
+    }
+
+    public static class Statistics {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final long weight;
+
+        Statistics(long hits, long misses, long evictions, int size, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%d hits, %d misses, %d evictions, %d automata holding %d states and transitions",
+                hits, misses, evictions, size, weight);
+        }
+    }
+}
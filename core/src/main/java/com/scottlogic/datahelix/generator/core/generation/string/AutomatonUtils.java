@@ -49,35 +49,50 @@ public class AutomatonUtils {
     }
 
     /**
-     * Create an automaton and store its instance in the cache, keyed on the given regex
-     * The cache will vary based on &lt;matchFullString&gt;.
+     * Create a determinised automaton for the given regex.
      * <p>
-     * The creation of an automaton is a time-consuming process, especially for more complex expressions.
+     * The creation of an automaton is a time-consuming process, especially for more complex expressions,
+     * so callers should cache the result (see {@link AutomatonCache}).
      *
      * @param regexStr        The string to create the automaton from
      * @param matchFullString Whether the string represents a matchingRegex (true) or containingRegex (false) expression
-     * @param cache           The cache to store the automaton instance in
      * @return The created automaton
      */
-    public static Automaton createAutomaton(String regexStr, boolean matchFullString, Map<String, Automaton> cache) {
-        final String anchoredStr = convertEndAnchors(regexStr, matchFullString);
-        final String requotedStr = escapeCharacters(anchoredStr);
-        final RegExp bricsRegExp = expandShorthandClasses(requotedStr);
-
-        Automaton generatedAutomaton = bricsRegExp.toAutomaton();
-        generatedAutomaton.expandSingleton();
-        // NB: AF if want to allow cmd line option to expand to a fuller character set make sure don't
-        // make it unbounded as we don't want to see tabs or back spaces or null (\u0000) unicode chars
-        generatedAutomaton = restrictCharacterSet(generatedAutomaton, '\u0020', '\u007E');
+    public static Automaton createAutomaton(String regexStr, boolean matchFullString) {
+        Automaton generatedAutomaton = restrictCharacterSet(createRegExp(regexStr, matchFullString).toAutomaton());
 
         // The automaton is determinised to improve performance. See
         // https://en.wikipedia.org/wiki/Nondeterministic_finite_automaton#Equivalence_to_DFA
         // for details.
         generatedAutomaton.determinize();
-        cache.put(regexStr, generatedAutomaton);
         return generatedAutomaton;
     }
 
+    /**
+     * Create an automaton for the given regex without determinising or minimising it, or any part of it, so that
+     * it can be built in time linear in the size of the regex (see {@link LazyAutomaton}).
+     *
+     * @param regexStr        The string to create the automaton from
+     * @param matchFullString Whether the string represents a matchingRegex (true) or containingRegex (false) expression
+     * @return The created, possibly nondeterministic, automaton
+     */
+    public static Automaton createNondeterministicAutomaton(String regexStr, boolean matchFullString) {
+        return restrictCharacterSet(NondeterministicAutomatonBuilder.build(createRegExp(regexStr, matchFullString)));
+    }
+
+    private static RegExp createRegExp(String regexStr, boolean matchFullString) {
+        final String anchoredStr = convertEndAnchors(regexStr, matchFullString);
+        final String requotedStr = escapeCharacters(anchoredStr);
+        return expandShorthandClasses(requotedStr);
+    }
+
+    private static Automaton restrictCharacterSet(Automaton generatedAutomaton) {
+        generatedAutomaton.expandSingleton();
+        // NB: AF if want to allow cmd line option to expand to a fuller character set make sure don't
+        // make it unbounded as we don't want to see tabs or back spaces or null (\u0000) unicode chars
+        return restrictCharacterSet(generatedAutomaton, '\u0020', '\u007E');
+    }
+
     private static Automaton restrictCharacterSet(Automaton generatedAutomaton, char minChar, char maxChar) {
         return BasicOperations.intersection(
             Automaton.makeCharRange(minChar, maxChar).repeat(),
@@ -0,0 +1,448 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A deterministic automaton for the intersection of one or more (possibly nondeterministic) automata, whose states
+ * are only built, by subset construction, when a walk first reaches them.
+ *
+ * Determinising a regex up front can take time and memory exponential in the size of the regex, e.g. for
+ * /(a|b)*a(a|b){20}/, even though matching or generating a value only ever visits as many states as it has
+ * characters. Here each state is a set of live states of each component automaton, and its transitions are worked
+ * out the first time they are asked for. Built states are interned in a cache bounded by the number of states it
+ * holds; when it fills up it is emptied, and states are rebuilt if they are reached again, so memory stays bounded
+ * however large the full deterministic automaton would be.
+ *
+ * Instances are thread-safe. States are immutable once their transitions are built, so a walk that started before
+ * the cache was emptied can carry on with the states it holds.
+ */
+public final class LazyAutomaton {
+    public static final int DEFAULT_MAXIMUM_CACHED_STATES = 50_000;
+
+    private final TransitionTable[] components;
+    private final int maximumCachedStates;
+    private final Map<Key, State> cache = new ConcurrentHashMap<>();
+    private final LongAdder flushes = new LongAdder();
+    private volatile State initialState;
+
+    public LazyAutomaton(List<Automaton> components) {
+        this(components, DEFAULT_MAXIMUM_CACHED_STATES);
+    }
+
+    public LazyAutomaton(List<Automaton> components, int maximumCachedStates) {
+        if (components.isEmpty()) {
+            throw new IllegalArgumentException("At least one automaton is required");
+        }
+        this.components = components.stream().map(TransitionTable::compile).toArray(TransitionTable[]::new);
+        this.maximumCachedStates = maximumCachedStates;
+    }
+
+    public State getInitialState() {
+        State initial = initialState;
+        if (initial == null) {
+            int[] key = new int[components.length * 2];
+            int length = 0;
+            for (TransitionTable component : components) {
+                int state = component.getInitialState();
+                if (component.isLive(state)) {
+                    key[length++] = 1;
+                    key[length++] = state;
+                } else {
+                    key[length++] = 0;
+                }
+            }
+            initial = initialState = intern(Arrays.copyOf(key, length));
+        }
+        return initial;
+    }
+
+    public boolean run(CharSequence string) {
+        State state = getInitialState();
+        for (int i = 0; i < string.length() && state != null; i++) {
+            state = state.step(string.charAt(i));
+        }
+        return state != null && state.isAccept();
+    }
+
+    /**
+     * Builds states breadth first from the initial state until every reachable state has been built or the given
+     * number of them has been, whichever comes first.
+     */
+    public Exploration explore(int maximumStates) {
+        Map<State, Integer> depths = new IdentityHashMap<>();
+        Deque<State> pending = new ArrayDeque<>();
+        State initial = getInitialState();
+        depths.put(initial, 0);
+        pending.add(initial);
+        int shortestAcceptedLength = -1;
+        while (!pending.isEmpty()) {
+            State state = pending.poll();
+            int depth = depths.get(state);
+            if (state.isAccept() && shortestAcceptedLength < 0) {
+                shortestAcceptedLength = depth;
+            }
+            for (int n = 0; n < state.getNumberOfTransitions(); n++) {
+                State destination = state.getDestination(n);
+                if (depths.putIfAbsent(destination, depth + 1) == null) {
+                    if (depths.size() > maximumStates) {
+                        return new Exploration(false, shortestAcceptedLength, maximumStates);
+                    }
+                    pending.add(destination);
+                }
+            }
+        }
+        return new Exploration(true, shortestAcceptedLength, depths.size());
+    }
+
+    public int getNumberOfCachedStates() {
+        return cache.size();
+    }
+
+    /**
+     * @return how many times the cache has filled up and been emptied
+     */
+    public long getNumberOfFlushes() {
+        return flushes.sum();
+    }
+
+    private State intern(int[] componentStates) {
+        Key key = new Key(componentStates);
+        State state = cache.get(key);
+        if (state != null) {
+            return state;
+        }
+
+        if (cache.size() >= maximumCachedStates) {
+            // drop the initial state too, otherwise every state built so far stays reachable through it
+            cache.clear();
+            initialState = null;
+            flushes.increment();
+        }
+        State created = new State(componentStates);
+        state = cache.putIfAbsent(key, created);
+        return state != null ? state : created;
+    }
+
+    private boolean isAccept(int[] componentStates) {
+        int position = 0;
+        for (TransitionTable component : components) {
+            int count = componentStates[position++];
+            boolean accept = false;
+            for (int i = 0; i < count; i++) {
+                accept |= component.isAccept(componentStates[position++]);
+            }
+            if (!accept) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Transitions buildTransitions(int[] componentStates) {
+        int[] boundaries = new int[16];
+        int boundaryCount = 0;
+        int position = 0;
+        for (TransitionTable component : components) {
+            int count = componentStates[position++];
+            for (int i = 0; i < count; i++) {
+                int state = componentStates[position++];
+                for (int n = 0; n < component.getNumberOfTransitions(state); n++) {
+                    int transition = component.getTransition(state, n);
+                    if (component.isLive(component.getDestination(transition))) {
+                        if (boundaryCount + 2 > boundaries.length) {
+                            boundaries = Arrays.copyOf(boundaries, boundaries.length * 2);
+                        }
+                        boundaries[boundaryCount++] = component.getMin(transition);
+                        boundaries[boundaryCount++] = component.getMax(transition) + 1;
+                    }
+                }
+            }
+        }
+        Arrays.sort(boundaries, 0, boundaryCount);
+
+        List<State> destinations = new ArrayList<>();
+        StringBuilder mins = new StringBuilder();
+        StringBuilder maxes = new StringBuilder();
+        KeyBuilder destinationStates = new KeyBuilder(componentStates.length + components.length);
+        for (int b = 0; b + 1 < boundaryCount; b++) {
+            int lowest = boundaries[b];
+            int highest = boundaries[b + 1] - 1;
+            if (highest < lowest || !destinationsOn((char) lowest, componentStates, destinationStates)) {
+                continue;
+            }
+
+            State destination = intern(destinationStates.build());
+            int last = destinations.size() - 1;
+            if (last >= 0 && destinations.get(last) == destination && maxes.charAt(last) + 1 == lowest) {
+                maxes.setCharAt(last, (char) highest);
+            } else {
+                destinations.add(destination);
+                mins.append((char) lowest);
+                maxes.append((char) highest);
+            }
+        }
+
+        return new Transitions(
+            mins.toString().toCharArray(),
+            maxes.toString().toCharArray(),
+            destinations.toArray(new State[0]));
+    }
+
+    /**
+     * Collects the key of the state reached on the given character: the live states each component moves to.
+     *
+     * @return false if some component has no live state to move to
+     */
+    private boolean destinationsOn(char c, int[] componentStates, KeyBuilder destinationStates) {
+        destinationStates.clear();
+        int position = 0;
+        for (TransitionTable component : components) {
+            int count = componentStates[position++];
+            destinationStates.startComponent();
+            for (int i = 0; i < count; i++) {
+                int state = componentStates[position++];
+                for (int n = 0; n < component.getNumberOfTransitions(state); n++) {
+                    int transition = component.getTransition(state, n);
+                    int destination = component.getDestination(transition);
+                    if (component.getMin(transition) <= c && c <= component.getMax(transition)
+                        && component.isLive(destination)) {
+                        destinationStates.add(destination);
+                    }
+                }
+            }
+            if (!destinationStates.endComponent()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds a state's key: for each component the number of its states, then those states in ascending order.
+     */
+    private static final class KeyBuilder {
+        private int[] values;
+        private int length;
+        private int countIndex;
+
+        KeyBuilder(int capacity) {
+            this.values = new int[capacity];
+        }
+
+        void clear() {
+            length = 0;
+        }
+
+        void startComponent() {
+            countIndex = length;
+            add(0);
+        }
+
+        void add(int state) {
+            if (length == values.length) {
+                values = Arrays.copyOf(values, length * 2);
+            }
+            values[length++] = state;
+        }
+
+        /**
+         * @return false if no states were added for the component
+         */
+        boolean endComponent() {
+            int first = countIndex + 1;
+            if (length == first) {
+                return false;
+            }
+
+            Arrays.sort(values, first, length);
+            int distinct = first + 1;
+            for (int i = first + 1; i < length; i++) {
+                if (values[i] != values[distinct - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            length = distinct;
+            values[countIndex] = length - first;
+            return true;
+        }
+
+        int[] build() {
+            return Arrays.copyOf(values, length);
+        }
+    }
+
+    /**
+     * A state of the deterministic automaton. Its transitions are sorted, do not overlap and only lead to states
+     * from which every component can still reach an accepting state.
+     */
+    public final class State {
+        private final int[] componentStates;
+        private final boolean accept;
+        private volatile Transitions transitions;
+
+        private State(int[] componentStates) {
+            this.componentStates = componentStates;
+            this.accept = LazyAutomaton.this.isAccept(componentStates);
+        }
+
+        public boolean isAccept() {
+            return accept;
+        }
+
+        public int getNumberOfTransitions() {
+            return transitions().destinations.length;
+        }
+
+        public char getMin(int n) {
+            return transitions().mins[n];
+        }
+
+        public char getMax(int n) {
+            return transitions().maxes[n];
+        }
+
+        public State getDestination(int n) {
+            return transitions().destinations[n];
+        }
+
+        /**
+         * @return the number of characters this state has a transition on
+         */
+        public int getNumberOfChars() {
+            return transitions().numberOfChars;
+        }
+
+        /**
+         * @return the state reached on the given character, or null if there is no such state
+         */
+        public State step(char c) {
+            Transitions transitions = transitions();
+            int low = 0;
+            int high = transitions.mins.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (transitions.maxes[mid] < c) {
+                    low = mid + 1;
+                } else if (transitions.mins[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    return transitions.destinations[mid];
+                }
+            }
+            return null;
+        }
+
+        private Transitions transitions() {
+            Transitions built = transitions;
+            if (built == null) {
+                synchronized (this) {
+                    built = transitions;
+                    if (built == null) {
+                        built = transitions = buildTransitions(componentStates);
+                    }
+                }
+            }
+            return built;
+        }
+    }
+
+    private static final class Transitions {
+        private final char[] mins;
+        private final char[] maxes;
+        private final State[] destinations;
+        private final int numberOfChars;
+
+        Transitions(char[] mins, char[] maxes, State[] destinations) {
+            this.mins = mins;
+            this.maxes = maxes;
+            this.destinations = destinations;
+            int chars = 0;
+            for (int n = 0; n < mins.length; n++) {
+                chars += maxes[n] - mins[n] + 1;
+            }
+            this.numberOfChars = chars;
+        }
+    }
+
+    private static final class Key {
+        private final int[] componentStates;
+        private final int hashCode;
+
+        Key(int[] componentStates) {
+            this.componentStates = componentStates;
+            this.hashCode = Arrays.hashCode(componentStates);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return hashCode == key.hashCode && Arrays.equals(componentStates, key.componentStates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    public static final class Exploration {
+        private final boolean complete;
+        private final int shortestAcceptedLength;
+        private final int numberOfStates;
+
+        private Exploration(boolean complete, int shortestAcceptedLength, int numberOfStates) {
+            this.complete = complete;
+            this.shortestAcceptedLength = shortestAcceptedLength;
+            this.numberOfStates = numberOfStates;
+        }
+
+        /**
+         * @return whether every reachable state was built within the limit
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * @return true if the automaton is known to accept no strings at all
+         */
+        public boolean isEmpty() {
+            return complete && shortestAcceptedLength < 0;
+        }
+
+        /**
+         * @return the length of the shortest accepted string, or -1 if none was found. States are built breadth
+         * first, so any accepted string that was found is a shortest one.
+         */
+        public int getShortestAcceptedLength() {
+            return shortestAcceptedLength;
+        }
+
+        public int getNumberOfStates() {
+            return numberOfStates;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Numbers the strings of a deterministic automaton shortest first, then in lexicographic order within each length,
+ * so that the n-th string can be found without producing the ones before it.
+ *
+ * Only the first {@link Long#MAX_VALUE} strings, and strings no longer than the maximum length, are numbered. As the
+ * shortest strings come first, those are spread over every length up to the point the language grows that large,
+ * rather than being the strings that share the longest common prefix, as they would be with
+ * {@link RankedStringEnumerator}.
+ *
+ * For each length the number of strings of exactly that length that can be read from each state is counted up front,
+ * saturating at {@link Long#MAX_VALUE}. Like {@link RankedStringEnumerator}, strings containing surrogate characters
+ * are left out of the language.
+ */
+public class LengthRankedStringEnumerator {
+    private final TransitionTable table;
+
+    /**
+     * counts[length][state] is the number of accepted strings of exactly {@code length} characters that can be read
+     * from {@code state}, or {@link Long#MAX_VALUE} if there are more
+     */
+    private final long[][] counts;
+    private final long size;
+
+    public LengthRankedStringEnumerator(TransitionTable table, int maxLength) {
+        this.table = table;
+        this.counts = countStrings(table, maxLength);
+
+        long total = 0;
+        for (long[] countsOfLength : counts) {
+            total = saturatedAdd(total, countsOfLength[table.getInitialState()]);
+        }
+        this.size = total;
+    }
+
+    /**
+     * @return the number of strings that are numbered, at most {@link Long#MAX_VALUE}
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the string at the given position, counting from zero
+     */
+    public String get(long rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + size);
+        }
+
+        int length = 0;
+        while (rank >= counts[length][table.getInitialState()]) {
+            rank -= counts[length][table.getInitialState()];
+            length++;
+        }
+
+        char[] chars = new char[length];
+        int state = table.getInitialState();
+        for (int i = 0; i < length; i++) {
+            long[] remainingCounts = counts[length - i - 1];
+            for (int n = 0; n < table.getNumberOfTransitions(state); n++) {
+                int transition = table.getTransition(state, n);
+                long stringsPerChar = remainingCounts[table.getDestination(transition)];
+                int width = table.getValidCharCount(transition);
+                if (stringsPerChar == 0 || width == 0) {
+                    continue;
+                }
+                long stringsInTransition = saturatedMultiply(stringsPerChar, width);
+                if (rank < stringsInTransition) {
+                    chars[i] = table.getValidChar(transition, (int) (rank / stringsPerChar));
+                    rank %= stringsPerChar;
+                    state = table.getDestination(transition);
+                    break;
+                }
+                rank -= stringsInTransition;
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Counts strings of each length in turn, stopping at the maximum length, once no state has strings that long, or
+     * once more than {@link Long#MAX_VALUE} strings have been counted.
+     */
+    private static long[][] countStrings(TransitionTable table, int maxLength) {
+        int states = table.getNumberOfStates();
+        List<long[]> rows = new ArrayList<>();
+
+        long[] current = new long[states];
+        for (int s = 0; s < states; s++) {
+            current[s] = table.isAccept(s) ? 1 : 0;
+        }
+        rows.add(current);
+        long total = current[table.getInitialState()];
+
+        for (int length = 1; length <= maxLength && total < Long.MAX_VALUE; length++) {
+            long[] previous = current;
+            current = new long[states];
+            boolean anyStrings = false;
+            for (int s = 0; s < states; s++) {
+                long count = 0;
+                for (int n = 0; n < table.getNumberOfTransitions(s); n++) {
+                    int transition = table.getTransition(s, n);
+                    long next = previous[table.getDestination(transition)];
+                    if (next > 0) {
+                        count = saturatedAdd(count, saturatedMultiply(next, table.getValidCharCount(transition)));
+                    }
+                }
+                current[s] = count;
+                anyStrings |= count > 0;
+            }
+            if (!anyStrings) {
+                break;
+            }
+            rows.add(current);
+            total = saturatedAdd(total, current[table.getInitialState()]);
+        }
+
+        return rows.toArray(new long[0][]);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+}
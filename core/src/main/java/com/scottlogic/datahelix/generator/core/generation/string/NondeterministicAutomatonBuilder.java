@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.BasicAutomata;
+import dk.brics.automaton.BasicOperations;
+import dk.brics.automaton.RegExp;
+
+import java.lang.reflect.Field;
+
+/**
+ * Builds the automaton for a parsed brics regex without determinising any part of it.
+ *
+ * {@link RegExp#toAutomaton(boolean)} minimises (and so determinises) the automaton for every sub-expression
+ * whatever it is asked to do, which is exponential for sub-expressions such as /(a|b)*a(a|b){20}/. The brics
+ * operations themselves work on nondeterministic automata, so this walks the parsed expression and applies them
+ * directly. The parse tree is not exposed by brics, so it is read reflectively; if that is not possible the
+ * regex's own, minimised, automaton is returned instead.
+ */
+final class NondeterministicAutomatonBuilder {
+    private static final Fields FIELDS = Fields.find();
+
+    private NondeterministicAutomatonBuilder() {
+        throw new UnsupportedOperationException("No instantiation of static class");
+    }
+
+    static Automaton build(RegExp regExp) {
+        if (FIELDS == null) {
+            return regExp.toAutomaton();
+        }
+
+        try {
+            return FIELDS.build(regExp);
+        } catch (IllegalAccessException e) {
+            return regExp.toAutomaton();
+        }
+    }
+
+    private static final class Fields {
+        private final Field kind;
+        private final Field exp1;
+        private final Field exp2;
+        private final Field s;
+        private final Field c;
+        private final Field min;
+        private final Field max;
+        private final Field digits;
+        private final Field from;
+        private final Field to;
+
+        private Fields() throws NoSuchFieldException {
+            kind = field("kind");
+            exp1 = field("exp1");
+            exp2 = field("exp2");
+            s = field("s");
+            c = field("c");
+            min = field("min");
+            max = field("max");
+            digits = field("digits");
+            from = field("from");
+            to = field("to");
+        }
+
+        static Fields find() {
+            try {
+                return new Fields();
+            } catch (NoSuchFieldException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        private static Field field(String name) throws NoSuchFieldException {
+            Field field = RegExp.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        }
+
+        Automaton build(RegExp regExp) throws IllegalAccessException {
+            String kindName = ((Enum<?>) kind.get(regExp)).name();
+            switch (kindName) {
+                case "REGEXP_UNION":
+                    return BasicOperations.union(child(exp1, regExp), child(exp2, regExp));
+                case "REGEXP_CONCATENATION":
+                    return BasicOperations.concatenate(child(exp1, regExp), child(exp2, regExp));
+                case "REGEXP_INTERSECTION":
+                    return BasicOperations.intersection(child(exp1, regExp), child(exp2, regExp));
+                case "REGEXP_OPTIONAL":
+                    return BasicOperations.optional(child(exp1, regExp));
+                case "REGEXP_REPEAT":
+                    return BasicOperations.repeat(child(exp1, regExp));
+                case "REGEXP_REPEAT_MIN":
+                    return BasicOperations.repeat(child(exp1, regExp), min.getInt(regExp));
+                case "REGEXP_REPEAT_MINMAX":
+                    return BasicOperations.repeat(child(exp1, regExp), min.getInt(regExp), max.getInt(regExp));
+                case "REGEXP_COMPLEMENT":
+                    return BasicOperations.complement(child(exp1, regExp));
+                case "REGEXP_CHAR":
+                    return BasicAutomata.makeChar(c.getChar(regExp));
+                case "REGEXP_CHAR_RANGE":
+                    return BasicAutomata.makeCharRange(from.getChar(regExp), to.getChar(regExp));
+                case "REGEXP_ANYCHAR":
+                    return BasicAutomata.makeAnyChar();
+                case "REGEXP_EMPTY":
+                    return BasicAutomata.makeEmpty();
+                case "REGEXP_STRING":
+                    return BasicAutomata.makeString((String) s.get(regExp));
+                case "REGEXP_ANYSTRING":
+                    return BasicAutomata.makeAnyString();
+                case "REGEXP_INTERVAL":
+                    return BasicAutomata.makeInterval(min.getInt(regExp), max.getInt(regExp), digits.getInt(regExp));
+                default:
+                    // named automata are never supplied, so brics would reject this too
+                    return regExp.toAutomaton();
+            }
+        }
+
+        private Automaton child(Field field, RegExp regExp) throws IllegalAccessException {
+            return build((RegExp) field.get(regExp));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import com.scottlogic.datahelix.generator.core.generation.string.iterators.FiniteStringAutomatonIterator;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Numbers the strings of a finite, deterministic automaton in lexicographic order (a string comes straight before
+ * the strings it is a prefix of), so that the n-th string can be found without producing the ones before it.
+ *
+ * The number of strings that can be read from each state is counted once up front. Finding a string by its rank
+ * then walks a single path through the automaton, skipping whole transitions (and whole runs of characters) whose
+ * strings all come before the rank. Iterating from a rank walks on from the string found, so the language can be
+ * split into ranges that are produced independently, or resumed part way through.
+ *
+ * Like {@link com.scottlogic.datahelix.generator.core.generation.string.factorys.LengthAwareStringSampler}, strings
+ * containing surrogate characters are left out of the language.
+ */
+public class RankedStringEnumerator {
+    private final TransitionTable table;
+
+    /**
+     * the number of accepted strings that can be read from each state, zero for states that cannot reach an accept
+     */
+    private final BigInteger[] counts;
+    private final int longestString;
+
+    public RankedStringEnumerator(TransitionTable table) {
+        this.table = table;
+        this.counts = new BigInteger[table.getNumberOfStates()];
+        this.longestString = countStrings();
+    }
+
+    /**
+     * @return the number of strings in the language
+     */
+    public BigInteger size() {
+        return counts[table.getInitialState()];
+    }
+
+    /**
+     * @return the string at the given position in the language, counting from zero
+     */
+    public String get(BigInteger rank) {
+        if (rank.signum() < 0 || rank.compareTo(size()) >= 0) {
+            throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + size());
+        }
+
+        char[] chars = new char[longestString];
+        int length = 0;
+        int state = table.getInitialState();
+        while (true) {
+            if (table.isAccept(state)) {
+                if (rank.signum() == 0) {
+                    return new String(chars, 0, length);
+                }
+                rank = rank.subtract(BigInteger.ONE);
+            }
+
+            for (int n = 0; n < table.getNumberOfTransitions(state); n++) {
+                int transition = table.getTransition(state, n);
+                BigInteger stringsPerChar = counts[table.getDestination(transition)];
+                if (stringsPerChar.signum() == 0) {
+                    continue;
+                }
+                BigInteger stringsInTransition = stringsPerChar.multiply(
+                    BigInteger.valueOf(table.getValidCharCount(transition)));
+                if (rank.compareTo(stringsInTransition) < 0) {
+                    BigInteger[] charAndRemainder = rank.divideAndRemainder(stringsPerChar);
+                    chars[length++] = table.getValidChar(transition, charAndRemainder[0].intValue());
+                    rank = charAndRemainder[1];
+                    state = table.getDestination(transition);
+                    break;
+                }
+                rank = rank.subtract(stringsInTransition);
+            }
+        }
+    }
+
+    public String get(long rank) {
+        return get(BigInteger.valueOf(rank));
+    }
+
+    /**
+     * @return the strings in the language in order, starting from the given position
+     */
+    public Iterator<String> iterator(BigInteger fromRank) {
+        if (fromRank.compareTo(size()) >= 0) {
+            return Collections.emptyIterator();
+        }
+        return new FiniteStringAutomatonIterator(table, get(fromRank));
+    }
+
+    /**
+     * Counts the strings from each state, visiting the live states depth first so each is counted after the states
+     * it leads to. Returns the length of the longest string.
+     */
+    private int countStrings() {
+        int states = table.getNumberOfStates();
+        int[] longest = new int[states];
+        byte[] visited = new byte[states]; // 0 = not visited, 1 = on the current path, 2 = counted
+        for (int s = 0; s < states; s++) {
+            if (!table.isLive(s)) {
+                counts[s] = BigInteger.ZERO;
+                visited[s] = 2;
+            }
+        }
+        if (!table.isLive(table.getInitialState())) {
+            return 0;
+        }
+
+        int[] stack = new int[states];
+        int[] nextTransition = new int[states];
+        int depth = 0;
+        stack[0] = table.getInitialState();
+        visited[table.getInitialState()] = 1;
+        while (depth >= 0) {
+            int state = stack[depth];
+            if (nextTransition[depth] < table.getNumberOfTransitions(state)) {
+                int transition = table.getTransition(state, nextTransition[depth]++);
+                int destination = table.getDestination(transition);
+                if (!canRead(transition)) {
+                    continue;
+                }
+                if (visited[destination] == 1) {
+                    throw new IllegalArgumentException("Cannot rank the strings of an infinite language");
+                }
+                if (visited[destination] == 0) {
+                    visited[destination] = 1;
+                    stack[++depth] = destination;
+                    nextTransition[depth] = 0;
+                }
+                continue;
+            }
+
+            BigInteger count = table.isAccept(state) ? BigInteger.ONE : BigInteger.ZERO;
+            for (int n = 0; n < table.getNumberOfTransitions(state); n++) {
+                int transition = table.getTransition(state, n);
+                int destination = table.getDestination(transition);
+                if (canRead(transition) && counts[destination].signum() > 0) {
+                    BigInteger chars = BigInteger.valueOf(table.getValidCharCount(transition));
+                    count = count.add(counts[destination].multiply(chars));
+                    longest[state] = Math.max(longest[state], longest[destination] + 1);
+                }
+            }
+            counts[state] = count;
+            visited[state] = 2;
+            depth--;
+        }
+        return longest[table.getInitialState()];
+    }
+
+    private boolean canRead(int transition) {
+        return table.getValidCharCount(transition) > 0;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
+
+import java.util.*;
+
+/**
+ * A read-only copy of an automaton's states and transitions in flat primitive arrays, for walking the automaton
+ * many times without going back to the brics object graph.
+ *
+ * States are numbered from 0 (the initial state). The transitions leaving state {@code s} are those at indexes
+ * {@code firstTransition[s]} up to (excluding) {@code firstTransition[s + 1]}, in the order given by
+ * {@link State#getSortedTransitions(boolean)}. Each transition covers the character range {@code min..max}.
+ * A state is live if some accepting state can be reached from it, walks that stay on live states never get stuck.
+ */
+public final class TransitionTable {
+    private final boolean[] accept;
+    private final int[] firstTransition;
+    private final char[] min;
+    private final char[] max;
+    private final int[] destination;
+    private final boolean[] live;
+
+    private TransitionTable(boolean[] accept, int[] firstTransition, char[] min, char[] max, int[] destination) {
+        this.accept = accept;
+        this.firstTransition = firstTransition;
+        this.min = min;
+        this.max = max;
+        this.destination = destination;
+        this.live = findLiveStates();
+    }
+
+    public static TransitionTable compile(Automaton automaton) {
+        Map<State, Integer> numbers = new IdentityHashMap<>();
+        List<State> states = new ArrayList<>();
+        List<List<Transition>> transitions = new ArrayList<>();
+        int transitionCount = 0;
+
+        numbers.put(automaton.getInitialState(), 0);
+        states.add(automaton.getInitialState());
+        for (int i = 0; i < states.size(); i++) {
+            List<Transition> sorted = states.get(i).getSortedTransitions(false);
+            transitions.add(sorted);
+            transitionCount += sorted.size();
+            for (Transition transition : sorted) {
+                if (!numbers.containsKey(transition.getDest())) {
+                    numbers.put(transition.getDest(), states.size());
+                    states.add(transition.getDest());
+                }
+            }
+        }
+
+        boolean[] accept = new boolean[states.size()];
+        int[] firstTransition = new int[states.size() + 1];
+        char[] min = new char[transitionCount];
+        char[] max = new char[transitionCount];
+        int[] destination = new int[transitionCount];
+
+        int next = 0;
+        for (int state = 0; state < states.size(); state++) {
+            accept[state] = states.get(state).isAccept();
+            firstTransition[state] = next;
+            for (Transition transition : transitions.get(state)) {
+                min[next] = transition.getMin();
+                max[next] = transition.getMax();
+                destination[next] = numbers.get(transition.getDest());
+                next++;
+            }
+        }
+        firstTransition[states.size()] = next;
+
+        return new TransitionTable(accept, firstTransition, min, max, destination);
+    }
+
+    public int getInitialState() {
+        return 0;
+    }
+
+    public int getNumberOfStates() {
+        return accept.length;
+    }
+
+    public boolean isAccept(int state) {
+        return accept[state];
+    }
+
+    /**
+     * @return whether an accepting state can be reached from the given state by reading valid characters
+     */
+    public boolean isLive(int state) {
+        return live[state];
+    }
+
+    public int getNumberOfTransitions(int state) {
+        return firstTransition[state + 1] - firstTransition[state];
+    }
+
+    /**
+     * @return the index of the nth transition leaving the given state, for use with the accessors below
+     */
+    public int getTransition(int state, int n) {
+        return firstTransition[state] + n;
+    }
+
+    public char getMin(int transition) {
+        return min[transition];
+    }
+
+    public char getMax(int transition) {
+        return max[transition];
+    }
+
+    public int getDestination(int transition) {
+        return destination[transition];
+    }
+
+    /**
+     * @return the number of characters the transition covers, leaving out surrogates as they are not valid on their
+     * own (see {@link StringUtils#isCharValidUtf8(char)})
+     */
+    public int getValidCharCount(int transition) {
+        return (max[transition] - min[transition] + 1) - surrogatesIn(transition);
+    }
+
+    /**
+     * @return the nth character the transition covers, leaving out surrogates
+     */
+    public char getValidChar(int transition, int n) {
+        int c = min[transition] + n;
+        if (c >= Character.MIN_SURROGATE) {
+            // step over the whole surrogate range, n is below the count of valid chars so this stays within max
+            c += surrogatesIn(transition);
+        }
+        return (char) c;
+    }
+
+    /**
+     * @return the position of the given character among the transition's valid characters
+     */
+    public int getValidCharIndex(int transition, char c) {
+        int index = c - min[transition];
+        return c > Character.MAX_SURROGATE ? index - surrogatesIn(transition) : index;
+    }
+
+    private int surrogatesIn(int transition) {
+        int low = Math.max(min[transition], Character.MIN_SURROGATE);
+        int high = Math.min(max[transition], Character.MAX_SURROGATE);
+        return Math.max(0, high - low + 1);
+    }
+
+    /**
+     * @return the state reached from the given state on the given character, or -1 if there is no such transition
+     */
+    public int step(int state, char c) {
+        for (int t = firstTransition[state]; t < firstTransition[state + 1]; t++) {
+            if (min[t] <= c && c <= max[t]) {
+                return destination[t];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Marks the accepting states live, then works backwards over the transitions that have valid characters.
+     */
+    private boolean[] findLiveStates() {
+        int states = accept.length;
+        int[] predecessorCounts = new int[states + 1];
+        for (int t = 0; t < destination.length; t++) {
+            if (getValidCharCount(t) > 0) {
+                predecessorCounts[destination[t] + 1]++;
+            }
+        }
+        int[] firstPredecessor = new int[states + 1];
+        for (int s = 0; s < states; s++) {
+            firstPredecessor[s + 1] = firstPredecessor[s] + predecessorCounts[s + 1];
+        }
+        int[] predecessors = new int[firstPredecessor[states]];
+        int[] filled = Arrays.copyOf(firstPredecessor, states);
+        for (int s = 0; s < states; s++) {
+            for (int t = firstTransition[s]; t < firstTransition[s + 1]; t++) {
+                if (getValidCharCount(t) > 0) {
+                    predecessors[filled[destination[t]]++] = s;
+                }
+            }
+        }
+
+        boolean[] isLive = accept.clone();
+        int[] pending = new int[states];
+        int pendingCount = 0;
+        for (int s = 0; s < states; s++) {
+            if (isLive[s]) {
+                pending[pendingCount++] = s;
+            }
+        }
+        while (pendingCount > 0) {
+            int state = pending[--pendingCount];
+            for (int p = firstPredecessor[state]; p < firstPredecessor[state + 1]; p++) {
+                if (!isLive[predecessors[p]]) {
+                    isLive[predecessors[p]] = true;
+                    pending[pendingCount++] = predecessors[p];
+                }
+            }
+        }
+        return isLive;
+    }
+
+    public boolean run(String s) {
+        int state = getInitialState();
+        for (int i = 0; i < s.length() && state >= 0; i++) {
+            state = step(state, s.charAt(i));
+        }
+        return state >= 0 && accept[state];
+    }
+}
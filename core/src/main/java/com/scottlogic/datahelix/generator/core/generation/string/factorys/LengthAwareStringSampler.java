@@ -0,0 +1,292 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.factorys;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.core.generation.string.TransitionTable;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Samples strings from an automaton without bias, up to a maximum length.
+ *
+ * For every state and every remaining length it precomputes how many accepted strings of exactly that length can
+ * be read from the state (held as logarithms, as the counts grow far beyond the range of a long). A sample first
+ * picks a length, then walks the automaton choosing each transition in proportion to the number of strings it
+ * leads to, so every string of the chosen length is equally likely and no walk has to be retried or truncated.
+ *
+ * Only states from which an accepted string can be read are counted, lengths stop at the longest the language has,
+ * and each length only holds the run of states that have strings of that length, so the table is far smaller than
+ * states × (maxLength + 1) for the counted repetitions regexes usually have.
+ *
+ * Characters in the surrogate range are never produced, see {@link TransitionTable#getValidCharCount(int)}.
+ */
+public class LengthAwareStringSampler {
+    public enum LengthDistribution {
+        /** every string in the language is equally likely, so longer lengths dominate when there are more of them */
+        UNIFORM_OVER_LANGUAGE,
+        /** every length that has at least one string is equally likely, then every string of that length */
+        UNIFORM_OVER_LENGTHS
+    }
+
+    private static final int DEAD = -1;
+
+    private final TransitionTable table;
+
+    /**
+     * the index of each state among the live states, those from which an accepted string can be read, or DEAD
+     */
+    private final int[] liveIndexes;
+    private final int liveStates;
+
+    /**
+     * logCounts[remaining][liveIndex - firstLiveIndexes[remaining]] is the natural log of the number of accepted
+     * strings of exactly {@code remaining} characters that can be read from the state, for the states between the
+     * first and last that have any; every other state has none, see {@link #logCount(int, int)}
+     */
+    private final double[][] logCounts;
+    private final int[] firstLiveIndexes;
+    private final double[] cumulativeLengthProbabilities;
+    private volatile BigInteger languageSize;
+
+    public LengthAwareStringSampler(TransitionTable table, int maxLength, LengthDistribution lengthDistribution) {
+        this.table = table;
+        this.liveIndexes = new int[table.getNumberOfStates()];
+        int live = 0;
+        for (int s = 0; s < liveIndexes.length; s++) {
+            liveIndexes[s] = table.isLive(s) ? live++ : DEAD;
+        }
+        this.liveStates = live;
+
+        List<double[]> rows = new ArrayList<>();
+        List<Integer> firstIndexes = new ArrayList<>();
+        countStrings(maxLength, rows, firstIndexes);
+        this.logCounts = rows.toArray(new double[0][]);
+        this.firstLiveIndexes = firstIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.cumulativeLengthProbabilities = lengthProbabilities(lengthDistribution);
+    }
+
+    public boolean isEmpty() {
+        return cumulativeLengthProbabilities.length == 0;
+    }
+
+    /**
+     * @return the number of strings in the language no longer than the maximum length
+     */
+    public BigInteger getLanguageSize() {
+        if (languageSize == null) {
+            languageSize = countLanguageExactly();
+        }
+        return languageSize;
+    }
+
+    public String sample(RandomNumberGenerator random) {
+        if (isEmpty()) {
+            throw new ValidationException("No possible states from the current regex");
+        }
+
+        int length = pick(cumulativeLengthProbabilities, random.nextDouble(0, 1));
+        char[] chars = new char[length];
+        int state = table.getInitialState();
+        for (int i = 0; i < length; i++) {
+            int remaining = length - i;
+            int transition = pickTransition(state, remaining, random.nextDouble(0, 1));
+            chars[i] = table.getValidChar(transition, random.nextInt(table.getValidCharCount(transition)));
+            state = table.getDestination(transition);
+        }
+        return new String(chars);
+    }
+
+    private int pickTransition(int state, int remaining, double target) {
+        double total = logCount(remaining, state);
+        int chosen = -1;
+        for (int n = 0; n < table.getNumberOfTransitions(state); n++) {
+            int transition = table.getTransition(state, n);
+            double logCount = logCount(remaining - 1, table.getDestination(transition));
+            int width = table.getValidCharCount(transition);
+            if (width == 0 || logCount == Double.NEGATIVE_INFINITY) {
+                continue;
+            }
+            chosen = transition;
+            target -= width * Math.exp(logCount - total);
+            if (target < 0) {
+                break;
+            }
+        }
+        // rounding can leave a sliver of probability unallocated, which belongs to the last viable transition
+        return chosen;
+    }
+
+    /**
+     * @return the log of the number of accepted strings of exactly {@code remaining} characters that can be read from
+     * the state, or negative infinity if there are none
+     */
+    private double logCount(int remaining, int state) {
+        double[] row = logCounts[remaining];
+        int index = liveIndexes[state] - firstLiveIndexes[remaining];
+        return liveIndexes[state] != DEAD && index >= 0 && index < row.length
+            ? row[index]
+            : Double.NEGATIVE_INFINITY;
+    }
+
+    // adds a row for each length up to the longest the language has, trimmed to the live states with strings that long
+    private void countStrings(int maxLength, List<double[]> rows, List<Integer> firstIndexes) {
+        double[] current = new double[liveStates];
+        for (int s = 0; s < liveIndexes.length; s++) {
+            if (liveIndexes[s] != DEAD) {
+                current[liveIndexes[s]] = table.isAccept(s) ? 0 : Double.NEGATIVE_INFINITY;
+            }
+        }
+        addTrimmedRow(current, rows, firstIndexes);
+
+        for (int remaining = 1; remaining <= maxLength; remaining++) {
+            double[] previous = current;
+            current = new double[liveStates];
+            for (int s = 0; s < liveIndexes.length; s++) {
+                if (liveIndexes[s] != DEAD) {
+                    current[liveIndexes[s]] = logSumOfTransitions(previous, s);
+                }
+            }
+            if (!addTrimmedRow(current, rows, firstIndexes)) {
+                // every later row would be empty too, the language has no strings this long
+                break;
+            }
+        }
+    }
+
+    private static boolean addTrimmedRow(double[] row, List<double[]> rows, List<Integer> firstIndexes) {
+        int first = 0;
+        while (first < row.length && row[first] == Double.NEGATIVE_INFINITY) {
+            first++;
+        }
+        if (first == row.length) {
+            return false;
+        }
+        int last = row.length - 1;
+        while (row[last] == Double.NEGATIVE_INFINITY) {
+            last--;
+        }
+
+        rows.add(first == 0 && last == row.length - 1 ? row : Arrays.copyOfRange(row, first, last + 1));
+        firstIndexes.add(first);
+        return true;
+    }
+
+    private double logSumOfTransitions(double[] previous, int state) {
+        int transitions = table.getNumberOfTransitions(state);
+        double max = Double.NEGATIVE_INFINITY;
+        for (int n = 0; n < transitions; n++) {
+            int t = table.getTransition(state, n);
+            int width = table.getValidCharCount(t);
+            int destination = liveIndexes[table.getDestination(t)];
+            if (width > 0 && destination != DEAD) {
+                max = Math.max(max, Math.log(width) + previous[destination]);
+            }
+        }
+        if (max == Double.NEGATIVE_INFINITY) {
+            return max;
+        }
+
+        double sum = 0;
+        for (int n = 0; n < transitions; n++) {
+            int t = table.getTransition(state, n);
+            int width = table.getValidCharCount(t);
+            int destination = liveIndexes[table.getDestination(t)];
+            if (width > 0 && destination != DEAD && previous[destination] != Double.NEGATIVE_INFINITY) {
+                sum += width * Math.exp(previous[destination] - max);
+            }
+        }
+        return max + Math.log(sum);
+    }
+
+    private double[] lengthProbabilities(LengthDistribution distribution) {
+        int initialState = table.getInitialState();
+        double max = Double.NEGATIVE_INFINITY;
+        for (int length = 0; length < logCounts.length; length++) {
+            max = Math.max(max, logCount(length, initialState));
+        }
+        if (max == Double.NEGATIVE_INFINITY) {
+            return new double[0];
+        }
+
+        double[] cumulative = new double[logCounts.length];
+        double total = 0;
+        for (int length = 0; length < logCounts.length; length++) {
+            double logCount = logCount(length, initialState);
+            if (logCount != Double.NEGATIVE_INFINITY) {
+                total += distribution == LengthDistribution.UNIFORM_OVER_LANGUAGE
+                    ? Math.exp(logCount - max)
+                    : 1;
+            }
+            cumulative[length] = total;
+        }
+        for (int length = 0; length < cumulative.length; length++) {
+            cumulative[length] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * @return the first length whose cumulative probability exceeds the target, which always has some strings
+     */
+    private static int pick(double[] cumulative, double target) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] > target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private BigInteger countLanguageExactly() {
+        int states = table.getNumberOfStates();
+        BigInteger[] current = new BigInteger[states];
+        for (int s = 0; s < states; s++) {
+            current[s] = table.isAccept(s) ? BigInteger.ONE : BigInteger.ZERO;
+        }
+
+        BigInteger total = current[table.getInitialState()];
+        for (int remaining = 1; remaining < logCounts.length; remaining++) {
+            BigInteger[] previous = current;
+            current = new BigInteger[states];
+            for (int s = 0; s < states; s++) {
+                BigInteger count = BigInteger.ZERO;
+                for (int n = 0; n < table.getNumberOfTransitions(s); n++) {
+                    int t = table.getTransition(s, n);
+                    BigInteger next = previous[table.getDestination(t)];
+                    int width = table.getValidCharCount(t);
+                    if (width > 0 && next.signum() > 0) {
+                        count = count.add(next.multiply(BigInteger.valueOf(width)));
+                    }
+                }
+                current[s] = count;
+            }
+            total = total.add(current[table.getInitialState()]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.ValidationException;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Excludes a set of strings from another generator by dropping them as they are generated, rather than building
+ * them into the generator's automaton. Used for blacklists too large to subtract, see {@link StringBlacklistStrategy}.
+ */
+public class BlacklistFilteringStringGenerator implements StringGenerator {
+    /**
+     * how many random values in a row may be blacklisted before the generator is deemed unable to produce any
+     * others, rather than retrying forever
+     */
+    static final int MAX_CONSECUTIVE_REJECTIONS = 10_000;
+
+    private final StringGenerator generator;
+    private final Set<String> blacklist;
+
+    /**
+     * @param blacklist a set with constant time lookups, which is not copied
+     */
+    public BlacklistFilteringStringGenerator(StringGenerator generator, Set<String> blacklist) {
+        this.generator = generator;
+        this.blacklist = blacklist;
+    }
+
+    @Override
+    public boolean matches(String string) {
+        return !blacklist.contains(string) && generator.matches(string);
+    }
+
+    @Override
+    public boolean validate(String string) {
+        return !blacklist.contains(string) && generator.validate(string);
+    }
+
+    @Override
+    public StringGenerator intersect(StringGenerator stringGenerator) {
+        StringGenerator intersected = generator.intersect(stringGenerator);
+        return intersected instanceof NoStringsStringGenerator
+            ? intersected
+            : new BlacklistFilteringStringGenerator(intersected, blacklist);
+    }
+
+    @Override
+    public Stream<String> generateAllValues() {
+        return generator.generateAllValues().filter(this::isPermitted);
+    }
+
+    @Override
+    public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        return generator.generateRandomValues(randomNumberGenerator).filter(new RejectionLimitingFilter());
+    }
+
+    @Override
+    public Stream<String> generateUniqueRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        return generator.generateUniqueRandomValues(randomNumberGenerator).filter(this::isPermitted);
+    }
+
+    private boolean isPermitted(String value) {
+        return !blacklist.contains(value);
+    }
+
+    /**
+     * Stops a random stream that can only produce blacklisted values, e.g. when the blacklist covers a language,
+     * with an error instead of a hang. Each stream gets its own instance, as it counts the rejections it has seen.
+     */
+    private class RejectionLimitingFilter implements Predicate<String> {
+        private int consecutiveRejections;
+
+        @Override
+        public boolean test(String value) {
+            if (isPermitted(value)) {
+                consecutiveRejections = 0;
+                return true;
+            }
+            if (++consecutiveRejections == MAX_CONSECUTIVE_REJECTIONS) {
+                throw new ValidationException("Generated " + consecutiveRejections +
+                    " values in a row that were all excluded by the field's blacklist");
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return generator + " excluding " + blacklist.size() + " values";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BlacklistFilteringStringGenerator that = (BlacklistFilteringStringGenerator) o;
+        return generator.equals(that.generator) && blacklist.equals(that.blacklist);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(generator, blacklist);
+    }
+}
@@ -13,9 +13,14 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
+
 package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
 @FunctionalInterface
-public interface ChecksumMaker {
-    Character makeChecksum(String input);
+public interface CheckDigit {
+    /**
+     * @return the check digit for the characters in [from, to), or 0 if they cannot have one
+     */
+    char calculate(CharSequence chars, int from, int to);
 }
@@ -17,22 +17,40 @@ package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
 import com.scottlogic.datahelix.generator.core.utils.FinancialCodeUtils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
 public class ChecksumStringGeneratorFactory {
+    private static final String DIGITS = "0123456789";
+    private static final String ALPHANUMERIC = DIGITS + "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    static final CodeFormat SEDOL_FORMAT = CodeFormat.builder()
+        .characters(DIGITS + "BCDFGHJKLMNPQRSTVWXYZ", 6)
+        .checkDigit(0, FinancialCodeUtils::sedolCheckDigit)
+        .build();
+
+    static final CodeFormat CUSIP_FORMAT = CodeFormat.builder()
+        .characters(DIGITS, 3)
+        .characters(ALPHANUMERIC, 5)
+        .checkDigit(0, FinancialCodeUtils::cusipCheckDigit)
+        .build();
+
+    static final CodeFormat GENERIC_NSIN_FORMAT = CodeFormat.builder()
+        .characters(ALPHANUMERIC, 9)
+        .build();
+
     public static StringGenerator createSedolGenerator() {
-        return new ChecksumStringGenerator(
-            new RegexStringGenerator("[B-DF-HJ-NP-TV-Z0-9]{6}", true),
-            FinancialCodeUtils::calculateSedolCheckDigit);
+        return new FinancialCodeGenerator(Collections.singletonList(SEDOL_FORMAT));
     }
 
     public static StringGenerator createCusipGenerator() {
-        return new ChecksumStringGenerator(
-            new RegexStringGenerator("[0-9]{3}[0-9A-Z]{5}", true),
-            FinancialCodeUtils::calculateCusipCheckDigit);
+        return new FinancialCodeGenerator(Collections.singletonList(CUSIP_FORMAT));
     }
 
     public static StringGenerator createIsinGenerator() {
-        return new ChecksumStringGenerator(
-            new ChecksumlessIsinGenerator(),
-            FinancialCodeUtils::calculateIsinCheckDigit);
+        return new FinancialCodeGenerator(Arrays.stream(IsinCountryCode.values())
+            .map(IsinCountryCode::getIsinFormat)
+            .collect(Collectors.toList()));
     }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The layout of a fixed-length code, such as a SEDOL or an ISIN: each position either holds one of a set of
+ * characters, or a check digit calculated from the characters before it.
+ *
+ * Positions are filled left to right into a reusable buffer, so a check digit (which only depends on earlier
+ * positions) is worked out as soon as it is reached, and checking a string is a single pass that looks each
+ * character up in its position's table.
+ */
+public final class CodeFormat {
+    private final char[][] characters;
+    private final boolean[][] allowed;
+    private final CheckDigit[] checkDigits;
+    private final int[] checkedFrom;
+
+    private CodeFormat(List<char[]> characters, List<CheckDigit> checkDigits, List<Integer> checkedFrom) {
+        int length = characters.size();
+        this.characters = characters.toArray(new char[length][]);
+        this.checkDigits = checkDigits.toArray(new CheckDigit[length]);
+        this.checkedFrom = new int[length];
+        this.allowed = new boolean[length][];
+        for (int i = 0; i < length; i++) {
+            this.checkedFrom[i] = checkedFrom.get(i);
+            if (this.characters[i] != null) {
+                allowed[i] = new boolean[maxChar(this.characters[i]) + 1];
+                for (char c : this.characters[i]) {
+                    allowed[i][c] = true;
+                }
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int length() {
+        return characters.length;
+    }
+
+    /**
+     * @return whether the code can start with the given character, for indexing formats by their first character
+     */
+    boolean canStartWith(char c) {
+        return length() > 0 && checkDigits[0] == null && isAllowed(0, c);
+    }
+
+    public boolean matches(CharSequence code) {
+        if (code.length() != length()) {
+            return false;
+        }
+        for (int i = 0; i < characters.length; i++) {
+            char c = code.charAt(i);
+            if (checkDigits[i] == null ? !isAllowed(i, c) : c != checkDigits[i].calculate(code, checkedFrom[i], i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills the first {@link #length()} characters of the buffer with a code picked uniformly from those the format
+     * allows.
+     */
+    public void fillRandom(CharBuffer buffer, RandomNumberGenerator randomNumberGenerator) {
+        for (int i = 0; i < characters.length; i++) {
+            if (checkDigits[i] == null) {
+                buffer.put(i, characters[i][randomNumberGenerator.nextInt(characters[i].length)]);
+            } else {
+                buffer.put(i, checkDigits[i].calculate(buffer, checkedFrom[i], i));
+            }
+        }
+    }
+
+    /**
+     * @return every code the format allows, in lexicographic order
+     */
+    public Iterator<String> iterator() {
+        return new AllCodesIterator();
+    }
+
+    private boolean isAllowed(int position, char c) {
+        return c < allowed[position].length && allowed[position][c];
+    }
+
+    private void fillCheckDigits(CharBuffer buffer, int fromPosition) {
+        for (int i = fromPosition; i < characters.length; i++) {
+            if (checkDigits[i] != null) {
+                buffer.put(i, checkDigits[i].calculate(buffer, checkedFrom[i], i));
+            }
+        }
+    }
+
+    private static char maxChar(char[] chars) {
+        char max = 0;
+        for (char c : chars) {
+            max = (char) Math.max(max, c);
+        }
+        return max;
+    }
+
+    /**
+     * Counts through the codes like an odometer: the rightmost position that has a next character moves on to it, and
+     * every position after it goes back to its first character.
+     */
+    private class AllCodesIterator implements Iterator<String> {
+        private final int[] indexes = new int[characters.length];
+        private final CharBuffer buffer = CharBuffer.allocate(characters.length);
+        private boolean hasNext = true;
+
+        AllCodesIterator() {
+            for (int i = 0; i < characters.length; i++) {
+                if (checkDigits[i] == null) {
+                    if (characters[i].length == 0) {
+                        hasNext = false;
+                        return;
+                    }
+                    buffer.put(i, characters[i][0]);
+                }
+            }
+            fillCheckDigits(buffer, 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            String value = new String(buffer.array(), 0, characters.length);
+            advance();
+            return value;
+        }
+
+        private void advance() {
+            for (int i = characters.length - 1; i >= 0; i--) {
+                if (checkDigits[i] != null) {
+                    continue;
+                }
+                if (++indexes[i] < characters[i].length) {
+                    buffer.put(i, characters[i][indexes[i]]);
+                    fillCheckDigits(buffer, i);
+                    return;
+                }
+                indexes[i] = 0;
+                buffer.put(i, characters[i][0]);
+            }
+            hasNext = false;
+        }
+    }
+
+    public static class Builder {
+        private final List<char[]> characters = new ArrayList<>();
+        private final List<CheckDigit> checkDigits = new ArrayList<>();
+        private final List<Integer> checkedFrom = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder literal(String literal) {
+            for (char c : literal.toCharArray()) {
+                add(new char[]{c}, null, 0);
+            }
+            return this;
+        }
+
+        /**
+         * Adds the given number of positions, each of which can hold any of the given characters
+         */
+        public Builder characters(String allowedCharacters, int count) {
+            char[] sorted = allowedCharacters.chars().distinct().sorted().collect(
+                StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString().toCharArray();
+            for (int i = 0; i < count; i++) {
+                add(sorted, null, 0);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a check digit calculated over every position from the given one up to (excluding) this one
+         */
+        public Builder checkDigit(int coveringFrom, CheckDigit checkDigit) {
+            add(null, checkDigit, coveringFrom);
+            return this;
+        }
+
+        public Builder append(CodeFormat format) {
+            int offset = characters.size();
+            for (int i = 0; i < format.length(); i++) {
+                add(format.characters[i], format.checkDigits[i], format.checkedFrom[i] + offset);
+            }
+            return this;
+        }
+
+        public CodeFormat build() {
+            return new CodeFormat(characters, checkDigits, checkedFrom);
+        }
+
+        private void add(char[] allowedCharacters, CheckDigit checkDigit, int coveringFrom) {
+            characters.add(allowedCharacters);
+            checkDigits.add(checkDigit);
+            checkedFrom.add(coveringFrom);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.github.javafaker.Faker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * A faker spec (e.g. {@code name.firstName}) resolved once, so that producing a value does not re-parse it.
+ *
+ * Specs that are a chain of no-argument methods starting from {@link Faker} are bound to a chain of method handles,
+ * which also avoids https://github.com/DiUS/java-faker/issues/474 where {@link Faker#expression(String)} cannot
+ * resolve some of them. Any other spec is passed to {@link Faker#expression(String)} as before.
+ */
+class CompiledFakerSpec {
+    private static final MethodType FAKER_TO_STRING = MethodType.methodType(String.class, Faker.class);
+
+    private final String expression;
+    private final MethodHandle methodChain;
+
+    private CompiledFakerSpec(String expression, MethodHandle methodChain) {
+        this.expression = expression;
+        this.methodChain = methodChain;
+    }
+
+    static CompiledFakerSpec compile(String fakerSpec) {
+        return new CompiledFakerSpec("#{" + fakerSpec + "}", resolveMethodChain(fakerSpec));
+    }
+
+    String getValue(Faker faker) {
+        if (methodChain == null) {
+            return faker.expression(expression);
+        }
+
+        try {
+            return (String) methodChain.invokeExact(faker);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return a handle taking a {@link Faker} and returning the string value of the last method in the chain, or null
+     * if the spec does not name a chain of public no-argument methods
+     */
+    private static MethodHandle resolveMethodChain(String fakerSpec) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle chain = MethodHandles.identity(Faker.class);
+        Class<?> type = Faker.class;
+        try {
+            for (String element : fakerSpec.split("\\.")) {
+                Method method = type.getMethod(element);
+                chain = MethodHandles.filterReturnValue(chain, lookup.unreflect(method));
+                type = method.getReturnType();
+            }
+            if (type == void.class) {
+                return null;
+            }
+            MethodHandle toString = lookup.findStatic(
+                String.class,
+                "valueOf",
+                MethodType.methodType(String.class, Object.class));
+            return MethodHandles.filterReturnValue(chain.asType(chain.type().changeReturnType(Object.class)), toString)
+                .asType(FAKER_TO_STRING);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -18,23 +18,43 @@ package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
 import com.github.javafaker.Faker;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.ValidationException;
 import com.scottlogic.datahelix.generator.common.util.OrderedRandom;
 
-import java.lang.reflect.InvocationTargetException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Generates values from a faker spec, keeping those that meet the field's other string constraints.
+ *
+ * Faker instances are slow to create, as each loads its locale's data, and are not safe to share between threads,
+ * so each thread has one that every generator uses. Only the default locale is used. Values are produced in batches
+ * that start small and grow, so short runs do not pay for values they never use.
+ */
 public class FakerGenerator implements StringGenerator {
+    private static final int MAX_BATCH_SIZE = 64;
+
+    /**
+     * how many values in a row may fail the field's other constraints before the faker spec is deemed unable to
+     * produce any that pass, rather than retrying forever
+     */
+    static final int MAX_CONSECUTIVE_REJECTIONS = 10_000;
+
+    private static final ThreadLocal<Faker> RANDOM_FAKER = ThreadLocal.withInitial(Faker::new);
+    private static final ThreadLocal<Faker> ORDERED_FAKER =
+        ThreadLocal.withInitial(() -> new Faker(new OrderedRandom()));
 
     private final StringGenerator underlyingRegexGenerator;
     private final String fakerSpec;
-    private final Faker randomFaker;
-    private final Faker orderedFaker;
+    private final CompiledFakerSpec compiledSpec;
 
     public FakerGenerator(StringGenerator underlyingRegexGenerator, String fakerSpec) {
         this.underlyingRegexGenerator = underlyingRegexGenerator;
         this.fakerSpec = fakerSpec;
-        randomFaker = new Faker();
-        orderedFaker = new Faker(new OrderedRandom());
+        this.compiledSpec = CompiledFakerSpec.compile(fakerSpec);
     }
 
     @Override
@@ -61,41 +81,62 @@ public class FakerGenerator implements StringGenerator {
 
     @Override
     public Stream<String> generateAllValues() {
-        return Stream.generate(() -> getFakerValue(orderedFaker))
-            .filter(underlyingRegexGenerator::validate);
+        return generate(ORDERED_FAKER);
     }
 
     @Override
     public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
-        return Stream.generate(() -> getFakerValue(randomFaker))
-            .filter(underlyingRegexGenerator::validate);
+        return generate(RANDOM_FAKER);
     }
 
-    private String getFakerValue(Faker faker) {
-        try {
-            return faker.expression("#{" + this.fakerSpec + "}");
-        } catch (Exception e) {
-            return getFakerValueWorkaround(faker);
-        }
+    private Stream<String> generate(ThreadLocal<Faker> faker) {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(new BatchIterator(faker), Spliterator.NONNULL),
+            false);
     }
 
-    /*
-     *  This method is a temporary workaround for the issue highlighted here:
-     *  https://github.com/DiUS/java-faker/issues/474
-     * 
-     *  Once the underlying issue has been fixed, this method can be removed.
-     */
-    private String getFakerValueWorkaround(Faker faker) {
-        String elements[] = this.fakerSpec.split("\\.");
-        Object obj = faker;
-        for (String element : elements) {
-            try {
-                obj = obj.getClass().getMethod(element).invoke(obj);
-            } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-                e.printStackTrace();
+    private class BatchIterator implements Iterator<String> {
+        private final ThreadLocal<Faker> faker;
+        private String[] batch = new String[1];
+        private int position;
+        private int size;
+
+        BatchIterator(ThreadLocal<Faker> faker) {
+            this.faker = faker;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (position == size) {
+                fillBatch();
             }
+            return batch[position++];
         }
 
-        return (String) obj;
+        private void fillBatch() {
+            if (size == batch.length && batch.length < MAX_BATCH_SIZE) {
+                batch = new String[batch.length * 2];
+            }
+
+            Faker instance = faker.get();
+            position = 0;
+            size = 0;
+            int rejections = 0;
+            while (size < batch.length) {
+                String value = compiledSpec.getValue(instance);
+                if (underlyingRegexGenerator.validate(value)) {
+                    batch[size++] = value;
+                    rejections = 0;
+                } else if (++rejections == MAX_CONSECUTIVE_REJECTIONS) {
+                    throw new ValidationException("Faker spec '" + fakerSpec + "' produced " + rejections +
+                        " values in a row that did not meet the other constraints on the field");
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.ValidationException;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator.flatMap;
+
+/**
+ * Generates codes that follow any one of a list of {@link CodeFormat}s, e.g. one per ISIN country code.
+ * Random codes pick a format uniformly, then fill it uniformly.
+ */
+public class FinancialCodeGenerator implements StringGenerator {
+    private static final int ASCII = 128;
+
+    private final List<CodeFormat> formats;
+    private final int maxLength;
+
+    /**
+     * the formats that can start with each ASCII character, so checking a code only looks at formats it could match
+     */
+    private final CodeFormat[][] formatsByFirstChar = new CodeFormat[ASCII][];
+
+    public FinancialCodeGenerator(List<CodeFormat> formats) {
+        this.formats = formats;
+        this.maxLength = formats.stream().mapToInt(CodeFormat::length).max().orElse(0);
+        for (char c = 0; c < ASCII; c++) {
+            List<CodeFormat> startingWith = new ArrayList<>();
+            for (CodeFormat format : formats) {
+                if (format.canStartWith(c)) {
+                    startingWith.add(format);
+                }
+            }
+            formatsByFirstChar[c] = startingWith.toArray(new CodeFormat[0]);
+        }
+    }
+
+    @Override
+    public Stream<String> generateAllValues() {
+        return flatMap(
+            formats.stream(),
+            format -> StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(format.iterator(), Spliterator.ORDERED),
+                false));
+    }
+
+    @Override
+    public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        CharBuffer buffer = CharBuffer.allocate(maxLength);
+        return Stream.generate(() -> {
+            CodeFormat format = formats.get(randomNumberGenerator.nextInt(formats.size()));
+            format.fillRandom(buffer, randomNumberGenerator);
+            return new String(buffer.array(), 0, format.length());
+        });
+    }
+
+    @Override
+    public boolean matches(String string) {
+        if (string.isEmpty() || string.charAt(0) >= ASCII) {
+            return false;
+        }
+        for (CodeFormat format : formatsByFirstChar[string.charAt(0)]) {
+            if (format.matches(string)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public StringGenerator intersect(StringGenerator stringGenerator) {
+        throw new ValidationException("These constraints cannot be combined.");
+    }
+
+    @Override
+    public boolean validate(String string) {
+        return matches(string);
+    }
+}
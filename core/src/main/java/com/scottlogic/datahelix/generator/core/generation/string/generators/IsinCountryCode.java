@@ -15,9 +15,11 @@
  */
 package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
+import com.scottlogic.datahelix.generator.core.utils.FinancialCodeUtils;
 
-import static com.scottlogic.datahelix.generator.core.generation.string.generators.ChecksumStringGeneratorFactory.createCusipGenerator;
-import static com.scottlogic.datahelix.generator.core.generation.string.generators.ChecksumStringGeneratorFactory.createSedolGenerator;
+import static com.scottlogic.datahelix.generator.core.generation.string.generators.ChecksumStringGeneratorFactory.CUSIP_FORMAT;
+import static com.scottlogic.datahelix.generator.core.generation.string.generators.ChecksumStringGeneratorFactory.GENERIC_NSIN_FORMAT;
+import static com.scottlogic.datahelix.generator.core.generation.string.generators.ChecksumStringGeneratorFactory.SEDOL_FORMAT;
 
 public enum IsinCountryCode {
     AD,
@@ -96,7 +98,7 @@ public enum IsinCountryCode {
     FO,
     FR,
     GA,
-    GB(prefix("GB00", createSedolGenerator())),
+    GB(CodeFormat.builder().literal("00").append(SEDOL_FORMAT).build()),
     GD,
     GE,
     GF,
@@ -252,7 +254,7 @@ public enum IsinCountryCode {
     UA,
     UG,
     UM,
-    US(prefix("US", createCusipGenerator())),
+    US(CUSIP_FORMAT),
     UY,
     UZ,
     VA,
@@ -270,23 +272,24 @@ public enum IsinCountryCode {
     ZM,
     ZW;
 
-    String GENERIC_NSIN_REGEX = "[A-Z0-9]{9}";
-    private final StringGenerator checksumlessStringGenerator;
+    private final CodeFormat isinFormat;
 
-    IsinCountryCode(){
-        checksumlessStringGenerator = prefix(this.name(),
-            new RegexStringGenerator(GENERIC_NSIN_REGEX, true));
+    IsinCountryCode() {
+        this(GENERIC_NSIN_FORMAT);
     }
 
-    IsinCountryCode(StringGenerator stringGenerator){
-        this.checksumlessStringGenerator = stringGenerator;
+    IsinCountryCode(CodeFormat nsinFormat) {
+        this.isinFormat = CodeFormat.builder()
+            .literal(name())
+            .append(nsinFormat)
+            .checkDigit(0, FinancialCodeUtils::isinCheckDigit)
+            .build();
     }
 
-    static StringGenerator prefix(String prefix, StringGenerator inner){
-        return new PrefixingStringGenerator(prefix, inner);
-    }
-
-    public StringGenerator getChecksumlessStringGenerator() {
-        return checksumlessStringGenerator;
+    /**
+     * @return the format of ISINs for this country: the country code, the national code and a check digit
+     */
+    public CodeFormat getIsinFormat() {
+        return isinFormat;
     }
 }
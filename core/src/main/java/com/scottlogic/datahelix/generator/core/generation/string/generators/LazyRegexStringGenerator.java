@@ -0,0 +1,338 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.util.Defaults;
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonUtils;
+import com.scottlogic.datahelix.generator.core.generation.string.LazyAutomaton;
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generates strings for regexes whose deterministic automaton is too large to build up front, walking a
+ * {@link LazyAutomaton} so that only the states a value passes through are ever built.
+ *
+ * Restrictions that only constrain the length of a string (which every field has) are held as a set of permitted
+ * lengths rather than as part of the automaton, as they would otherwise multiply the number of states by the
+ * number of lengths.
+ *
+ * Random values are built one character at a time, each picked uniformly from those leading on from the current
+ * state. At an accepting state the value ends with the same chance as any one character being picked, so values
+ * are not uniform over the language: shorter ones are favoured, much like a backtracking regex generator.
+ */
+public class LazyRegexStringGenerator implements StringGenerator {
+    /**
+     * how many states may be built when checking whether an intersection is contradictory, beyond which it is
+     * assumed not to be
+     */
+    static final int MAX_EXPLORED_STATES = 10_000;
+
+    /**
+     * how many random walks in a row may reach a dead end before the regex is deemed unable to produce a value
+     */
+    static final int MAX_CONSECUTIVE_DEAD_ENDS = 10_000;
+
+    private static final char MIN_CHAR = ' ';
+    private static final char MAX_CHAR = '~';
+
+    private final List<Automaton> components;
+    private final List<Automaton> lengthConstraints;
+    private final BitSet permittedLengths;
+    private final int maxLength;
+    private final RegexPattern regexPattern;
+    private final LazyAutomaton automaton;
+
+    public LazyRegexStringGenerator(String regexStr, boolean matchFullString) {
+        this(
+            Collections.singletonList(AutomatonUtils.createNondeterministicAutomaton(regexStr, matchFullString)),
+            Collections.emptyList(),
+            allLengths(),
+            new SingleRegexPattern(regexStr, matchFullString));
+    }
+
+    private LazyRegexStringGenerator(List<Automaton> components,
+                                     List<Automaton> lengthConstraints,
+                                     BitSet permittedLengths,
+                                     RegexPattern regexPattern) {
+        this.components = components;
+        this.lengthConstraints = lengthConstraints;
+        this.permittedLengths = permittedLengths;
+        this.maxLength = permittedLengths.length() - 1;
+        this.regexPattern = regexPattern;
+        this.automaton = new LazyAutomaton(components);
+    }
+
+    LazyAutomaton.Exploration explore(int maximumStates) {
+        return automaton.explore(maximumStates);
+    }
+
+    @Override
+    public boolean matches(String string) {
+        for (Automaton lengthConstraint : lengthConstraints) {
+            if (!lengthConstraint.run(string)) {
+                return false;
+            }
+        }
+        return automaton.run(string);
+    }
+
+    @Override
+    public boolean validate(String string) {
+        return regexPattern.matches(string);
+    }
+
+    @Override
+    public StringGenerator intersect(StringGenerator stringGenerator) {
+        if (stringGenerator instanceof LazyRegexStringGenerator) {
+            LazyRegexStringGenerator other = (LazyRegexStringGenerator) stringGenerator;
+            BitSet lengths = (BitSet) permittedLengths.clone();
+            lengths.and(other.permittedLengths);
+            return intersection(
+                concat(components, other.components),
+                concat(lengthConstraints, other.lengthConstraints),
+                lengths,
+                other.regexPattern);
+        }
+
+        if (stringGenerator instanceof RegexStringGenerator) {
+            RegexStringGenerator other = (RegexStringGenerator) stringGenerator;
+            BitSet lengths = lengthsIfOnlyLengthIsConstrained(other.getAutomaton());
+            if (lengths == null) {
+                return intersection(
+                    concat(components, Collections.singletonList(other.getAutomaton())),
+                    lengthConstraints,
+                    permittedLengths,
+                    other.getRegexPattern());
+            }
+
+            lengths.and(permittedLengths);
+            return intersection(
+                components,
+                concat(lengthConstraints, Collections.singletonList(other.getAutomaton())),
+                lengths,
+                other.getRegexPattern());
+        }
+
+        return stringGenerator.intersect(this);
+    }
+
+    private StringGenerator intersection(List<Automaton> components,
+                                         List<Automaton> lengthConstraints,
+                                         BitSet permittedLengths,
+                                         RegexPattern otherPattern) {
+        LazyRegexStringGenerator merged = new LazyRegexStringGenerator(
+            components,
+            lengthConstraints,
+            permittedLengths,
+            new AllRegexPatterns(Arrays.asList(regexPattern, otherPattern)));
+
+        if (permittedLengths.isEmpty()) {
+            return new NoStringsStringGenerator("regex combination was contradictory");
+        }
+
+        LazyAutomaton.Exploration exploration = merged.explore(MAX_EXPLORED_STATES);
+        if (exploration.isEmpty() || exploration.getShortestAcceptedLength() > merged.maxLength) {
+            return new NoStringsStringGenerator("regex combination was contradictory");
+        }
+        return merged;
+    }
+
+    @Override
+    public Stream<String> generateAllValues() {
+        Iterator<String> iterator = new LexicographicIterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.SORTED), false);
+    }
+
+    @Override
+    public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        return Stream.generate(() -> generateRandomValue(randomNumberGenerator));
+    }
+
+    private String generateRandomValue(RandomNumberGenerator randomNumberGenerator) {
+        StringBuilder value = new StringBuilder();
+        for (int attempt = 0; attempt < MAX_CONSECUTIVE_DEAD_ENDS; attempt++) {
+            value.setLength(0);
+            LazyAutomaton.State state = automaton.getInitialState();
+            while (true) {
+                int chars = value.length() < maxLength ? state.getNumberOfChars() : 0;
+                if (state.isAccept() && permittedLengths.get(value.length())
+                    && (chars == 0 || randomNumberGenerator.nextInt(chars + 1) == 0)) {
+                    return value.toString();
+                }
+                if (chars == 0) {
+                    break;
+                }
+
+                int choice = randomNumberGenerator.nextInt(chars);
+                int n = 0;
+                while (choice > state.getMax(n) - state.getMin(n)) {
+                    choice -= state.getMax(n) - state.getMin(n) + 1;
+                    n++;
+                }
+                value.append((char) (state.getMin(n) + choice));
+                state = state.getDestination(n);
+            }
+        }
+
+        throw new ValidationException("Could not generate a string for " + this + " after " +
+            MAX_CONSECUTIVE_DEAD_ENDS + " attempts, the regex may not match any strings");
+    }
+
+    /**
+     * Produces the accepted strings of permitted lengths in lexicographic order, each string before those that it
+     * is a prefix of, by a depth first walk that reuses one set of arrays for the current path.
+     */
+    private class LexicographicIterator implements Iterator<String> {
+        private LazyAutomaton.State[] states = new LazyAutomaton.State[16];
+        private int[] transitionIndexes = new int[16];
+        private char[] nextChars = new char[16];
+        private char[] prefix = new char[16];
+        private int depth;
+        private String next;
+
+        LexicographicIterator() {
+            enter(automaton.getInitialState());
+            if (isEmitted(states[0])) {
+                next = "";
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = computeNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String value = next;
+            next = null;
+            return value;
+        }
+
+        private String computeNext() {
+            while (depth >= 0) {
+                LazyAutomaton.State state = states[depth];
+                int transition = transitionIndexes[depth];
+                if (depth == maxLength || transition >= state.getNumberOfTransitions()) {
+                    depth--;
+                    continue;
+                }
+
+                char c = nextChars[depth];
+                if (c == state.getMax(transition)) {
+                    transitionIndexes[depth] = transition + 1;
+                    if (transition + 1 < state.getNumberOfTransitions()) {
+                        nextChars[depth] = state.getMin(transition + 1);
+                    }
+                } else {
+                    nextChars[depth] = (char) (c + 1);
+                }
+
+                prefix[depth++] = c;
+                LazyAutomaton.State destination = state.getDestination(transition);
+                enter(destination);
+                if (isEmitted(destination)) {
+                    return new String(prefix, 0, depth);
+                }
+            }
+            return null;
+        }
+
+        private void enter(LazyAutomaton.State state) {
+            if (depth == states.length) {
+                int capacity = states.length * 2;
+                states = Arrays.copyOf(states, capacity);
+                transitionIndexes = Arrays.copyOf(transitionIndexes, capacity);
+                nextChars = Arrays.copyOf(nextChars, capacity);
+                prefix = Arrays.copyOf(prefix, capacity);
+            }
+            states[depth] = state;
+            transitionIndexes[depth] = 0;
+            if (state.getNumberOfTransitions() > 0) {
+                nextChars[depth] = state.getMin(0);
+            }
+        }
+
+        private boolean isEmitted(LazyAutomaton.State state) {
+            return state.isAccept() && permittedLengths.get(depth);
+        }
+    }
+
+    /**
+     * @return the lengths of the strings the automaton accepts, if which characters they contain makes no
+     * difference to whether they are accepted, otherwise null
+     */
+    private static BitSet lengthsIfOnlyLengthIsConstrained(Automaton lengthAutomaton) {
+        BitSet lengths = new BitSet();
+        State state = lengthAutomaton.getInitialState();
+        for (int length = 0; length <= Defaults.MAX_STRING_LENGTH && state != null; length++) {
+            if (state.isAccept()) {
+                lengths.set(length);
+            }
+
+            State destination = null;
+            int uncovered = MIN_CHAR;
+            for (Transition transition : state.getSortedTransitions(false)) {
+                if (transition.getMax() < MIN_CHAR || transition.getMin() > MAX_CHAR) {
+                    continue;
+                }
+                if (transition.getMin() > uncovered || (destination != null && destination != transition.getDest())) {
+                    return null;
+                }
+                destination = transition.getDest();
+                uncovered = transition.getMax() + 1;
+            }
+            if (destination != null && uncovered <= MAX_CHAR) {
+                return null;
+            }
+            state = destination;
+        }
+        return lengths;
+    }
+
+    private static BitSet allLengths() {
+        BitSet lengths = new BitSet();
+        lengths.set(0, Defaults.MAX_STRING_LENGTH + 1);
+        return lengths;
+    }
+
+    private static <T> List<T> concat(List<T> left, List<T> right) {
+        List<T> combined = new ArrayList<>(left.size() + right.size());
+        combined.addAll(left);
+        combined.addAll(right);
+        return combined;
+    }
+
+    @Override
+    public String toString() {
+        return regexPattern.getRepresentation();
+    }
+}
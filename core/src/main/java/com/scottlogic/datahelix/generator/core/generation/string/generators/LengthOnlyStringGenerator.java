@@ -0,0 +1,332 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.util.Defaults;
+import com.scottlogic.datahelix.generator.common.util.FeistelPermutation;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generates strings of any printable characters whose only restrictions are on their length, without an automaton.
+ *
+ * Random values pick a permitted length uniformly, then fill it from a table of the printable characters, the same
+ * distribution as {@link RegexStringGenerator} gives for the equivalent /.{min,max}/ regex. Enumeration and matching
+ * are done by counting. Combining with a regex falls back to the equivalent regex generator.
+ */
+public class LengthOnlyStringGenerator implements StringGenerator {
+    private static final char[] CHARACTERS = printableCharacters();
+    private static final BigInteger NUMBER_OF_CHARACTERS = BigInteger.valueOf(CHARACTERS.length);
+
+    private final int minLength;
+    private final Integer maxLength;
+    private final Set<Integer> excludedLengths;
+    private final int[] generatedLengths;
+    private final boolean[] isGeneratedLength;
+    private final String regex;
+    private volatile RegexStringGenerator regexGenerator;
+
+    /**
+     * @param maxLength the longest permitted length, or null if there is no limit. Values longer than
+     * {@link Defaults#MAX_STRING_LENGTH} are permitted but never generated.
+     */
+    public LengthOnlyStringGenerator(int minLength, Integer maxLength, Set<Integer> excludedLengths) {
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.excludedLengths = excludedLengths.stream()
+            .filter(length -> length >= minLength && (maxLength == null || length <= maxLength))
+            .collect(Collectors.toCollection(TreeSet::new));
+
+        int longestGenerated = maxLength != null ? Math.min(maxLength, Defaults.MAX_STRING_LENGTH) : Defaults.MAX_STRING_LENGTH;
+        this.isGeneratedLength = new boolean[Math.max(longestGenerated + 1, 0)];
+        for (int length = minLength; length <= longestGenerated; length++) {
+            isGeneratedLength[length] = !this.excludedLengths.contains(length);
+        }
+        this.generatedLengths = IntStream.range(0, isGeneratedLength.length)
+            .filter(length -> isGeneratedLength[length])
+            .toArray();
+        this.regex = lengthRegex(minLength, maxLength, this.excludedLengths);
+    }
+
+    /**
+     * @return whether no length is permitted, i.e. every length in the range is excluded
+     */
+    public boolean isEmpty() {
+        return maxLength != null && maxLength - minLength + 1 <= excludedLengths.size();
+    }
+
+    @Override
+    public boolean matches(String string) {
+        if (!isPermittedLength(string.length())) {
+            return false;
+        }
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < CHARACTERS[0] || c > CHARACTERS[CHARACTERS.length - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Only checks the length, as the equivalent regex accepts any character that is not a line terminator.
+     */
+    @Override
+    public boolean validate(String string) {
+        return isPermittedLength(string.length());
+    }
+
+    private boolean isPermittedLength(int length) {
+        return length >= minLength && (maxLength == null || length <= maxLength) && !excludedLengths.contains(length);
+    }
+
+    @Override
+    public StringGenerator intersect(StringGenerator stringGenerator) {
+        if (stringGenerator instanceof NoStringsStringGenerator) {
+            return stringGenerator;
+        }
+
+        if (!(stringGenerator instanceof LengthOnlyStringGenerator)) {
+            return toRegexGenerator().intersect(stringGenerator);
+        }
+
+        LengthOnlyStringGenerator other = (LengthOnlyStringGenerator) stringGenerator;
+        Integer mergedMaxLength = maxLength == null ? other.maxLength
+            : other.maxLength == null ? maxLength
+            : Integer.valueOf(Math.min(maxLength, other.maxLength));
+        Set<Integer> mergedExcludedLengths = new TreeSet<>(excludedLengths);
+        mergedExcludedLengths.addAll(other.excludedLengths);
+        LengthOnlyStringGenerator merged = new LengthOnlyStringGenerator(
+            Math.max(minLength, other.minLength),
+            mergedMaxLength,
+            mergedExcludedLengths);
+        return merged.isEmpty()
+            ? new NoStringsStringGenerator("Lengths are contradictory")
+            : merged;
+    }
+
+    @Override
+    public StringGenerator complement() {
+        return toRegexGenerator().complement();
+    }
+
+    /**
+     * @return the equivalent generator built from a regex automaton
+     */
+    public RegexStringGenerator toRegexGenerator() {
+        if (regexGenerator == null) {
+            regexGenerator = new RegexStringGenerator(regex, true);
+        }
+        return regexGenerator;
+    }
+
+    /**
+     * @return the number of distinct strings this generator can produce
+     */
+    public BigInteger getLanguageSize() {
+        BigInteger size = BigInteger.ZERO;
+        for (int length : generatedLengths) {
+            size = size.add(NUMBER_OF_CHARACTERS.pow(length));
+        }
+        return size;
+    }
+
+    @Override
+    public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        if (generatedLengths.length == 0) {
+            throw new ValidationException("No possible states from the current regex");
+        }
+
+        return Stream.generate(() -> {
+            char[] chars = new char[generatedLengths[randomNumberGenerator.nextInt(generatedLengths.length)]];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = CHARACTERS[randomNumberGenerator.nextInt(CHARACTERS.length)];
+            }
+            return new String(chars);
+        });
+    }
+
+    /**
+     * Generates every string once, in a random order, by passing ranks through a {@link FeistelPermutation}. Ranks
+     * are ordered by length, so when there are more than {@link Long#MAX_VALUE} strings only the shortest are produced.
+     */
+    @Override
+    public Stream<String> generateUniqueRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        long size = getLanguageSize().min(BigInteger.valueOf(Long.MAX_VALUE)).longValueExact();
+        FeistelPermutation permutation = new FeistelPermutation(size, randomNumberGenerator);
+        return LongStream.range(0, size).mapToObj(index -> fromRank(permutation.apply(index)));
+    }
+
+    private String fromRank(long rank) {
+        for (int length : generatedLengths) {
+            long count = countOfLength(length);
+            if (rank < count) {
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    chars[i] = CHARACTERS[(int) (rank % CHARACTERS.length)];
+                    rank /= CHARACTERS.length;
+                }
+                return new String(chars);
+            }
+            rank -= count;
+        }
+        throw new IndexOutOfBoundsException("Rank is beyond the number of strings");
+    }
+
+    // the number of strings of the given length, or Long.MAX_VALUE if there are more
+    private static long countOfLength(int length) {
+        long count = 1;
+        for (int i = 0; i < length; i++) {
+            if (count > Long.MAX_VALUE / CHARACTERS.length) {
+                return Long.MAX_VALUE;
+            }
+            count *= CHARACTERS.length;
+        }
+        return count;
+    }
+
+    /**
+     * Produces the strings in the same order as the equivalent regex generator: lexicographic, each string before
+     * those that it is a prefix of.
+     */
+    @Override
+    public Stream<String> generateAllValues() {
+        Iterator<String> iterator = new LexicographicIterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.SORTED), false);
+    }
+
+    private class LexicographicIterator implements Iterator<String> {
+        private final char[] chars = new char[generatedLengths.length == 0 ? 0 : generatedLengths[generatedLengths.length - 1]];
+        private int length = -1;
+        private String next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = computeNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String value = next;
+            next = null;
+            return value;
+        }
+
+        private String computeNext() {
+            while (advance()) {
+                if (isGeneratedLength[length]) {
+                    return new String(chars, 0, length);
+                }
+            }
+            return null;
+        }
+
+        private boolean advance() {
+            if (length < 0) {
+                length = 0;
+                return generatedLengths.length > 0;
+            }
+            if (length < chars.length) {
+                chars[length++] = CHARACTERS[0];
+                return true;
+            }
+            while (length > 0 && chars[length - 1] == CHARACTERS[CHARACTERS.length - 1]) {
+                length--;
+            }
+            if (length == 0) {
+                return false;
+            }
+            chars[length - 1]++;
+            return true;
+        }
+    }
+
+    /**
+     * Produce a regular expression that permits any character, but restricts the length of the string, made of one
+     * alternative for each run of permitted lengths, e.g. /^.{10}$/, /^.{0,9}$/, /^.{11,}$/ or /^(.{0,5}|.{7,})$/
+     * if 6 is an excluded length
+     */
+    private static String lengthRegex(int minLength, Integer maxLength, Set<Integer> excludedLengths) {
+        List<String> patterns = new ArrayList<>();
+        int runStart = minLength;
+        for (int excludedLength : excludedLengths) {
+            if (excludedLength > runStart) {
+                patterns.add(lengthRange(runStart, excludedLength - 1));
+            }
+            runStart = excludedLength + 1;
+        }
+        if (maxLength == null) {
+            patterns.add(String.format(".{%d,}", runStart));
+        } else if (maxLength >= runStart) {
+            patterns.add(lengthRange(runStart, maxLength));
+        }
+
+        return String.format(
+            patterns.size() == 1 ? "^%s$" : "^(%s)$",
+            String.join("|", patterns));
+    }
+
+    private static String lengthRange(int min, int max) {
+        return min == max
+            ? String.format(".{%d}", min)
+            : String.format(".{%d,%d}", min, max);
+    }
+
+    private static char[] printableCharacters() {
+        char[] characters = new char['~' - ' ' + 1];
+        for (int i = 0; i < characters.length; i++) {
+            characters[i] = (char) (' ' + i);
+        }
+        return characters;
+    }
+
+    @Override
+    public String toString() {
+        return "/" + regex + "/";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LengthOnlyStringGenerator that = (LengthOnlyStringGenerator) o;
+        return minLength == that.minLength
+            && Objects.equals(maxLength, that.maxLength)
+            && excludedLengths.equals(that.excludedLengths);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minLength, maxLength, excludedLengths);
+    }
+}
@@ -17,50 +17,91 @@
 package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
-import com.scottlogic.datahelix.generator.common.profile.FieldType;
-import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
+import com.scottlogic.datahelix.generator.common.util.FeistelPermutation;
+import com.scottlogic.datahelix.generator.common.util.Defaults;
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonCache;
 import com.scottlogic.datahelix.generator.core.generation.string.AutomatonUtils;
-import com.scottlogic.datahelix.generator.core.generation.string.factorys.RandomStringFactory;
+import com.scottlogic.datahelix.generator.core.generation.string.LengthRankedStringEnumerator;
+import com.scottlogic.datahelix.generator.core.generation.string.RankedStringEnumerator;
+import com.scottlogic.datahelix.generator.core.generation.string.TransitionTable;
+import com.scottlogic.datahelix.generator.core.generation.string.factorys.LengthAwareStringSampler;
 import com.scottlogic.datahelix.generator.core.generation.string.iterators.FiniteStringAutomatonIterator;
-import com.scottlogic.datahelix.generator.core.restrictions.string.StringRestrictions;
 import dk.brics.automaton.Automaton;
 
+import java.math.BigInteger;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class RegexStringGenerator implements StringGenerator {
     /**
-     * Cache of all matching regex automatons, keyed on their regex
+     * Cache of regex automatons and of the intersections and complements built from them, shared by all generators
      */
-    private static final Map<String, Automaton> matchingRegexAutomatonCache = new HashMap<>();
+    private static final AutomatonCache automatonCache = new AutomatonCache(AutomatonCache.DEFAULT_MAXIMUM_WEIGHT);
+
+    private static final RegexStringGenerator DEFAULT = new RegexStringGenerator(String.format("^.{0,%d}$", Defaults.MAX_STRING_LENGTH), true);
 
     /**
-     * Cache of all containing regex automatons, keyed on their regex
+     * the most memory the per-length string counts of an eagerly built regex may take. The sampler, and the
+     * enumerator used for unique values, each hold up to one count per state for every length up to
+     * {@link Defaults#MAX_STRING_LENGTH}.
      */
-    private static final Map<String, Automaton> containingRegexAutomatonCache = new HashMap<>();
+    static final long MAX_EAGER_COUNT_BYTES = 32L * 1024 * 1024;
 
-    private static final RegexStringGenerator DEFAULT = (RegexStringGenerator) ((StringRestrictions) FieldSpecFactory.fromType(FieldType.STRING).getRestrictions()).createGenerator();
+    /**
+     * the most states a regex's deterministic automaton may have for it to be built up front, so that its counts
+     * stay within {@link #MAX_EAGER_COUNT_BYTES} even if every state had strings of every length. Counted repetitions
+     * need about as many states as their upper bound, so those up to a few thousand long are still built eagerly.
+     */
+    static final int MAX_EAGER_STATES = (int) (MAX_EAGER_COUNT_BYTES / (Long.BYTES * (Defaults.MAX_STRING_LENGTH + 1L)));
 
     private Automaton automaton;
 
-    private RandomStringFactory randomStringFactory = new RandomStringFactory();
+    private volatile TransitionTable transitionTable;
+    private volatile LengthAwareStringSampler sampler;
+    private volatile RankedStringEnumerator enumerator;
+    private volatile LengthRankedStringEnumerator lengthRankedEnumerator;
     private final RegexPattern regexPattern;
 
-    private RegexStringGenerator(Automaton automaton, RegexPattern regexPattern) {
+    /**
+     * How the automaton was built, or null if it was built from something that isn't worth caching (e.g. a blacklist)
+     */
+    private final AutomatonCache.Key cacheKey;
+
+    private RegexStringGenerator(Automaton automaton, RegexPattern regexPattern, AutomatonCache.Key cacheKey) {
         this.automaton = automaton;
         this.regexPattern = regexPattern;
+        this.cacheKey = cacheKey;
     }
 
     public RegexStringGenerator(String regexStr, boolean matchFullString) {
-        Map<String, Automaton> cache = matchFullString ? matchingRegexAutomatonCache : containingRegexAutomatonCache;
-        Automaton generatedAutomaton = cache.containsKey(regexStr)
-            ? cache.get(regexStr)
-            : AutomatonUtils.createAutomaton(regexStr, matchFullString, cache);
-
+        this.cacheKey = AutomatonCache.Key.forRegex(regexStr, matchFullString);
         this.regexPattern = new SingleRegexPattern(regexStr, matchFullString);
-        this.automaton = generatedAutomaton;
+        this.automaton = automatonCache.computeIfAbsent(
+            cacheKey,
+            () -> AutomatonUtils.createAutomaton(regexStr, matchFullString));
+    }
+
+    /**
+     * Creates a generator for the regex, determinising its automaton up front unless the deterministic automaton
+     * would have more than {@link #MAX_EAGER_STATES} states, in which case states are only built as values are
+     * generated and matched, see {@link LazyRegexStringGenerator}.
+     */
+    public static StringGenerator create(String regexStr, boolean matchFullString) {
+        if (automatonCache.contains(AutomatonCache.Key.forRegex(regexStr, matchFullString))) {
+            return new RegexStringGenerator(regexStr, matchFullString);
+        }
+
+        LazyRegexStringGenerator lazyGenerator = new LazyRegexStringGenerator(regexStr, matchFullString);
+        return lazyGenerator.explore(MAX_EAGER_STATES).isComplete()
+            ? new RegexStringGenerator(regexStr, matchFullString)
+            : lazyGenerator;
+    }
+
+    public static AutomatonCache.Statistics getCacheStatistics() {
+        return automatonCache.getStatistics();
     }
 
     @Override
@@ -85,7 +126,7 @@ public class RegexStringGenerator implements StringGenerator {
             .map(regex -> new SingleRegexPattern(regex, true))
             .collect(Collectors.toList());
 
-        return new RegexStringGenerator(automaton, new NegatedRegexPattern(new AnyRegexPatterns(constraints)));
+        return new RegexStringGenerator(automaton, new NegatedRegexPattern(new AnyRegexPatterns(constraints)), null);
     }
 
     @Override
@@ -100,7 +141,12 @@ public class RegexStringGenerator implements StringGenerator {
 
         RegexStringGenerator otherRegexGenerator = (RegexStringGenerator) otherGenerator;
         Automaton b = otherRegexGenerator.automaton;
-        Automaton merged = automaton.intersection(b);
+        AutomatonCache.Key mergedKey = cacheKey == null || otherRegexGenerator.cacheKey == null
+            ? null
+            : AutomatonCache.Key.intersectionOf(cacheKey, otherRegexGenerator.cacheKey);
+        Automaton merged = mergedKey == null
+            ? automaton.intersection(b)
+            : automatonCache.computeIfAbsent(mergedKey, () -> automaton.intersection(b));
         if (merged.isEmpty()) {
             return new NoStringsStringGenerator("regex combination was contradictory");
         }
@@ -110,28 +156,120 @@ public class RegexStringGenerator implements StringGenerator {
                 this.regexPattern,
                 otherRegexGenerator.regexPattern));
 
-        return new RegexStringGenerator(merged, intersectedPatterns);
+        return new RegexStringGenerator(merged, intersectedPatterns, mergedKey);
     }
 
     @Override
     public StringGenerator complement() {
+        if (cacheKey == null) {
+            return new RegexStringGenerator(createComplement(), this.regexPattern.complement(), null);
+        }
+
+        AutomatonCache.Key complementKey = AutomatonCache.Key.complementOf(cacheKey);
         return new RegexStringGenerator(
-            this.automaton.clone().complement().intersection(DEFAULT.automaton),
-            this.regexPattern.complement());
+            automatonCache.computeIfAbsent(complementKey, this::createComplement),
+            this.regexPattern.complement(),
+            complementKey);
+    }
+
+    private Automaton createComplement() {
+        return this.automaton.clone().complement().intersection(DEFAULT.automaton);
     }
 
     @Override
     public Stream<String> generateAllValues() {
-        Iterator<String> iterator = new FiniteStringAutomatonIterator(automaton);
+        Iterator<String> iterator = new FiniteStringAutomatonIterator(getTransitionTable());
         return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.SORTED), false);
     }
 
+    /**
+     * Picks a length uniformly from the lengths the regex can produce, then a string uniformly from those of that
+     * length, so short and long values are both well represented even when one vastly outnumbers the other.
+     */
     @Override
     public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
-        return Stream.generate(
-            () -> randomStringFactory.createRandomString(
-                automaton.getInitialState(),
-                randomNumberGenerator));
+        LengthAwareStringSampler sampler = getSampler();
+        return Stream.generate(() -> sampler.sample(randomNumberGenerator));
+    }
+
+    /**
+     * Generates every string once, in a random order, by passing ranks through a {@link FeistelPermutation} and
+     * looking up the string at each. Strings are ranked shortest first, so languages of more than
+     * {@link Long#MAX_VALUE} strings produce their shortest strings, of every length up to that point, and infinite
+     * languages are produced in order.
+     */
+    @Override
+    public Stream<String> generateUniqueRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        if (!automaton.isFinite()) {
+            return generateAllValues();
+        }
+
+        LengthRankedStringEnumerator enumerator = getLengthRankedEnumerator();
+        FeistelPermutation permutation = new FeistelPermutation(enumerator.size(), randomNumberGenerator);
+        return LongStream.range(0, enumerator.size()).mapToObj(index -> enumerator.get(permutation.apply(index)));
+    }
+
+    /**
+     * Generates the strings of a finite language in lexicographic order, starting from the string with the given
+     * rank. Ranges of ranks can be generated independently, e.g. to share the work or resume it.
+     */
+    public Stream<String> generateAllValuesFrom(BigInteger rank) {
+        Iterator<String> iterator = getEnumerator().iterator(rank);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * @return the number of distinct strings this generator can produce
+     */
+    public BigInteger getLanguageSize() {
+        return getSampler().getLanguageSize();
+    }
+
+    private RankedStringEnumerator getEnumerator() {
+        if (enumerator == null) {
+            enumerator = new RankedStringEnumerator(getTransitionTable());
+        }
+        return enumerator;
+    }
+
+    private LengthRankedStringEnumerator getLengthRankedEnumerator() {
+        if (lengthRankedEnumerator == null) {
+            lengthRankedEnumerator = new LengthRankedStringEnumerator(getTransitionTable(), Defaults.MAX_STRING_LENGTH);
+        }
+        return lengthRankedEnumerator;
+    }
+
+    private LengthAwareStringSampler getSampler() {
+        if (sampler == null) {
+            sampler = new LengthAwareStringSampler(
+                getTransitionTable(),
+                Defaults.MAX_STRING_LENGTH,
+                LengthAwareStringSampler.LengthDistribution.UNIFORM_OVER_LENGTHS);
+        }
+        return sampler;
+    }
+
+    private TransitionTable getTransitionTable() {
+        if (transitionTable == null) {
+            transitionTable = TransitionTable.compile(automaton);
+        }
+        return transitionTable;
+    }
+
+    Automaton getAutomaton() {
+        return automaton;
+    }
+
+    RegexPattern getRegexPattern() {
+        return regexPattern;
+    }
+
+    boolean isFinite() {
+        return automaton.isFinite();
+    }
+
+    int getNumberOfStates() {
+        return automaton.getNumberOfStates();
     }
 
     public boolean validate(String input) {
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.google.inject.Inject;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts how {@link StringBlacklistStrategy} excluded blacklists during a generation, keeping the first few decisions
+ * with their reasons. One is bound per generation, and it reports through that generation's monitor when it ends.
+ */
+public class StringBlacklistDecisions {
+    /**
+     * how many decisions are kept with their reasons, beyond which they are only counted
+     */
+    static final int MAX_DESCRIBED_DECISIONS = 10;
+
+    private final Map<String, Integer> decisionCounts = new TreeMap<>();
+    private final List<String> describedDecisions = new ArrayList<>();
+    private int numberOfDecisions;
+
+    public StringBlacklistDecisions() {
+    }
+
+    @Inject
+    public StringBlacklistDecisions(DataGeneratorMonitor monitor) {
+        monitor.addLineToPrintAtEndOfGeneration(this::getSummary);
+    }
+
+    synchronized void record(StringGenerator generator, String decision, String reason, Object... arguments) {
+        decisionCounts.merge(decision, 1, Integer::sum);
+        if (++numberOfDecisions <= MAX_DESCRIBED_DECISIONS) {
+            describedDecisions.add(
+                "Blacklist for " + generator + " " + decision + ": " + String.format(reason, arguments));
+        }
+    }
+
+    /**
+     * @return how the blacklists seen so far were excluded, with the reasons for the first few, or null if there have
+     * been none
+     */
+    public synchronized String getSummary() {
+        if (decisionCounts.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder summary = new StringBuilder("String blacklists:");
+        decisionCounts.forEach((decision, count) ->
+            summary.append(' ').append(count).append(' ').append(decision).append(','));
+        summary.setLength(summary.length() - 1);
+
+        for (String decision : describedDecisions) {
+            summary.append(System.lineSeparator()).append("  ").append(decision);
+        }
+        int undescribed = numberOfDecisions - MAX_DESCRIBED_DECISIONS;
+        if (undescribed > 0) {
+            summary.append(System.lineSeparator()).append("  and ").append(undescribed).append(" more");
+        }
+        return summary.toString();
+    }
+}
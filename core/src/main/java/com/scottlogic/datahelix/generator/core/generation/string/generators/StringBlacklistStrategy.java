@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.util.Defaults;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Chooses how to exclude a blacklist from a string generator.
+ *
+ * Subtracting the blacklist from the generator's automaton keeps generation exact, but every character of every
+ * blacklisted string can become a state, and sampling keeps a count per state for every length up to the longest
+ * string. For a large blacklist and an unbounded language that is hundreds of millions of counts, so there the
+ * blacklist is instead held in a hash set and generated values that are in it are dropped. When almost all of a
+ * finite language is blacklisted, dropping values would reject most of them, so the blacklist is subtracted however
+ * large it is.
+ *
+ * Each decision is recorded in the given {@link StringBlacklistDecisions}, so that it can be reported at the end of
+ * generation.
+ */
+public final class StringBlacklistStrategy {
+    /**
+     * the most sampling counts (states times lengths) a subtraction may add before filtering is used instead
+     */
+    static final long MAX_SUBTRACTION_COST = 4_000_000;
+
+    private StringBlacklistStrategy() {
+        throw new UnsupportedOperationException("No instantiation of static class");
+    }
+
+    /**
+     * @return a generator that produces the strings of the given generator except those in the blacklist
+     */
+    public static StringGenerator exclude(
+        StringGenerator generator,
+        Set<String> blacklist,
+        StringBlacklistDecisions decisions) {
+        Set<String> relevant = new HashSet<>();
+        long blacklistLength = 0;
+        for (String value : blacklist) {
+            if (generator.matches(value) && relevant.add(value)) {
+                blacklistLength += value.length() + 1;
+            }
+        }
+
+        if (relevant.isEmpty()) {
+            decisions.record(generator, "kept as it is", "none of the %d blacklisted values can be generated",
+                blacklist.size());
+            return generator;
+        }
+
+        if (generator instanceof LengthOnlyStringGenerator) {
+            LengthOnlyStringGenerator lengthOnlyGenerator = (LengthOnlyStringGenerator) generator;
+            if (mostlyBlacklisted(lengthOnlyGenerator.getLanguageSize(), relevant.size())) {
+                decisions.record(generator, "subtracted", "%d blacklisted values out of %s",
+                    relevant.size(), lengthOnlyGenerator.getLanguageSize());
+                return subtract(lengthOnlyGenerator.toRegexGenerator(), relevant);
+            }
+
+            decisions.record(generator, "filtered", "%d blacklisted values from a length only generator",
+                relevant.size());
+            return new BlacklistFilteringStringGenerator(generator, relevant);
+        }
+
+        if (!(generator instanceof RegexStringGenerator)) {
+            decisions.record(generator, "filtered", "%d blacklisted values cannot be subtracted from a %s",
+                relevant.size(), generator.getClass().getSimpleName());
+            return new BlacklistFilteringStringGenerator(generator, relevant);
+        }
+
+        RegexStringGenerator regexGenerator = (RegexStringGenerator) generator;
+        boolean finite = regexGenerator.isFinite();
+        long longestLength = finite ? regexGenerator.getNumberOfStates() : Defaults.MAX_STRING_LENGTH;
+        long cost = (blacklistLength + regexGenerator.getNumberOfStates()) * (longestLength + 1);
+        if (cost <= MAX_SUBTRACTION_COST) {
+            decisions.record(generator, "subtracted", "%d blacklisted values, estimated cost %d",
+                relevant.size(), cost);
+            return subtract(regexGenerator, relevant);
+        }
+
+        if (finite && mostlyBlacklisted(regexGenerator.getLanguageSize(), relevant.size())) {
+            decisions.record(generator, "subtracted", "%d blacklisted values out of %s, estimated cost %d",
+                relevant.size(), regexGenerator.getLanguageSize(), cost);
+            return subtract(regexGenerator, relevant);
+        }
+
+        decisions.record(generator, "filtered", "%d blacklisted values, estimated cost of subtracting %d",
+            relevant.size(), cost);
+        return new BlacklistFilteringStringGenerator(generator, relevant);
+    }
+
+    private static StringGenerator subtract(RegexStringGenerator generator, Set<String> blacklist) {
+        return generator.intersect(RegexStringGenerator.createFromBlacklist(blacklist));
+    }
+
+    // when at least half the values would be rejected
+    private static boolean mostlyBlacklisted(BigInteger languageSize, int blacklisted) {
+        return languageSize.compareTo(BigInteger.valueOf(blacklisted).shiftLeft(1)) <= 0;
+    }
+}
@@ -14,84 +14,158 @@
  * limitations under the License.
  */
 
+
 package com.scottlogic.datahelix.generator.core.generation.string.iterators;
 
+import com.scottlogic.datahelix.generator.core.generation.string.TransitionTable;
 import dk.brics.automaton.Automaton;
-import dk.brics.automaton.State;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
+/**
+ * Walks the strings of an automaton depth first in lexicographic order (a string comes straight before the strings
+ * it is a prefix of), which for an infinite language never ends.
+ *
+ * The current string is held in a single reusable buffer alongside an int stack recording, for each character, the
+ * state it was read from, the transition it was read by and its position in that transition. Moving to the next
+ * string only updates these arrays, so the only allocation per string is the emitted value itself. Only live
+ * transitions are followed (see {@link TransitionTable#isLive(int)}), so the walk never wanders into dead states.
+ */
 public class FiniteStringAutomatonIterator implements Iterator<String> {
-    private StringBuilder stringBuilder;
-    private String nextValue;
-    private Deque<Deque<TransitionIterator>> stateTree;
-    private boolean atAcceptedRootState;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final TransitionTable table;
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int[] charIndexes = new int[INITIAL_CAPACITY];
+    private int[] transitionIndexes = new int[INITIAL_CAPACITY];
+    private int[] states = new int[INITIAL_CAPACITY + 1];
+    private int length;
+    private boolean hasNext;
 
     public FiniteStringAutomatonIterator(Automaton automaton) {
-        stateTree = new ArrayDeque<>();
-        atAcceptedRootState = automaton.getInitialState().isAccept();
-        stateTree.push(getTransitionsStack(automaton.getInitialState()));
-        stringBuilder = new StringBuilder();
-        nextValue = null;
+        this(TransitionTable.compile(automaton));
     }
 
-    private Deque<TransitionIterator> getTransitionsStack(State state) {
-        Deque<TransitionIterator> transitions = new ArrayDeque<>();
-        state
-            .getSortedTransitions(true)
-            .iterator()
-            .forEachRemaining(transition -> transitions.addLast(new TransitionIterator(transition)));
-        return transitions;
+    public FiniteStringAutomatonIterator(TransitionTable table) {
+        this.table = table;
+        states[0] = table.getInitialState();
+        hasNext = table.isLive(states[0]) && (table.isAccept(states[0]) || advance());
+    }
+
+    /**
+     * Starts the walk from the given string, which must be accepted by the automaton.
+     */
+    public FiniteStringAutomatonIterator(TransitionTable table, String firstValue) {
+        this.table = table;
+        states[0] = table.getInitialState();
+        for (int i = 0; i < firstValue.length(); i++) {
+            int transitionIndex = transitionIndexFor(firstValue.charAt(i));
+            int transition = table.getTransition(states[length], transitionIndex);
+            push(transitionIndex, table.getValidCharIndex(transition, firstValue.charAt(i)));
+        }
+        if (!table.isAccept(states[length])) {
+            throw new IllegalArgumentException("Cannot start from a string the automaton does not accept");
+        }
+        hasNext = true;
     }
 
     @Override
     public boolean hasNext() {
-        if (atAcceptedRootState) {
-            atAcceptedRootState = false;
-            nextValue = "";
+        return hasNext;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
         }
+        String value = new String(chars, 0, length);
+        hasNext = advance();
+        return value;
+    }
 
-        while (true) {
-            if (nextValue != null) {
+    /**
+     * Moves to the next string: the first string that extends this one, otherwise the first string after the last
+     * character that can be incremented.
+     * @return false if there are no more strings
+     */
+    private boolean advance() {
+        if (extend(nextLiveTransition(0))) {
+            return true;
+        }
+
+        while (length > 0) {
+            length--;
+            int transitionIndex = transitionIndexes[length];
+            int charIndex = charIndexes[length] + 1;
+            if (charIndex < table.getValidCharCount(table.getTransition(states[length], transitionIndex))) {
+                push(transitionIndex, charIndex);
+                descendToAccept();
+                return true;
+            }
+            if (extend(nextLiveTransition(transitionIndex + 1))) {
                 return true;
-            } if (stateTree.isEmpty()) {
-                return false;
-            } else {
-                Deque<TransitionIterator> stateNode = stateTree.peek();
-                if (stateNode.isEmpty()) {
-                    stateTree.pop();
-                    if (stringBuilder.length() != 0) {
-                        stringBuilder.deleteCharAt(stringBuilder.length() - 1);
-                    }
-                } else {
-                    TransitionIterator topTransitionIterator = stateNode.peek();
-
-                    if (topTransitionIterator.hasNext() && !topTransitionIterator.hasTransitions()) {
-                        StringBuilder stringBuilderCopy = new StringBuilder(stringBuilder);
-                        nextValue = stringBuilderCopy.append(topTransitionIterator.next()).toString();
-                    } else if (topTransitionIterator.hasNext() && topTransitionIterator.hasTransitions()) {
-                        stringBuilder.append(topTransitionIterator.next());
-                        stateTree.push(getTransitionsStack(topTransitionIterator.getState()));
-
-                        if (topTransitionIterator.isAccept()) {
-                            topTransitionIterator.markAccept();
-                            nextValue = stringBuilder.toString();
-                        }
-                    } else if (!topTransitionIterator.hasNext()) {
-                        stateNode.pop();
-                    }
-                }
             }
         }
+        return false;
     }
 
-    @Override
-    public String next() {
-        if (!hasNext()) {
-            throw new NoSuchElementException();
+    private int transitionIndexFor(char c) {
+        int state = states[length];
+        for (int n = 0; n < table.getNumberOfTransitions(state); n++) {
+            int transition = table.getTransition(state, n);
+            if (table.getMin(transition) <= c && c <= table.getMax(transition) && !Character.isSurrogate(c)) {
+                return n;
+            }
+        }
+        throw new IllegalArgumentException("Cannot start from a string the automaton does not accept");
+    }
+
+    private boolean extend(int transitionIndex) {
+        if (transitionIndex < 0) {
+            return false;
+        }
+        push(transitionIndex, 0);
+        descendToAccept();
+        return true;
+    }
+
+    private void descendToAccept() {
+        while (!table.isAccept(states[length])) {
+            push(nextLiveTransition(0), 0);
+        }
+    }
+
+    /**
+     * @return the index of the first transition from the current state, at or after the given index, that leads
+     * to a live state, or -1 if there is none
+     */
+    private int nextLiveTransition(int fromIndex) {
+        int state = states[length];
+        for (int n = fromIndex; n < table.getNumberOfTransitions(state); n++) {
+            int transition = table.getTransition(state, n);
+            if (table.getValidCharCount(transition) > 0 && table.isLive(table.getDestination(transition))) {
+                return n;
+            }
         }
-        String result = nextValue;
-        nextValue = null;
-        return result;
+        return -1;
+    }
+
+    private void push(int transitionIndex, int charIndex) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+            charIndexes = Arrays.copyOf(charIndexes, length * 2);
+            transitionIndexes = Arrays.copyOf(transitionIndexes, length * 2);
+            states = Arrays.copyOf(states, length * 2 + 1);
+        }
+
+        int transition = table.getTransition(states[length], transitionIndex);
+        chars[length] = table.getValidChar(transition, charIndex);
+        charIndexes[length] = charIndex;
+        transitionIndexes[length] = transitionIndex;
+        states[length + 1] = table.getDestination(transition);
+        length++;
     }
 }
@@ -19,15 +19,18 @@ package com.scottlogic.datahelix.generator.core.guice;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
 import com.scottlogic.datahelix.generator.core.generation.GenerationConfigSource;
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.*;
 
 public class CombinationStrategyProvider  implements Provider<CombinationStrategy> {
     private final GenerationConfigSource config;
+    private final DataGeneratorMonitor monitor;
 
     @Inject
-    public CombinationStrategyProvider(GenerationConfigSource config){
+    public CombinationStrategyProvider(GenerationConfigSource config, DataGeneratorMonitor monitor){
         this.config = config;
+        this.monitor = monitor;
     }
 
     @Override
@@ -39,9 +42,11 @@ public class CombinationStrategyProvider  implements Provider<CombinationStrateg
         }
 
         switch(config.getCombinationStrategyType()){
-            case EXHAUSTIVE: return new ExhaustiveCombinationStrategy();
+            case EXHAUSTIVE: return new ExhaustiveCombinationStrategy(config.getMaxBufferedValues());
             case PINNING: return new PinningCombinationStrategy();
             case MINIMAL: return new MinimalCombinationStrategy();
+            case PAIRWISE: return new CoveringArrayCombinationStrategy(2, monitor);
+            case TRIPLEWISE: return new CoveringArrayCombinationStrategy(3, monitor);
             default:
                 throw new UnsupportedOperationException(
                     "$Combination strategy {this.combinationStrategy} is unsupported.");
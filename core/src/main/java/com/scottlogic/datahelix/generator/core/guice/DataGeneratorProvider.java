@@ -19,6 +19,8 @@ package com.scottlogic.datahelix.generator.core.guice;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.name.Named;
+import com.scottlogic.datahelix.generator.common.util.Defaults;
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
 import com.scottlogic.datahelix.generator.core.generation.*;
 
@@ -29,24 +31,35 @@ public class DataGeneratorProvider implements Provider<DataGenerator> {
     private final Long maxRows;
     private final MonitorType monitorType;
     private final DataGeneratorMonitor monitor;
+    private final GenerationConfigSource configSource;
 
     @Inject
     public DataGeneratorProvider(
         DecisionTreeDataGenerator coreGenerator,
         @Nullable @Named("config:maxRows") Long maxRows,
         MonitorType monitorType,
-        DataGeneratorMonitor monitor) {
+        DataGeneratorMonitor monitor,
+        GenerationConfigSource configSource) {
         this.coreGenerator = coreGenerator;
         this.maxRows = maxRows;
         this.monitorType = monitorType;
         this.monitor = monitor;
+        this.configSource = configSource;
     }
 
     @Override
     public DataGenerator get() {
+        DataGenerator uniqueKeyGenerator = new UniqueKeyDataGenerator(
+            coreGenerator,
+            monitor,
+            maxRows == null ? Defaults.DEFAULT_MAX_ROWS : maxRows,
+            configSource.getGenerationType() == DataGenerationType.RANDOM
+                ? configSource.getMaxConsecutiveDuplicates()
+                : null);
+
         DataGenerator limitingGenerator = maxRows == null
-            ? coreGenerator
-            : new LimitingDataGenerator(coreGenerator, maxRows);
+            ? uniqueKeyGenerator
+            : new LimitingDataGenerator(uniqueKeyGenerator, maxRows);
 
         if (monitorType == MonitorType.QUIET){
             return limitingGenerator;
@@ -25,6 +25,7 @@ import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
 import com.scottlogic.datahelix.generator.core.generation.*;
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringBlacklistDecisions;
 import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
 import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
 import com.scottlogic.datahelix.generator.core.walker.decisionbased.OptionPicker;
@@ -52,7 +53,7 @@ public class GeneratorModule extends AbstractModule {
         // Bind providers - used to retrieve implementations based on user input
         bind(DecisionTreeWalker.class).toProvider(DecisionTreeWalkerProvider.class);
         bind(AbstractDataGeneratorMonitor.class).toProvider(MonitorProvider.class).in(Singleton.class);
-        bind(CombinationStrategy.class).toProvider(CombinationStrategyProvider.class);
+        bind(CombinationStrategy.class).toProvider(CombinationStrategyProvider.class).in(Singleton.class);
         bind(OptionPicker.class).toProvider(OptionPickerProvider.class);
 
         // bind config directly
@@ -69,6 +70,7 @@ public class GeneratorModule extends AbstractModule {
         // Bind known implementations - no user input required
         bind(DataGeneratorMonitor.class).to(AbstractDataGeneratorMonitor.class);
         bind(DataGenerator.class).toProvider(DataGeneratorProvider.class);
+        bind(StringBlacklistDecisions.class).in(Singleton.class);
 
         bind(JavaUtilRandomNumberGenerator.class)
             .toInstance(new JavaUtilRandomNumberGenerator(OffsetDateTime.now().getNano()));
@@ -23,6 +23,7 @@ import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 import com.scottlogic.datahelix.generator.core.profile.relationships.Relationship;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class Profile {
@@ -30,6 +31,7 @@ public class Profile {
     private final Collection<Constraint> constraints;
     private final String description;
     private final Collection<Relationship> relationships;
+    private final Collection<UniqueKey> uniqueKeys;
 
     public Profile(List<Field> fields, Collection<Constraint> constraints, Collection<Relationship> relationships) {
         this(null, new ProfileFields(fields), constraints, relationships);
@@ -44,10 +46,15 @@ public class Profile {
     }
 
     public Profile(String description, Fields fields, Collection<Constraint> constraints, Collection<Relationship> relationships) {
+        this(description, fields, constraints, relationships, Collections.emptyList());
+    }
+
+    public Profile(String description, Fields fields, Collection<Constraint> constraints, Collection<Relationship> relationships, Collection<UniqueKey> uniqueKeys) {
         this.fields = fields;
         this.constraints = constraints;
         this.description = description;
         this.relationships = relationships;
+        this.uniqueKeys = uniqueKeys;
     }
 
     public Fields getFields() {
@@ -65,4 +72,8 @@ public class Profile {
     public Collection<Relationship> getRelationships() {
         return relationships;
     }
+
+    public Collection<UniqueKey> getUniqueKeys() {
+        return uniqueKeys;
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.profile;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * A combination of fields whose values, taken together, must not repeat across the generated rows.
+ *
+ * Keys are checked exactly by default. Giving a false positive rate trades exactness for a fixed memory budget:
+ * a Bloom filter sized for the expected number of rows is used instead, so a small proportion of rows that are
+ * in fact unique may be discarded, but no duplicate is ever emitted.
+ */
+public class UniqueKey {
+    private final List<Field> fields;
+    private final Double falsePositiveRate;
+    private final Long expectedRows;
+
+    public UniqueKey(List<Field> fields) {
+        this(fields, null, null);
+    }
+
+    public UniqueKey(List<Field> fields, Double falsePositiveRate, Long expectedRows) {
+        this.fields = fields;
+        this.falsePositiveRate = falsePositiveRate;
+        this.expectedRows = expectedRows;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    public boolean isExact() {
+        return falsePositiveRate == null;
+    }
+
+    public Double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public Long getExpectedRows() {
+        return expectedRows;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UniqueKey uniqueKey = (UniqueKey) o;
+        return Objects.equals(fields, uniqueKey.fields) &&
+            Objects.equals(falsePositiveRate, uniqueKey.falsePositiveRate) &&
+            Objects.equals(expectedRows, uniqueKey.expectedRows);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fields, falsePositiveRate, expectedRows);
+    }
+
+    @Override
+    public String toString() {
+        return fields.stream().map(Field::getName).collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -17,6 +17,7 @@
 package com.scottlogic.datahelix.generator.core.restrictions;
 
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringBlacklistDecisions;
 
 import java.util.Set;
 
@@ -24,4 +25,8 @@ public interface TypedRestrictions<T> {
     boolean match(T o);
 
     FieldValueSource<T> createFieldValueSource(Set<T> blacklist);
+
+    default FieldValueSource<T> createFieldValueSource(Set<T> blacklist, StringBlacklistDecisions blacklistDecisions) {
+        return createFieldValueSource(blacklist);
+    }
 }
@@ -19,8 +19,11 @@ package com.scottlogic.datahelix.generator.core.restrictions.string;
 import com.scottlogic.datahelix.generator.common.SetUtils;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.FakerGenerator;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.LengthOnlyStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.NoStringsStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.RegexStringGenerator;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringBlacklistDecisions;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringBlacklistStrategy;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.StringGenerator;
 import com.scottlogic.datahelix.generator.core.restrictions.TypedRestrictions;
 
@@ -33,6 +36,22 @@ import java.util.stream.Stream;
 
 public class StringRestrictions implements TypedRestrictions<String>
 {
+    private static final int MAX_CACHED_CONTRADICTION_CHECKS = 4096;
+
+    /**
+     * Whether restrictions already seen are contradictory, keyed on their canonical form. The same sets of lengths
+     * and patterns are merged over and over during tree pruning and reduction, so this turns most contradiction
+     * checks into a lookup. Only the keys and results are held: generators are rebuilt when they are needed, from
+     * automata that {@link RegexStringGenerator} keeps in its own cache, which is bounded by their size.
+     */
+    private static final Map<GeneratorKey, Boolean> contradictionCache = Collections.synchronizedMap(
+        new LinkedHashMap<GeneratorKey, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<GeneratorKey, Boolean> eldest) {
+                return size() > MAX_CACHED_CONTRADICTION_CHECKS;
+            }
+        });
+
     private final Integer minLength;
     private final Integer maxLength;
     private final Set<Integer> excludedLengths;
@@ -70,7 +89,14 @@ public class StringRestrictions implements TypedRestrictions<String>
 
     @Override
     public FieldValueSource<String> createFieldValueSource(Set<String> blacklist) {
-        StringGenerator regexFieldValueSource = createRegexFieldValueSource(blacklist);
+        return createFieldValueSource(blacklist, new StringBlacklistDecisions());
+    }
+
+    @Override
+    public FieldValueSource<String> createFieldValueSource(
+        Set<String> blacklist,
+        StringBlacklistDecisions blacklistDecisions) {
+        StringGenerator regexFieldValueSource = createRegexFieldValueSource(blacklist, blacklistDecisions);
 
         if (fakerSpec == null) {
             return regexFieldValueSource;
@@ -79,13 +105,14 @@ public class StringRestrictions implements TypedRestrictions<String>
         return new FakerGenerator(regexFieldValueSource, fakerSpec);
     }
 
-    private StringGenerator createRegexFieldValueSource(Set<String> blacklist) {
+    private StringGenerator createRegexFieldValueSource(
+        Set<String> blacklist,
+        StringBlacklistDecisions blacklistDecisions) {
         if (blacklist.isEmpty()) {
             return createGenerator();
         }
 
-        RegexStringGenerator blacklistGenerator = RegexStringGenerator.createFromBlacklist(blacklist);
-        return createGenerator().intersect(blacklistGenerator);
+        return StringBlacklistStrategy.exclude(createGenerator(), blacklist, blacklistDecisions);
     }
 
     /**
@@ -142,7 +169,15 @@ public class StringRestrictions implements TypedRestrictions<String>
      * @return Whether this restrictions type is contradictory
      */
     private boolean isContradictory() {
-        return createGenerator() instanceof NoStringsStringGenerator;
+        GeneratorKey key = new GeneratorKey(this);
+        Boolean cached = contradictionCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean contradictory = createGenerator() instanceof NoStringsStringGenerator;
+        contradictionCache.put(key, contradictory);
+        return contradictory;
     }
 
     /**
@@ -190,22 +225,26 @@ public class StringRestrictions implements TypedRestrictions<String>
             return generator;
         }
 
+        generator = buildGenerator();
+        return generator;
+    }
+
+    private StringGenerator buildGenerator() {
         int minLength = this.minLength != null ? this.minLength : 0;
 
         //detect contradictions
         if (maxLength != null && (minLength > maxLength
             || allLengthsAreExcluded(minLength, maxLength, excludedLengths))) {
-            return generator = new NoStringsStringGenerator("Lengths are contradictory");
+            return new NoStringsStringGenerator("Lengths are contradictory");
         }
 
-        //produce a regex, and a generator for it, that can produce ANY string within the given bounds
-        //emits /.{&lt;shortest&gt;,&lt;longest&gt;}/
-        //can also emit /.{&lt;0&gt;,&lt;5&gt;}|.{&lt;7&gt;,&lt;255&gt;}/ if 6 is an excluded length
+        //produce a generator that can produce ANY string within the given bounds, without building an automaton
+        //equivalent to /.{&lt;shortest&gt;,&lt;longest&gt;}/
+        //or /.{&lt;0&gt;,&lt;5&gt;}|.{&lt;7&gt;,&lt;255&gt;}/ if 6 is an excluded length
+        //it is only turned into a regex automaton if there are pattern constraints to combine it with
         StringGenerator lengthConstrainingGenerator = minLength == 0 && maxLength == null && excludedLengths.isEmpty()
             ? null
-            : new RegexStringGenerator(
-                createStringLengthRestrictionRegex(minLength, maxLength),
-                true);
+            : new LengthOnlyStringGenerator(minLength, maxLength, excludedLengths);
 
         //combine (merge/intersect) each non-length related constraint to produce a single string generator
         //e.g. would combine /[a-z]{0,9}/ with /.{0,255}/ (lengthConstrainingGenerator) to produce a single generator
@@ -225,7 +264,7 @@ public class StringRestrictions implements TypedRestrictions<String>
                     return prev.intersect(current);
                 },
                 (a, b) -> null);
-        return generator = localGenerator;
+        return localGenerator;
     }
 
     /**
@@ -253,8 +292,8 @@ public class StringRestrictions implements TypedRestrictions<String>
      */
     private Stream<StringGenerator> getPatternConstraints() {
         return concatStreams(
-            getStringGenerators(matchingRegex, regex -> new RegexStringGenerator(regex, true)),
-            getStringGenerators(containingRegex, regex -> new RegexStringGenerator(regex, false)),
+            getStringGenerators(matchingRegex, regex -> RegexStringGenerator.create(regex, true)),
+            getStringGenerators(containingRegex, regex -> RegexStringGenerator.create(regex, false)),
             getStringGenerators(notMatchingRegex, regex -> new RegexStringGenerator(regex, true).complement()),
             getStringGenerators(notContainingRegex, regex -> new RegexStringGenerator(regex, false).complement())
         );
@@ -273,85 +312,7 @@ public class StringRestrictions implements TypedRestrictions<String>
             return Stream.empty();
         }
 
-        return patterns.stream().map(p -> getGenerator.apply(p.toString()));
-    }
-
-    /**
-     * Produce a regular expression that permits any character, but restricts the length of the generated string
-     * Will either:
-     * 1. Return a regex like /.{nnn}/ where nnn is the defined length constraint, or the shorterThan and longerThan represent the same string length
-     * 2. Return a regex like /.{aaa,bbb}/ where aaa is the shortest length and bbb is the longest length
-     * 3. Return a regex like /.{0,aaa}|.{bbb,ccc}/ where
-     *      aaa is the last length before an excluded length
-     *      bbb is the first length after the previously excluded length
-     *      ccc is the appropriate maximum length for the string
-     *
-     * @param minLength the minimum length for the string
-     * @param maxLength the maximum length for the string
-     */
-    private String createStringLengthRestrictionRegex(int minLength, Integer maxLength) {
-        if (maxLength != null && maxLength.equals(minLength)){
-            return restrictStringLength(minLength);
-        }
-
-        //if there are no excluded lengths, then return a regex that represents the shortest/longest string
-        if (excludedLengths.isEmpty()) {
-            return restrictStringLength(minLength, maxLength);
-        }
-
-        List<Integer> orderedExcludedLengths = excludedLengths.stream().sorted().collect(Collectors.toList()); //ensure the excluded lengths are ordered
-        List<String> patterns = new ArrayList<>();
-        Integer lastExcludedLength = null;
-        for (int excludedLength : orderedExcludedLengths) {
-            if ((maxLength != null && excludedLength > maxLength) || excludedLength < minLength){
-                continue; //the excluded length is beyond the permitted length, ignore it
-            }
-            if (maxLength != null && excludedLength == maxLength){
-                maxLength--; //the excluded length is the same as the longest, reduce the max-length
-            }
-            if (excludedLength == minLength){
-                lastExcludedLength = excludedLength;
-                continue;
-            }
-
-            if (lastExcludedLength == null) {
-                if (minLength < excludedLength - 1) {
-                    patterns.add(String.format(".{%d,%d}", minLength, excludedLength - 1));
-                }
-            } else {
-                patterns.add(String.format(".{%d,%d}", lastExcludedLength + 1, excludedLength - 1));
-            }
-
-            lastExcludedLength = excludedLength;
-        }
-
-        if (patterns.isEmpty()) {
-            //if no lengths have been excluded, i.e. each excluded length is either > maxLength or
-            // the same maxLength -1 (at which point appropriateMaxLength will have been modified)
-            return restrictStringLength(lastExcludedLength != null ? lastExcludedLength + 1 : minLength, maxLength);
-        }
-
-        if (maxLength != null && lastExcludedLength + 1 < maxLength - 1) {
-            patterns.add(String.format(".{%d,%d}", lastExcludedLength + 1, maxLength));
-        } else if (maxLength == null){
-            patterns.add(String.format(".{%d,}", lastExcludedLength + 1));
-        }
-
-        return String.format(
-            patterns.size() == 1 ? "^%s$" : "^(%s)$",
-            String.join("|", patterns));
-    }
-
-    private String restrictStringLength(int length){
-        return String.format("^.{%d}$", length);
-    }
-
-    private String restrictStringLength(int min, Integer max){
-        if (max == null) {
-            return String.format("^.{%d,}$", min);
-        }
-
-        return String.format("^.{%d,%d}$", min, max);
+        return patterns.stream().map(Pattern::toString).sorted().map(getGenerator);
     }
 
     @Override
@@ -394,4 +355,59 @@ public class StringRestrictions implements TypedRestrictions<String>
     public int hashCode() {
         return Objects.hash(excludedLengths, maxLength, minLength, containingRegex, matchingRegex, notMatchingRegex, notContainingRegex, fakerSpec);
     }
+
+    /**
+     * The parts of a StringRestrictions that determine its strings, normalised so that restrictions which permit
+     * the same strings compare equal: patterns by their source (Pattern has identity equality), a missing minimum
+     * length as zero and excluded lengths outside the permitted range dropped.
+     */
+    private static final class GeneratorKey {
+        private final int minLength;
+        private final Integer maxLength;
+        private final Set<Integer> excludedLengths;
+        private final Set<String> matchingRegex;
+        private final Set<String> containingRegex;
+        private final Set<String> notMatchingRegex;
+        private final Set<String> notContainingRegex;
+        private final int hashCode;
+
+        GeneratorKey(StringRestrictions restrictions) {
+            this.minLength = restrictions.minLength != null ? restrictions.minLength : 0;
+            this.maxLength = restrictions.maxLength;
+            this.excludedLengths = restrictions.excludedLengths.stream()
+                .filter(length -> length >= minLength && (maxLength == null || length <= maxLength))
+                .collect(Collectors.toCollection(TreeSet::new));
+            this.matchingRegex = sources(restrictions.matchingRegex);
+            this.containingRegex = sources(restrictions.containingRegex);
+            this.notMatchingRegex = sources(restrictions.notMatchingRegex);
+            this.notContainingRegex = sources(restrictions.notContainingRegex);
+            this.hashCode = Objects.hash(minLength, maxLength, excludedLengths, matchingRegex, containingRegex, notMatchingRegex, notContainingRegex);
+        }
+
+        private static Set<String> sources(Set<Pattern> patterns) {
+            return patterns.isEmpty()
+                ? Collections.emptySet()
+                : patterns.stream().map(Pattern::toString).collect(Collectors.toCollection(TreeSet::new));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            GeneratorKey that = (GeneratorKey) o;
+            return hashCode == that.hashCode
+                && minLength == that.minLength
+                && Objects.equals(maxLength, that.maxLength)
+                && excludedLengths.equals(that.excludedLengths)
+                && matchingRegex.equals(that.matchingRegex)
+                && containingRegex.equals(that.containingRegex)
+                && notMatchingRegex.equals(that.notMatchingRegex)
+                && notContainingRegex.equals(that.notContainingRegex);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
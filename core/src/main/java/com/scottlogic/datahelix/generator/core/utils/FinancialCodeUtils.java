@@ -14,30 +14,83 @@
  * limitations under the License.
  */
 
+
 package com.scottlogic.datahelix.generator.core.utils;
 
 import java.util.*;
-import java.util.stream.IntStream;
 
+/**
+ * Check digits and validation for ISINs, SEDOLs and CUSIPs.
+ *
+ * Each character's contribution to a check digit depends only on its value and on whether it sits in a doubled
+ * position, so the contributions are looked up from tables built once, and every calculation is a single pass over
+ * the characters. Calculations over a range of a {@link CharSequence} let generators work on a reusable buffer.
+ */
 public class FinancialCodeUtils {
     public static final List<String> VALID_COUNTRY_CODES = Arrays.asList("GB", "US");
     public static final int ISIN_LENGTH = 12;
     public static final int CUSIP_LENGTH = 9;
     public static final int SEDOL_LENGTH = 7;
 
+    private static final int[] SEDOL_WEIGHTS = {1, 3, 1, 7, 3, 9};
+    private static final String CUSIP_SPECIAL_CHARACTERS = "*@#";
+    private static final int NOT_A_CODE_CHARACTER = -1;
+
+    /**
+     * the value of each ASCII character: digits are 0-9 and letters 10-35; CUSIPs also value '*', '@' and '#' as
+     * 36-38
+     */
+    private static final int[] CHARACTER_VALUES = new int[128];
+    private static final int[] CUSIP_CHARACTER_VALUES = new int[128];
+
+    /**
+     * contribution of each character value to the ISIN digit sum, indexed by whether its last digit is doubled.
+     * Letters count as two digits, so only digits flip whether the next character is doubled
+     */
+    private static final int[][] ISIN_CONTRIBUTIONS = new int[2][36];
+
+    /**
+     * contribution of each character value to the CUSIP digit sum, indexed by whether it is doubled
+     */
+    private static final int[][] CUSIP_CONTRIBUTIONS = new int[2][39];
+
+    static {
+        Arrays.fill(CHARACTER_VALUES, NOT_A_CODE_CHARACTER);
+        for (char c = '0'; c <= '9'; c++) {
+            CHARACTER_VALUES[c] = c - '0';
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CHARACTER_VALUES[c] = c - 'A' + 10;
+        }
+        System.arraycopy(CHARACTER_VALUES, 0, CUSIP_CHARACTER_VALUES, 0, CHARACTER_VALUES.length);
+        for (int i = 0; i < CUSIP_SPECIAL_CHARACTERS.length(); i++) {
+            CUSIP_CHARACTER_VALUES[CUSIP_SPECIAL_CHARACTERS.charAt(i)] = 36 + i;
+        }
+
+        for (int value = 0; value < 36; value++) {
+            int high = value / 10;
+            int low = value % 10;
+            ISIN_CONTRIBUTIONS[0][value] = value < 10 ? low : low + digitSum(high * 2);
+            ISIN_CONTRIBUTIONS[1][value] = value < 10 ? digitSum(low * 2) : digitSum(low * 2) + high;
+        }
+        for (int value = 0; value < 39; value++) {
+            CUSIP_CONTRIBUTIONS[0][value] = digitSum(value);
+            CUSIP_CONTRIBUTIONS[1][value] = digitSum(value * 2);
+        }
+    }
+
     public static boolean isValidIsin(String isin) {
         if (isin.length() != ISIN_LENGTH) {
             return false;
         }
         final String countryCode = isin.substring(0, 2);
-        final String nsin = isin.substring(2, ISIN_LENGTH - 1);
         if (!isValidCountryCode(countryCode)) {
             return false;
         }
-        if (!isValidNsin(countryCode, nsin)) {
+        if (!isValidNsin(countryCode, isin.substring(2, ISIN_LENGTH - 1))) {
             return false;
         }
-        return isinHasValidCheckDigit(isin);
+        return isin.charAt(ISIN_LENGTH - 1) == isinCheckDigit(isin, 0, ISIN_LENGTH - 1);
     }
 
     private static boolean isValidCountryCode(String countryCode) {
@@ -45,8 +98,10 @@ public class FinancialCodeUtils {
     }
 
     private static boolean isValidNsin(String countryCode, String nsin) {
-        if (!nsin.matches("[A-Z0-9@*#]{9}")) {
-            return false;
+        for (int i = 0; i < nsin.length(); i++) {
+            if (cusipValue(nsin.charAt(i)) == NOT_A_CODE_CHARACTER) {
+                return false;
+            }
         }
         if (countryCode.equals("GB")) {
             return isValidSedolNsin(nsin);
@@ -57,8 +112,6 @@ public class FinancialCodeUtils {
         return true;
     }
 
-    private static List<Integer> SEDOL_WEIGHTS = Arrays.asList(1, 3, 1, 7, 3, 9, 1);
-
     public static boolean isValidSedolNsin(String nsin) {
         // A SEDOL has length 7, but is prefixed by zeroes when used as a nine-digit NSIN
         return isValidSedolNsin(nsin, nsin.length() - SEDOL_LENGTH);
@@ -73,21 +126,25 @@ public class FinancialCodeUtils {
         if (startOffset < 0) {
             return false;
         }
-        if (nsin.length() < startOffset + SEDOL_LENGTH ) {
+        if (nsin.length() < startOffset + SEDOL_LENGTH) {
             return false;
         }
-        if (nsin.length() > SEDOL_LENGTH && !nsin.substring(0, startOffset).matches("^0*$")) {
-            return false;
+        if (nsin.length() > SEDOL_LENGTH) {
+            for (int i = 0; i < startOffset; i++) {
+                if (nsin.charAt(i) != '0') {
+                    return false;
+                }
+            }
         }
 
-        // SEDOL is alphanumeric but cannot contain vowels
-        if (nsin.substring(0, startOffset + SEDOL_LENGTH).matches(".*[AEIOU@*#].*")) {
-            return false;
-        }
         int checkDigitPosition = startOffset + SEDOL_LENGTH - 1;
-        String sedolPreCheckDigit = nsin.substring(startOffset, checkDigitPosition);
-        char checkDigit = calculateSedolCheckDigit(sedolPreCheckDigit);
-        return nsin.charAt(checkDigitPosition) == checkDigit;
+        for (int i = startOffset; i < checkDigitPosition; i++) {
+            // SEDOL is alphanumeric but cannot contain vowels
+            if (cannotAppearInSedol(nsin.charAt(i))) {
+                return false;
+            }
+        }
+        return nsin.charAt(checkDigitPosition) == sedolCheckDigit(nsin, startOffset, checkDigitPosition);
     }
 
     public static boolean isValidCusipNsin(String nsin) {
@@ -95,58 +152,88 @@ public class FinancialCodeUtils {
     }
 
     public static boolean isValidSuffixedCusipNsin(String nsin) {
-        if (nsin.length() < CUSIP_LENGTH) { return false; }
+        if (nsin.length() < CUSIP_LENGTH) {
+            return false;
+        }
         // CUSIPs can only contain digits in the first three positions
-        if (nsin.substring(0, 3).matches(".*[^0-9].*")) { return false; }
-        String cusipPreCheckDigit = nsin.substring(0, CUSIP_LENGTH - 1);
-        char checkDigit = calculateCusipCheckDigit(cusipPreCheckDigit);
-        return nsin.charAt(CUSIP_LENGTH - 1) == checkDigit;
+        for (int i = 0; i < 3; i++) {
+            if (nsin.charAt(i) < '0' || nsin.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return nsin.charAt(CUSIP_LENGTH - 1) == cusipCheckDigit(nsin, 0, CUSIP_LENGTH - 1);
     }
 
-    public static char calculateSedolCheckDigit(String sedol) {
-        final Iterator<Integer> reverseSedolWeightIterator = new LinkedList<>(SEDOL_WEIGHTS).descendingIterator();
-        reverseSedolWeightIterator.next();
-        return luhnsCheckDigit(sedol, false, false, reverseSedolWeightIterator, Collections.emptyList());
+    /**
+     * @return the SEDOL check digit for the six characters in [from, to), or 0 if any of them is not a digit or
+     * upper case letter
+     */
+    public static char sedolCheckDigit(CharSequence chars, int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            int value = value(chars.charAt(i));
+            if (value == NOT_A_CODE_CHARACTER) {
+                return 0;
+            }
+            sum += value * SEDOL_WEIGHTS[(i - from) % SEDOL_WEIGHTS.length];
+        }
+        return checkDigitFor(sum);
     }
 
-    private static List<Character> CUSIP_SPECIAL_CHARACTERS = Arrays.asList('*', '@', '#');
-
-    public static char calculateCusipCheckDigit(String cusip) {
-        return luhnsCheckDigit(cusip, false, true, new CyclicIterable<>(Arrays.asList(2, 1)).iterator(), CUSIP_SPECIAL_CHARACTERS);
+    /**
+     * @return the CUSIP check digit for the characters in [from, to), or 0 if any of them cannot appear in a CUSIP
+     */
+    public static char cusipCheckDigit(CharSequence chars, int from, int to) {
+        int sum = 0;
+        int doubled = 1;
+        for (int i = to - 1; i >= from; i--) {
+            int value = cusipValue(chars.charAt(i));
+            if (value == NOT_A_CODE_CHARACTER) {
+                return 0;
+            }
+            sum += CUSIP_CONTRIBUTIONS[doubled][value];
+            doubled ^= 1;
+        }
+        return checkDigitFor(sum);
     }
 
-    // Validates the check digit at the end of `isin`, which is assumed to be a valid 12-character ISIN
-    private static boolean isinHasValidCheckDigit(String isin) {
-        final char calculatedCheckDigit = calculateIsinCheckDigit(isin.substring(0, 11));
-        return isin.charAt(11) == calculatedCheckDigit;
+    /**
+     * @return the ISIN check digit for the characters in [from, to), or 0 if any of them is not a digit or upper case
+     * letter
+     */
+    public static char isinCheckDigit(CharSequence chars, int from, int to) {
+        int sum = 0;
+        int doubled = 1;
+        for (int i = to - 1; i >= from; i--) {
+            int value = value(chars.charAt(i));
+            if (value == NOT_A_CODE_CHARACTER) {
+                return 0;
+            }
+            sum += ISIN_CONTRIBUTIONS[doubled][value];
+            if (value < 10) {
+                doubled ^= 1;
+            }
+        }
+        return checkDigitFor(sum);
     }
 
-    // Generates  the check digit that should be appended to `isin`, which should be the first 11-characters of a valid ISIN
-    public static char calculateIsinCheckDigit(String isin) {
-        return luhnsCheckDigit(isin, true, true, new CyclicIterable<>(Arrays.asList(2, 1)).iterator(), Collections.emptyList());
+    private static int value(char c) {
+        return c < CHARACTER_VALUES.length ? CHARACTER_VALUES[c] : NOT_A_CODE_CHARACTER;
     }
 
-    private static char luhnsCheckDigit(String source, boolean splitStartingDigits, boolean splitWeightedDigits,
-                                        Iterator<Integer> weights, List<Character> specialCharacters) {
-        final List<Integer> convertedDigits = source.chars()
-                .map(character -> specialCharacters.contains((char) character)
-                        ? 36 + specialCharacters.indexOf((char) character)
-                        : Character.digit(character, 36))
-                .flatMap(splitStartingDigits ? FinancialCodeUtils::splitDigits : IntStream::of)
-                .collect(ArrayList::new, List::add, ArrayList::addAll);
+    private static int cusipValue(char c) {
+        return c < CUSIP_CHARACTER_VALUES.length ? CUSIP_CHARACTER_VALUES[c] : NOT_A_CODE_CHARACTER;
+    }
 
-        final int weightedDigitSum = IntStream.range(0, convertedDigits.size())
-                .map(reverseIndex -> convertedDigits.get(convertedDigits.size() - reverseIndex - 1) * weights.next())
-                .flatMap(splitWeightedDigits ? FinancialCodeUtils::splitDigits : IntStream::of)
-                .reduce(0, Integer::sum);
+    private static boolean cannotAppearInSedol(char c) {
+        return c == 'A' || c == 'E' || c == 'I' || c == 'O' || c == 'U' || CUSIP_SPECIAL_CHARACTERS.indexOf(c) >= 0;
+    }
 
-        int checkDigit = (10 - (weightedDigitSum % 10)) % 10;
-        return Character.forDigit(checkDigit, 10);
+    private static char checkDigitFor(int weightedDigitSum) {
+        return (char) ('0' + (10 - weightedDigitSum % 10) % 10);
     }
 
-    private static IntStream splitDigits(int num) {
-        return num >= 10
-                ? IntStream.of(num / 10, num % 10)
-                : IntStream.of(num);
+    private static int digitSum(int value) {
+        return value / 10 + value % 10;
     }
 }
@@ -17,6 +17,7 @@
 package com.scottlogic.datahelix.generator.core.walker.rowspec;
 
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
 import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
@@ -35,16 +36,19 @@ public class RandomRowSpecDecisionTreeWalker implements DecisionTreeWalker {
     private final RowSpecDataBagGenerator rowSpecDataBagGenerator;
     private PotentialRowSpecCount potentialRowSpecCount;
     private final JavaUtilRandomNumberGenerator random;
+    private final int maxCachedRowSpecs;
 
     @Inject
     public RandomRowSpecDecisionTreeWalker(RowSpecTreeSolver rowSpecTreeSolver,
                                            RowSpecDataBagGenerator rowSpecDataBagGenerator,
                                            PotentialRowSpecCount potentialRowSpecCount,
-                                           JavaUtilRandomNumberGenerator random) {
+                                           JavaUtilRandomNumberGenerator random,
+                                           @Named("config:internalRandomRowSpecStorage") int maxCachedRowSpecs) {
         this.rowSpecTreeSolver = rowSpecTreeSolver;
         this.rowSpecDataBagGenerator = rowSpecDataBagGenerator;
         this.potentialRowSpecCount = potentialRowSpecCount;
         this.random = random;
+        this.maxCachedRowSpecs = maxCachedRowSpecs;
     }
 
     @Override
@@ -53,14 +57,13 @@ public class RandomRowSpecDecisionTreeWalker implements DecisionTreeWalker {
             return generateWithoutRestarting(tree);
         }
         boolean useCache = potentialRowSpecCount.lessThanMax(tree);
-        Stream<RowSpec> rowSpecStream = useCache  ? getFromCachedRowSpecs(tree): getRowSpecAndRestart(tree);
-
-        return rowSpecStream.map(this::createDataBag);
+        return useCache ? getFromCachedRowSpecs(tree) : getRowSpecAndRestart(tree).map(this::createDataBag);
     }
 
-    private Stream<RowSpec> getFromCachedRowSpecs(DecisionTree tree) {
+    private Stream<DataBag> getFromCachedRowSpecs(DecisionTree tree) {
         List<RowSpec> rowSpecCache = rowSpecTreeSolver.createRowSpecs(tree).collect(Collectors.toList());
-        return Stream.generate(() -> getRandomRowSpec(rowSpecCache));
+        RowSpecDataBagCache dataBagCache = new RowSpecDataBagCache(rowSpecDataBagGenerator, maxCachedRowSpecs);
+        return Stream.generate(() -> dataBagCache.next(getRandomRowSpec(rowSpecCache)));
     }
 
     private Stream<DataBag> generateWithoutRestarting(DecisionTree tree) {
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.walker.rowspec;
+
+import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+import com.scottlogic.datahelix.generator.core.generation.databags.RowSpecDataBagGenerator;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the random data bags of recently used row specs open, so that a row spec chosen again only has to draw its
+ * next values rather than group its fields and build its value sources again.
+ *
+ * Row specs are matched by identity, and the least recently used one is dropped once more than the capacity are held.
+ */
+class RowSpecDataBagCache {
+    private final RowSpecDataBagGenerator rowSpecDataBagGenerator;
+    private final Map<RowSpec, Iterator<DataBag>> dataBags;
+
+    RowSpecDataBagCache(RowSpecDataBagGenerator rowSpecDataBagGenerator, int capacity) {
+        this.rowSpecDataBagGenerator = rowSpecDataBagGenerator;
+        this.dataBags = new LinkedHashMap<RowSpec, Iterator<DataBag>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RowSpec, Iterator<DataBag>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the next data bag for the row spec, starting its data bags again if they have run out
+     */
+    DataBag next(RowSpec rowSpec) {
+        Iterator<DataBag> iterator = dataBags.get(rowSpec);
+        if (iterator == null || !iterator.hasNext()) {
+            iterator = rowSpecDataBagGenerator.createDataBags(rowSpec).iterator();
+            dataBags.put(rowSpec, iterator);
+        }
+        return iterator.next();
+    }
+}
@@ -201,6 +201,14 @@ class FieldSpecTests {
         assertFalse(spec.canCombineWithWhitelistValue(BigDecimal.ONE));
     }
 
+    @Test
+    void whitelistPermitsNumericallyEqualValue() {
+        FieldSpec spec = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList(new BigDecimal("2"), new BigDecimal("3"))));
+
+        assertTrue(spec.canCombineWithWhitelistValue(new BigDecimal("2.00")));
+        assertFalse(spec.canCombineWithWhitelistValue(new BigDecimal("2.5")));
+    }
+
     @Test
     void permitsRejectsInvalidDateTime() {
         LinearRestrictions<OffsetDateTime> dateTime = LinearRestrictionsFactory.createDefaultDateTimeRestrictions();
@@ -32,6 +32,7 @@ import java.util.regex.Pattern;
 import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
 import static com.shazam.shazamcrest.MatcherAssert.assertThat;
 import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class InMapIndexRelationTest {
     private static InMapIndexRelation testInstance;
@@ -64,4 +65,12 @@ class InMapIndexRelationTest {
 
         assertThat(actual, sameBeanAs(expected));
     }
-}
\ No newline at end of file
+
+    @Test
+    void reduceToRelatedFieldSpec_whenCalledAgainWithEqualFieldSpec_reusesWhiteList() {
+        FieldSpec first = testInstance.createModifierFromOtherFieldSpec(FieldSpecFactory.fromType(FieldType.STRING));
+        FieldSpec second = testInstance.createModifierFromOtherFieldSpec(FieldSpecFactory.fromType(FieldType.STRING));
+
+        assertSame(first, second);
+    }
+}
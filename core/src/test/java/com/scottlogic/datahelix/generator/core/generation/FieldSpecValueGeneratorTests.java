@@ -24,6 +24,7 @@ import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
 import com.scottlogic.datahelix.generator.core.fieldspecs.WhitelistFieldSpec;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringBlacklistDecisions;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.Limit;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictionsFactory;
 import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
@@ -109,13 +110,14 @@ class FieldSpecValueGeneratorTests {
             fieldSpec = mock(FieldSpec.class);
 
             randomNumberGenerator = mock(JavaUtilRandomNumberGenerator.class);
-            when(fieldSpec.getFieldValueSource()).thenReturn(fieldValueSource);
+            when(fieldSpec.getFieldValueSource(any(StringBlacklistDecisions.class))).thenReturn(fieldValueSource);
             when(fieldValueSource.generateAllValues()).thenReturn(Stream.empty());
             when(fieldValueSource.generateRandomValues(randomNumberGenerator)).thenReturn(Stream.empty());
+            when(fieldValueSource.generateUniqueRandomValues(randomNumberGenerator)).thenReturn(Stream.empty());
         }
 
         @Test
-        void generateRandom_uniqueFieldSpec_returnsAllValues() {
+        void generateRandom_uniqueFieldSpec_returnsUniqueRandomValues() {
             FieldSpecValueGenerator fieldSpecFulfiller = new FieldSpecValueGenerator(
                 RANDOM,
                 randomNumberGenerator
@@ -123,7 +125,8 @@ class FieldSpecValueGeneratorTests {
 
             fieldSpecFulfiller.generate(new Field(null, StandardSpecificFieldType.STRING.toSpecificFieldType(), true, null, false, false, null), fieldSpec).collect(Collectors.toSet());
 
-            verify(fieldValueSource, times(1)).generateAllValues();
+            verify(fieldValueSource, times(1)).generateUniqueRandomValues(randomNumberGenerator);
+            verify(fieldValueSource, times(0)).generateAllValues();
             verify(fieldValueSource, times(0)).generateRandomValues(randomNumberGenerator);
         }
 
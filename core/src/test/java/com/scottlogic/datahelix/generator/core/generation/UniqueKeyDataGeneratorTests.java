@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+import com.scottlogic.datahelix.generator.core.profile.UniqueKey;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+class UniqueKeyDataGeneratorTests {
+    private final Field a = createField("a");
+    private final Field b = createField("b");
+    private final DataGenerator underlying = mock(DataGenerator.class);
+    private final DataGeneratorMonitor monitor = mock(DataGeneratorMonitor.class);
+
+    @Test
+    void generateData_withCompositeKey_dropsRowsRepeatingTheCombination() {
+        Profile profile = profileWithKeys(new UniqueKey(Arrays.asList(a, b)));
+        when(underlying.generateData(profile)).thenReturn(Stream.of(
+            row(1, "x"), row(1, "y"), row(1, "x"), row(2, "x"), row(2, "y"), row(2, "x")));
+
+        List<GeneratedObject> rows = generate(profile);
+
+        assertThat(rows.stream().map(r -> r.getValue(a) + "" + r.getValue(b)).collect(Collectors.toList()),
+            contains("1x", "1y", "2x", "2y"));
+    }
+
+    @Test
+    void generateData_withNumericKey_treatsEqualValuesAsDuplicates() {
+        Profile profile = profileWithKeys(new UniqueKey(Collections.singletonList(a)));
+        when(underlying.generateData(profile)).thenReturn(Stream.of(
+            row(new BigDecimal("1.0"), "x"), row(new BigDecimal("1"), "y"), row(null, "z"), row(null, "w")));
+
+        List<GeneratedObject> rows = generate(profile);
+
+        assertThat(rows.stream().map(r -> r.getValue(b)).collect(Collectors.toList()), contains("x", "z"));
+    }
+
+    @Test
+    void generateData_withTwoKeys_onlyRecordsRowsAcceptedByBoth() {
+        Profile profile = profileWithKeys(
+            new UniqueKey(Collections.singletonList(a)),
+            new UniqueKey(Collections.singletonList(b)));
+        when(underlying.generateData(profile)).thenReturn(Stream.of(
+            row(1, "x"), row(2, "x"), row(2, "y")));
+
+        List<GeneratedObject> rows = generate(profile);
+
+        // (2, x) is rejected by b, so 2 is still free for a
+        assertThat(rows.stream().map(r -> r.getValue(a) + "" + r.getValue(b)).collect(Collectors.toList()),
+            contains("1x", "2y"));
+    }
+
+    @Test
+    void generateData_withBloomFilterKey_emitsNoDuplicates() {
+        Profile profile = profileWithKeys(new UniqueKey(Collections.singletonList(a), 0.001, 1000L));
+        when(underlying.generateData(profile)).thenReturn(Stream.iterate(0, i -> i + 1).limit(2000).map(i -> row(i % 500, "x")));
+
+        List<GeneratedObject> rows = generate(profile);
+
+        assertThat(rows.stream().map(r -> r.getValue(a)).distinct().count(), equalTo((long) rows.size()));
+        assertThat(rows.size(), allOf(greaterThan(490), lessThanOrEqualTo(500)));
+    }
+
+    @Test
+    void generateData_whenKeysAreExhausted_failsRatherThanSpinning() {
+        Profile profile = profileWithKeys(new UniqueKey(Collections.singletonList(a)));
+        when(underlying.generateData(profile)).thenReturn(Stream.generate(() -> row(1, "x")));
+
+        Stream<GeneratedObject> rows = new UniqueKeyDataGenerator(underlying, monitor, 100, 1_000L)
+            .generateData(profile);
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> rows.forEach(row -> { }));
+        assertThat(exception.getMessage(), startsWith("Generated 1000 duplicate rows in a row"));
+    }
+
+    @Test
+    void generateData_withoutDuplicateLimit_keepsGoingPastLongRunsOfDuplicates() {
+        Profile profile = profileWithKeys(new UniqueKey(Collections.singletonList(a)));
+        when(underlying.generateData(profile)).thenReturn(Stream.concat(
+            Stream.generate(() -> row(1, "x")).limit(UniqueKeyDataGenerator.DEFAULT_MAX_CONSECUTIVE_DUPLICATES + 10),
+            Stream.of(row(2, "y"), row(3, "z"))));
+
+        List<GeneratedObject> rows = generate(profile);
+
+        assertThat(rows.stream().map(r -> r.getValue(a)).collect(Collectors.toList()), contains(1, 2, 3));
+    }
+
+    @Test
+    void generateData_reportsRejectionsAtEndOfGeneration() {
+        Profile profile = profileWithKeys(new UniqueKey(Collections.singletonList(a)));
+        when(underlying.generateData(profile)).thenReturn(Stream.of(row(1, "x"), row(1, "y"), row(2, "z"), row(3, "w")));
+
+        generate(profile);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Supplier<String>> summary = ArgumentCaptor.forClass((Class) Supplier.class);
+        verify(monitor).addLineToPrintAtEndOfGeneration(summary.capture());
+        assertThat(summary.getValue().get(), startsWith("Unique keys: 1 of 4 rows rejected as duplicates (25.00%)"));
+    }
+
+    @Test
+    void generateData_withoutUniqueKeys_returnsUnderlyingStream() {
+        Profile profile = profileWithKeys();
+        Stream<GeneratedObject> rows = Stream.of(row(1, "x"), row(1, "x"));
+        when(underlying.generateData(profile)).thenReturn(rows);
+
+        assertThat(new UniqueKeyDataGenerator(underlying, monitor, 100, null).generateData(profile), sameInstance(rows));
+        verifyZeroInteractions(monitor);
+    }
+
+    private List<GeneratedObject> generate(Profile profile) {
+        return new UniqueKeyDataGenerator(underlying, monitor, 100, null)
+            .generateData(profile)
+            .collect(Collectors.toList());
+    }
+
+    private Profile profileWithKeys(UniqueKey... keys) {
+        return new Profile(null, mock(Fields.class),
+            Collections.emptyList(), Collections.emptyList(), Arrays.asList(keys));
+    }
+
+    private GeneratedObject row(Object aValue, Object bValue) {
+        return new DataBagBuilder().set(a, aValue).set(b, bValue).build();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategyTester.bag;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CoveringArrayCombinationStrategyTests {
+    private final DataGeneratorMonitor monitor = mock(DataGeneratorMonitor.class);
+
+    @Test
+    void shouldCombineTwoSequencesExhaustively() {
+        CombinationStrategyTester tester = new CombinationStrategyTester(new CoveringArrayCombinationStrategy(2, monitor));
+        tester.given(
+            ()->Stream.of(bag("A"), bag("B")),
+            ()->Stream.of(bag("1"), bag("2"), bag("3")));
+
+        tester.expect(
+            Stream.of(
+                bag("A", "1"), bag("A", "2"), bag("A", "3"),
+                bag("B", "1"), bag("B", "2"), bag("B", "3")));
+    }
+
+    @Test
+    void shouldGiveEachValueOnceForSingleSequence() {
+        CombinationStrategyTester tester = new CombinationStrategyTester(new CoveringArrayCombinationStrategy(2, monitor));
+        tester.given(()->Stream.of(bag("A"), bag("B"), bag("C")));
+
+        tester.expect(Stream.of(bag("A"), bag("B"), bag("C")));
+    }
+
+    @Test
+    void shouldGiveNoResultsForAnEmptySequence() {
+        CombinationStrategyTester tester = new CombinationStrategyTester(new CoveringArrayCombinationStrategy(2, monitor));
+        tester.given(
+            ()->Stream.of(bag("A"), bag("B")),
+            Stream::empty);
+
+        tester.expectEmpty();
+    }
+
+    @Test
+    void pairwise_shouldCoverEveryPairWithFewerRowsThanExhaustive() {
+        List<Field> fields = fields(10);
+
+        List<DataBag> rows = new CoveringArrayCombinationStrategy(2, monitor)
+            .permute(sequences(fields, 3))
+            .collect(Collectors.toList());
+
+        assertThat(uncoveredTuples(rows, fields, 3, 2), empty());
+        assertThat(rows.size(), lessThanOrEqualTo(20));
+    }
+
+    @Test
+    void triplewise_shouldCoverEveryTriple() {
+        List<Field> fields = fields(6);
+
+        List<DataBag> rows = new CoveringArrayCombinationStrategy(3, monitor)
+            .permute(sequences(fields, 2))
+            .collect(Collectors.toList());
+
+        assertThat(uncoveredTuples(rows, fields, 2, 3), empty());
+        assertThat(rows.size(), lessThan(64));
+    }
+
+    @Test
+    void shouldReportSequencesCutShortByTheValueLimit() {
+        List<Field> fields = fields(2);
+
+        List<DataBag> rows = new CoveringArrayCombinationStrategy(2, monitor, 5, 1_000_000)
+            .permute(sequences(fields, 7))
+            .collect(Collectors.toList());
+
+        assertThat(rows.size(), equalTo(25));
+        assertThat(uncoveredTuples(rows, fields, 5, 2), empty());
+        verify(monitor).addLineToPrintAtEndOfGeneration(
+            "Only the first 5 values of 2 of the 2 independent groups of fields were combined pairwise.");
+    }
+
+    @Test
+    void shouldCombineFewerValuesWhenTheirTuplesWouldNotFitInMemory() {
+        List<Field> fields = fields(2);
+
+        // one combination of the two sequences, leaving room for the bits of 24 tuples
+        List<DataBag> rows = new CoveringArrayCombinationStrategy(2, monitor, 10, 96 + 3)
+            .permute(sequences(fields, 10))
+            .collect(Collectors.toList());
+
+        assertThat(rows.size(), equalTo(16));
+        assertThat(uncoveredTuples(rows, fields, 4, 2), empty());
+        verify(monitor).addLineToPrintAtEndOfGeneration(
+            "Only the first 4 values of 2 of the 2 independent groups of fields were combined pairwise.");
+    }
+
+    @Test
+    void shouldNotReportAnythingWhenNoSequenceIsCutShort() {
+        new CoveringArrayCombinationStrategy(2, monitor, 3, 1_000_000)
+            .permute(sequences(fields(3), 3))
+            .forEach(row -> {});
+
+        verify(monitor, never()).addLineToPrintAtEndOfGeneration(anyString());
+    }
+
+    @Test
+    void shouldFailWhenTheCombinationsOfSequencesAloneWouldNotFitInMemory() {
+        Stream<DataBag> rows = new CoveringArrayCombinationStrategy(2, monitor, 10, 96 * 3 - 1)
+            .permute(sequences(fields(3), 2));
+
+        assertThrows(ValidationException.class, () -> rows.forEach(row -> {}));
+    }
+
+    private static List<Field> fields(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> createField("field" + i))
+            .collect(Collectors.toList());
+    }
+
+    private static Stream<Supplier<Stream<DataBag>>> sequences(List<Field> fields, int values) {
+        return fields.stream().map(field -> () -> IntStream.range(0, values)
+            .mapToObj(value -> new DataBagBuilder().set(field, value).build()));
+    }
+
+    // every combination of `strength` fields and their values that no row contains, as "field=value" strings
+    private static List<String> uncoveredTuples(List<DataBag> rows, List<Field> fields, int values, int strength) {
+        List<String> uncovered = new ArrayList<>();
+        addUncoveredTuples(rows, fields, values, strength, 0, new ArrayList<>(), new ArrayList<>(), uncovered);
+        return uncovered;
+    }
+
+    private static void addUncoveredTuples(List<DataBag> rows, List<Field> fields, int values, int strength,
+                                           int firstField, List<Field> chosenFields, List<Integer> chosenValues,
+                                           List<String> uncovered) {
+        if (chosenFields.size() == strength) {
+            boolean covered = rows.stream().anyMatch(row -> IntStream.range(0, strength)
+                .allMatch(i -> chosenValues.get(i).equals(row.getValue(chosenFields.get(i)))));
+            if (!covered) {
+                uncovered.add(IntStream.range(0, strength)
+                    .mapToObj(i -> chosenFields.get(i).getName() + "=" + chosenValues.get(i))
+                    .collect(Collectors.joining(",")));
+            }
+            return;
+        }
+
+        for (int field = firstField; field < fields.size(); field++) {
+            for (int value = 0; value < values; value++) {
+                chosenFields.add(fields.get(field));
+                chosenValues.add(value);
+                addUncoveredTuples(rows, fields, values, strength, field + 1, chosenFields, chosenValues, uncovered);
+                chosenFields.remove(chosenFields.size() - 1);
+                chosenValues.remove(chosenValues.size() - 1);
+            }
+        }
+    }
+}
@@ -16,12 +16,25 @@
 
 package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
 
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
 import static com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategyTester.bag;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 
 class ExhaustiveCombinationStrategyTests {
     private CombinationStrategyTester tester;
@@ -91,4 +104,119 @@ class ExhaustiveCombinationStrategyTests {
 
         tester.expectEmpty();
     }
+
+    @Test
+    void shouldGenerateEachLaterSequenceOnce() {
+        AtomicInteger secondGenerated = new AtomicInteger();
+        AtomicInteger thirdGenerated = new AtomicInteger();
+
+        long combinations = new ExhaustiveCombinationStrategy().permute(Stream.of(
+            ()->Stream.of(bag("A"), bag("B"), bag("C")),
+            counting(secondGenerated, ()->Stream.of(bag("1"), bag("2"), bag("3"))),
+            counting(thirdGenerated, ()->Stream.of(bag("X"), bag("Y")))))
+            .count();
+
+        assertThat(combinations, equalTo(18L));
+        assertThat(secondGenerated.get(), equalTo(1));
+        assertThat(thirdGenerated.get(), equalTo(1));
+    }
+
+    @Test
+    void shouldReplaySequencesBeyondTheMemoryBudgetFromTemporaryFiles() {
+        AtomicInteger generated = new AtomicInteger();
+        tester = new CombinationStrategyTester(new ExhaustiveCombinationStrategy(2));
+        tester.given(
+            ()->Stream.of(bag("A"), bag("B"), bag("C")),
+            counting(generated, ()->Stream.of(bag("1"), bag("2"), bag("3"), bag("4"))));
+
+        tester.expect(
+            Stream.of(
+                bag("A", "1"), bag("A", "2"), bag("A", "3"), bag("A", "4"),
+                bag("B", "1"), bag("B", "2"), bag("B", "3"), bag("B", "4"),
+                bag("C", "1"), bag("C", "2"), bag("C", "3"), bag("C", "4")));
+        assertThat(generated.get(), equalTo(1));
+    }
+
+    @Test
+    void shouldRegenerateSequencesWithValuesThatCannotBeWritten() {
+        AtomicInteger generated = new AtomicInteger();
+        DataBag unwritable = new DataBagBuilder().set(createField("1"), new Object()).build();
+
+        long combinations = new ExhaustiveCombinationStrategy(0).permute(Stream.of(
+            ()->Stream.of(bag("A"), bag("B"), bag("C")),
+            counting(generated, ()->Stream.of(unwritable))))
+            .count();
+
+        assertThat(combinations, equalTo(3L));
+        assertThat(generated.get(), equalTo(3));
+    }
+
+    @Test
+    void shouldShareTheMemoryBudgetBetweenPermutationsUntilTheyAreRead() {
+        ExhaustiveCombinationStrategy strategy = new ExhaustiveCombinationStrategy(10);
+        Stream<DataBag> first = strategy.permute(Stream.of(
+            ()->Stream.of(bag("A"), bag("B")),
+            ()->Stream.of(bag("1"), bag("2"), bag("3"))));
+        Stream<DataBag> second = strategy.permute(Stream.of(
+            ()->Stream.of(bag("C")),
+            ()->Stream.of(bag("4"), bag("5"))));
+
+        Iterator<DataBag> firstCombinations = first.iterator();
+        for (int i = 0; i < 4; i++) {
+            firstCombinations.next();
+        }
+        assertThat(strategy.getRemainingBudget(), equalTo(7L));
+
+        assertThat(second.count(), equalTo(2L));
+        assertThat(strategy.getRemainingBudget(), equalTo(7L));
+
+        first.close();
+        assertThat(strategy.getRemainingBudget(), equalTo(10L));
+    }
+
+    @Test
+    void shouldDeleteTemporaryFilesOnceTheCombinationsAreRead() {
+        Set<String> existingFiles = spillFiles();
+        ExhaustiveCombinationStrategy strategy = new ExhaustiveCombinationStrategy(0);
+
+        Iterator<DataBag> combinations = strategy.permute(Stream.of(
+            ()->Stream.of(bag("A"), bag("B")),
+            ()->Stream.of(bag("1"), bag("2"), bag("3"))))
+            .iterator();
+        combinations.next();
+        combinations.next();
+        combinations.next();
+        combinations.next();
+        assertThat(spillFiles(), hasSize(existingFiles.size() + 1));
+
+        combinations.forEachRemaining(bag -> { });
+        assertThat(spillFiles(), equalTo(existingFiles));
+    }
+
+    @Test
+    void shouldDeleteTemporaryFilesWhenTheCombinationsAreClosed() {
+        Set<String> existingFiles = spillFiles();
+        ExhaustiveCombinationStrategy strategy = new ExhaustiveCombinationStrategy(0);
+
+        Stream<DataBag> combinations = strategy.permute(Stream.of(
+            ()->Stream.of(bag("A"), bag("B")),
+            ()->Stream.of(bag("1"), bag("2"), bag("3"))));
+        combinations.limit(4).forEach(bag -> { });
+        combinations.close();
+
+        assertThat(spillFiles(), equalTo(existingFiles));
+    }
+
+    private static Set<String> spillFiles() {
+        String[] files = new File(System.getProperty("java.io.tmpdir"))
+            .list((directory, name) -> name.startsWith("datahelix-combinations-"));
+        return new HashSet<>(Arrays.asList(files));
+    }
+
+    private static Supplier<Stream<DataBag>> counting(AtomicInteger counter, Supplier<Stream<DataBag>> sequence) {
+        return () -> {
+            counter.incrementAndGet();
+            return sequence.get();
+        };
+    }
 }
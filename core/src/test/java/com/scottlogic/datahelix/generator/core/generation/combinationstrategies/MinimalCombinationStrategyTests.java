@@ -16,6 +16,10 @@
 
 package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
 
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.StandardSpecificFieldType;
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -72,4 +76,17 @@ class MinimalCombinationStrategyTests {
 
         tester.expectEmpty();
     }
+
+    @Test
+    void shouldStopWhenASequenceWithAUniqueFieldRunsOut() {
+        Field unique = new Field("U", StandardSpecificFieldType.STRING.toSpecificFieldType(), true, null, false, false, null);
+        DataBag first = new DataBagBuilder().set(unique, "first").build();
+        DataBag second = new DataBagBuilder().set(unique, "second").build();
+        tester.given(
+            Stream.of(first, second),
+            Stream.of(bag("1"), bag("2"), bag("3")));
+
+        tester.expect(
+            Stream.of(DataBag.merge(first, bag("1")), DataBag.merge(second, bag("2"))));
+    }
 }
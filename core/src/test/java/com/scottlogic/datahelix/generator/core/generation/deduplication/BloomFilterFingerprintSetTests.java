@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.deduplication;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class BloomFilterFingerprintSetTests {
+    @Test
+    void contains_afterAdding_neverGivesFalseNegatives() {
+        BloomFilterFingerprintSet set = new BloomFilterFingerprintSet(10_000, 0.01);
+        long[] added = new SplittableRandom(0).longs(10_000).toArray();
+
+        for (long fingerprint : added) {
+            set.add(fingerprint);
+        }
+
+        for (long fingerprint : added) {
+            assertThat(set.contains(fingerprint), is(true));
+        }
+    }
+
+    @Test
+    void contains_atExpectedCapacity_keepsCloseToConfiguredFalsePositiveRate() {
+        BloomFilterFingerprintSet set = new BloomFilterFingerprintSet(10_000, 0.01);
+        SplittableRandom random = new SplittableRandom(1);
+        random.longs(10_000).forEach(set::add);
+
+        long falsePositives = random.longs(100_000).filter(set::contains).count();
+
+        assertThat(falsePositives, lessThan(2_000L));
+    }
+
+    @Test
+    void constructor_sizesFromExpectedRowsAndRate() {
+        BloomFilterFingerprintSet set = new BloomFilterFingerprintSet(1_000_000, 0.01);
+
+        // about 9.6 bits and 7 hashes per row, rather than a long per row for the exact set
+        assertThat(set.memoryUsedInBytes(), allOf(greaterThan(1_150_000L), lessThan(1_250_000L)));
+        assertThat(set.getNumberOfHashes(), equalTo(7));
+    }
+
+    @Test
+    void constructor_withRateOutOfRange_throws() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilterFingerprintSet(100, 1.0));
+    }
+}
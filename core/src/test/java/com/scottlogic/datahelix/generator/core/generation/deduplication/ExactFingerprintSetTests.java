@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.deduplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ExactFingerprintSetTests {
+    @Test
+    void contains_afterAddingManyFingerprints_findsEachAndNoOthers() {
+        ExactFingerprintSet set = new ExactFingerprintSet();
+        SplittableRandom random = new SplittableRandom(0);
+        long[] added = random.longs(100_000).toArray();
+
+        for (long fingerprint : added) {
+            set.add(fingerprint);
+        }
+
+        for (long fingerprint : added) {
+            assertThat(set.contains(fingerprint), is(true));
+        }
+        assertThat(set.size(), equalTo(100_000L));
+        assertThat(random.longs(1000).anyMatch(set::contains), is(false));
+    }
+
+    @Test
+    void add_repeatedFingerprint_isOnlyCountedOnce() {
+        ExactFingerprintSet set = new ExactFingerprintSet();
+
+        set.add(42);
+        set.add(42);
+        set.add(0);
+        set.add(0);
+
+        assertThat(set.size(), equalTo(2L));
+        assertThat(set.contains(0), is(true));
+    }
+
+    @Test
+    void memoryUsedInBytes_growsWithContent() {
+        ExactFingerprintSet set = new ExactFingerprintSet();
+        long initial = set.memoryUsedInBytes();
+
+        for (long i = 1; i <= 10_000; i++) {
+            set.add(i * 0x9E3779B97F4A7C15L);
+        }
+
+        assertThat(set.memoryUsedInBytes(), greaterThan(initial));
+        assertThat(set.memoryUsedInBytes(), lessThanOrEqualTo(10_000L * 4 * Long.BYTES));
+    }
+}
@@ -174,6 +174,78 @@ class RealNumberFieldValueSourceTests {
         expectCorrectRandomValues();
     }
 
+    @Test
+    void whenBlacklistContainsRunsOfValues() {
+        givenLowerBound(1, true);
+        givenUpperBound(10, true);
+        givenScale(0);
+
+        givenBlacklist(1, 2, 3, 6, 7, "7.0", 10, 12);
+
+        expectAllValues(4, 5, 8, 9);
+    }
+
+    @Test
+    void shouldGenerateEveryPermittedValueRandomly_whenBlacklistExcludesMostOfRange() {
+        givenLowerBound(1, true);
+        givenUpperBound(10, true);
+        givenScale(0);
+
+        givenBlacklist(2, 3, 4, 7, 9, 10);
+
+        Stream<Object> values = getObjectUnderTest().generateRandomValues(new JavaUtilRandomNumberGenerator(0));
+        Set<BigDecimal> generated = values
+            .limit(1000)
+            .map(value -> ((BigDecimal) value).stripTrailingZeros())
+            .collect(Collectors.toSet());
+
+        Assert.assertThat(generated, containsInAnyOrder(
+            BigDecimal.valueOf(1), BigDecimal.valueOf(5), BigDecimal.valueOf(6), BigDecimal.valueOf(8)));
+    }
+
+    @Test
+    void shouldGenerateNoRandomValues_whenBlacklistContainsAllValuesInRange() {
+        givenLowerBound(3, true);
+        givenUpperBound(5, true);
+        givenScale(0);
+
+        givenBlacklist(3, 4, 5);
+
+        Assert.assertThat(getObjectUnderTest().generateRandomValues(new JavaUtilRandomNumberGenerator(0)).count(), equalTo(0L));
+    }
+
+    @Test
+    void shouldGenerateEveryPermittedValueOnceInRandomOrder_whenUnique() {
+        givenLowerBound(0, true);
+        givenUpperBound(1000, false);
+        givenScale(0);
+
+        givenBlacklist(10, 11, 12, 500);
+
+        List<BigDecimal> generated = ((Stream<Object>) getObjectUnderTest().generateUniqueRandomValues(new JavaUtilRandomNumberGenerator(0)))
+            .map(value -> (BigDecimal) value)
+            .collect(Collectors.toList());
+        List<BigDecimal> sorted = generated.stream().sorted().collect(Collectors.toList());
+
+        Assert.assertThat(generated.size(), equalTo(996));
+        Assert.assertThat(new HashSet<>(generated).size(), equalTo(996));
+        Assert.assertThat(sorted.get(0), comparesEqualTo(BigDecimal.ZERO));
+        Assert.assertThat(sorted.get(995), comparesEqualTo(BigDecimal.valueOf(999)));
+        Assert.assertThat(generated, not(contains(sorted.toArray())));
+        Assert.assertThat(generated, not(hasItem(comparesEqualTo(BigDecimal.valueOf(500)))));
+    }
+
+    @Test
+    void shouldGenerateNoUniqueValues_whenBlacklistContainsAllValuesInRange() {
+        givenLowerBound(3, true);
+        givenUpperBound(5, true);
+        givenScale(0);
+
+        givenBlacklist(3, 4, 5);
+
+        Assert.assertThat(getObjectUnderTest().generateUniqueRandomValues(new JavaUtilRandomNumberGenerator(0)).count(), equalTo(0L));
+    }
+
     @Test
     public void shouldBeEqualWhenAllPropertiesMatch(){
         LinearFieldValueSource<BigDecimal> a = new LinearFieldValueSource<>(
@@ -17,11 +17,13 @@
 package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.datetime;
 
 import com.scottlogic.datahelix.generator.common.TestRandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.profile.DateTimeGranularity;
 import com.scottlogic.datahelix.generator.common.util.Defaults;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.LinearFieldValueSource;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.Limit;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictionsFactory;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
@@ -31,6 +33,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.scottlogic.datahelix.generator.common.util.Defaults.ISO_MIN_DATE;
 import static com.scottlogic.datahelix.generator.core.utils.GeneratorDefaults.DATETIME_MAX_LIMIT;
@@ -314,6 +317,28 @@ public class DateTimeFieldValueSourceTests {
         Assert.assertThat(iterator.hasNext(), is(false));
     }
 
+    @Test
+    public void generateUniqueRandomValues_withWorkingDayGranularityAndWeekendBlacklisted_emitsEveryWorkingDayNotBlacklisted() {
+        LinearRestrictions<OffsetDateTime> restrictions = LinearRestrictionsFactory.createDateTimeRestrictions(
+            getTimeLimit("2018-01-08"),
+            getTimeLimit("2018-01-19"),
+            DateTimeGranularity.create("working days"));
+        blackList.add(getTimeLimit("2018-01-10").getValue());
+        blackList.add(getTimeLimit("2018-01-13").getValue());
+        fieldSource = new LinearFieldValueSource<>(restrictions, blackList);
+
+        Set<OffsetDateTime> values = fieldSource.generateUniqueRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .collect(Collectors.toSet());
+
+        Set<OffsetDateTime> expectedValues = new HashSet<>();
+        for (String date : Arrays.asList(
+            "2018-01-08", "2018-01-09", "2018-01-11", "2018-01-12",
+            "2018-01-15", "2018-01-16", "2018-01-17", "2018-01-18", "2018-01-19")) {
+            expectedValues.add(getTimeLimit(date).getValue());
+        }
+        Assert.assertThat(values, equalTo(expectedValues));
+    }
+
     private LinearRestrictions<OffsetDateTime> restrictions(String min, String max){
         return LinearRestrictionsFactory.createDateTimeRestrictions(
             min == null ? null : getTimeLimit(min),
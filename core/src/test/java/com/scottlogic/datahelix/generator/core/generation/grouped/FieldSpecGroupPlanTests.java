@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.grouped;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecGroup;
+import com.scottlogic.datahelix.generator.core.fieldspecs.relations.EqualToRelation;
+import com.scottlogic.datahelix.generator.core.fieldspecs.relations.FieldSpecRelation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class FieldSpecGroupPlanTests {
+    private final Field a = createField("a");
+    private final Field b = createField("b");
+    private final Field c = createField("c");
+
+    @Test
+    void compile_withChainOfRelations_generatesMostRelatedFieldFirst() {
+        FieldSpecGroupPlan plan = FieldSpecGroupPlan.compile(group(
+            new EqualToRelation(a, b),
+            new EqualToRelation(c, b)));
+
+        assertThat(plan.size(), equalTo(3));
+        assertThat(plan.field(0), equalTo(b));
+        assertThat(plan.relationsFromStep(0).length, equalTo(2));
+        assertThat(plan.relationsFromStep(1).length, equalTo(0));
+        assertThat(plan.relationsFromStep(2).length, equalTo(0));
+    }
+
+    @Test
+    void compile_orientsEachRelationFromItsFirstGeneratedField() {
+        FieldSpecGroupPlan plan = FieldSpecGroupPlan.compile(group(
+            new EqualToRelation(a, b),
+            new EqualToRelation(c, b)));
+
+        for (int i = 0; i < plan.relationsFromStep(0).length; i++) {
+            FieldSpecRelation from = plan.relationsFromStep(0)[i];
+            FieldSpecRelation to = plan.relationsToLaterSteps(0)[i];
+            Field later = plan.field(plan.laterSteps(0)[i]);
+
+            assertThat(from.main(), equalTo(b));
+            assertThat(from.other(), equalTo(later));
+            assertThat(to.main(), equalTo(later));
+            assertThat(to.other(), equalTo(b));
+        }
+        assertThat(
+            Arrays.asList(plan.field(plan.laterSteps(0)[0]), plan.field(plan.laterSteps(0)[1])),
+            containsInAnyOrder(a, c));
+    }
+
+    @Test
+    void initialSpecs_returnsACopyForEachExecution() {
+        FieldSpecGroupPlan plan = FieldSpecGroupPlan.compile(group(new EqualToRelation(a, b)));
+
+        FieldSpec[] specs = plan.initialSpecs();
+        specs[0] = null;
+
+        assertThat(plan.initialSpecs()[0], notNullValue());
+    }
+
+    private FieldSpecGroup group(FieldSpecRelation... relations) {
+        Map<Field, FieldSpec> specs = new HashMap<>();
+        specs.put(a, FieldSpecFactory.fromType(a.getType()));
+        specs.put(b, FieldSpecFactory.fromType(b.getType()));
+        specs.put(c, FieldSpecFactory.fromType(c.getType()));
+        return new FieldSpecGroup(specs, Arrays.asList(relations));
+    }
+}
@@ -16,19 +16,27 @@
 package com.scottlogic.datahelix.generator.core.generation.grouped;
 
 import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecGroup;
+import com.scottlogic.datahelix.generator.core.fieldspecs.relations.EqualToRelation;
 import com.scottlogic.datahelix.generator.core.generation.FieldSpecValueGenerator;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -62,4 +70,49 @@ class FieldSpecGroupValueGeneratorTest {
         assertEquals(Collections.singleton(new DataBag(dataBag)), stream.collect(Collectors.toSet()));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void generate_withChainOfEqualToRelations_givesEveryFieldTheSameValue() {
+        Field first = createField("first");
+        Field second = createField("second");
+        Field third = createField("third");
+        Map<Field, FieldSpec> specMap = new HashMap<>();
+        specMap.put(first, FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList("a", "b", "c"))).withNotNull());
+        specMap.put(second, FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList("b", "c", "d"))).withNotNull());
+        specMap.put(third, FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList("c", "b", "e"))).withNotNull());
+        FieldSpecGroup group = new FieldSpecGroup(
+            specMap,
+            Arrays.asList(new EqualToRelation(first, second), new EqualToRelation(third, second)));
+
+        FieldSpecGroupValueGenerator generator = new FieldSpecGroupValueGenerator(
+            new FieldSpecValueGenerator(DataGenerationType.FULL_SEQUENTIAL, new JavaUtilRandomNumberGenerator()),
+            CombinationStrategyType.EXHAUSTIVE);
+
+        Set<String> rows = generator.generate(group)
+            .map(bag -> bag.getValue(first) + "," + bag.getValue(second) + "," + bag.getValue(third))
+            .collect(Collectors.toSet());
+
+        assertEquals(new HashSet<>(Arrays.asList("b,b,b", "c,c,c")), rows);
+    }
+
+    @Test
+    public void generate_randomlyWithExhaustiveStrategy_givesSuccessiveRowsNewFirstValues() {
+        Field first = createField("first");
+        Field second = createField("second");
+        Map<Field, FieldSpec> specMap = new HashMap<>();
+        specMap.put(first, FieldSpecFactory.fromList(DistributedList.uniform(
+            IntStream.range(0, 1000).mapToObj(Integer::toString).collect(Collectors.toList()))).withNotNull());
+        specMap.put(second, FieldSpecFactory.fromType(second.getType()).withNotNull());
+        FieldSpecGroup group = new FieldSpecGroup(specMap, Collections.singletonList(new EqualToRelation(first, second)));
+
+        FieldSpecGroupValueGenerator generator = new FieldSpecGroupValueGenerator(
+            new FieldSpecValueGenerator(DataGenerationType.RANDOM, new JavaUtilRandomNumberGenerator(0)),
+            CombinationStrategyType.EXHAUSTIVE);
+
+        Set<Object> firstValues = generator.generate(group)
+            .limit(10)
+            .map(bag -> bag.getValue(first))
+            .collect(Collectors.toSet());
+
+        assertTrue(firstValues.size() > 1);
+    }
+}
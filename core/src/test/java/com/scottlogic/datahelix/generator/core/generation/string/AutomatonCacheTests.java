@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class AutomatonCacheTests {
+    private final AutomatonCache.Key a = AutomatonCache.Key.forRegex("[a-c]{2}", true);
+    private final AutomatonCache.Key b = AutomatonCache.Key.forRegex("[b-d]{2}", true);
+    private final AutomatonCache.Key c = AutomatonCache.Key.forRegex("b.", true);
+
+    @Test
+    void computeIfAbsent_forSameKey_buildsOnceAndCountsHits() {
+        AutomatonCache cache = new AutomatonCache(AutomatonCache.DEFAULT_MAXIMUM_WEIGHT);
+        AtomicInteger builds = new AtomicInteger();
+
+        Automaton first = cache.computeIfAbsent(a, () -> build("[a-c]{2}", builds));
+        Automaton second = cache.computeIfAbsent(a, () -> build("[a-c]{2}", builds));
+
+        assertThat(second, sameInstance(first));
+        assertThat(builds.get(), equalTo(1));
+        assertThat(cache.getStatistics().getHits(), equalTo(1L));
+        assertThat(cache.getStatistics().getMisses(), equalTo(1L));
+    }
+
+    @Test
+    void intersectionOf_isIndependentOfOrderAndNesting() {
+        assertThat(AutomatonCache.Key.intersectionOf(a, b), equalTo(AutomatonCache.Key.intersectionOf(b, a)));
+        assertThat(
+            AutomatonCache.Key.intersectionOf(AutomatonCache.Key.intersectionOf(a, b), c),
+            equalTo(AutomatonCache.Key.intersectionOf(a, AutomatonCache.Key.intersectionOf(c, b))));
+        assertThat(AutomatonCache.Key.intersectionOf(a, a), equalTo(a));
+    }
+
+    @Test
+    void keys_distinguishMatchingContainingAndComplement() {
+        AutomatonCache.Key containing = AutomatonCache.Key.forRegex("[a-c]{2}", false);
+
+        assertThat(containing, not(equalTo(a)));
+        assertThat(AutomatonCache.Key.complementOf(a), not(equalTo(a)));
+        assertThat(AutomatonCache.Key.complementOf(a), equalTo(AutomatonCache.Key.complementOf(a)));
+    }
+
+    @Test
+    void computeIfAbsent_overMaximumWeight_evictsLeastRecentlyUsed() {
+        Automaton sample = Automaton.makeString("abc");
+        long weight = sample.getNumberOfStates() + sample.getNumberOfTransitions();
+        AutomatonCache cache = new AutomatonCache(weight * 2);
+        AtomicInteger builds = new AtomicInteger();
+
+        cache.computeIfAbsent(a, () -> makeString("abc", builds));
+        cache.computeIfAbsent(b, () -> makeString("abd", builds));
+        cache.computeIfAbsent(a, () -> makeString("abc", builds));
+        cache.computeIfAbsent(c, () -> makeString("abe", builds));
+
+        assertThat(cache.getStatistics().getEvictions(), equalTo(1L));
+        assertThat(cache.getStatistics().getWeight(), lessThanOrEqualTo(weight * 2));
+
+        cache.computeIfAbsent(a, () -> makeString("abc", builds));
+        assertThat(builds.get(), equalTo(3));
+        cache.computeIfAbsent(b, () -> makeString("abd", builds));
+        assertThat(builds.get(), equalTo(4));
+    }
+
+    @Test
+    void computeIfAbsent_whenUsedConcurrently_returnsOneSharedInstancePerKey() throws Exception {
+        AutomatonCache cache = new AutomatonCache(AutomatonCache.DEFAULT_MAXIMUM_WEIGHT);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Automaton>> results = IntStream.range(0, 64)
+                .mapToObj(i -> executor.submit(() -> {
+                    start.await();
+                    return cache.computeIfAbsent(
+                        AutomatonCache.Key.forRegex("[a-z]{1,3}" + (i % 4), true),
+                        () -> AutomatonUtils.createAutomaton("[a-z]{1,3}" + (i % 4), true));
+                }))
+                .collect(Collectors.toList());
+            start.countDown();
+
+            for (int i = 4; i < results.size(); i++) {
+                assertThat(results.get(i).get(), sameInstance(results.get(i % 4).get()));
+            }
+            assertThat(cache.getStatistics().getSize(), equalTo(4));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Automaton build(String regex, AtomicInteger builds) {
+        builds.incrementAndGet();
+        return AutomatonUtils.createAutomaton(regex, true);
+    }
+
+    private static Automaton makeString(String string, AtomicInteger builds) {
+        builds.incrementAndGet();
+        return Automaton.makeString(string);
+    }
+}
@@ -39,7 +39,7 @@ public class CusipStringGeneratorTests {
 
         for (int ii = 0; ii < NumberOfTests; ++ii) {
             final String nextCusip = allCusips.next();
-            final char checkDigit = FinancialCodeUtils.calculateCusipCheckDigit(nextCusip.substring(0, 8));
+            final char checkDigit = FinancialCodeUtils.cusipCheckDigit(nextCusip, 0, 8);
             assertThat(nextCusip.charAt(8), equalTo(checkDigit));
         }
     }
@@ -54,7 +54,7 @@ public class CusipStringGeneratorTests {
 
         for (int ii = 0; ii < NumberOfTests; ++ii) {
             final String nextCusip = allCusips.next();
-            final char checkDigit = FinancialCodeUtils.calculateCusipCheckDigit(nextCusip.substring(0, 8));
+            final char checkDigit = FinancialCodeUtils.cusipCheckDigit(nextCusip, 0, 8);
             assertThat(nextCusip.charAt(8), equalTo(checkDigit));
         }
     }
@@ -42,7 +42,7 @@ public class IsinStringGeneratorTests {
 
         for (int ii = 0; ii < NumberOfTests; ++ii) {
             final String nextIsin = allIsins.next();
-            final char checkDigit = FinancialCodeUtils.calculateIsinCheckDigit(nextIsin.substring(0, 11));
+            final char checkDigit = FinancialCodeUtils.isinCheckDigit(nextIsin, 0, 11);
             assertThat(nextIsin.charAt(11), equalTo(checkDigit));
         }
     }
@@ -57,7 +57,7 @@ public class IsinStringGeneratorTests {
 
         for (int ii = 0; ii < NumberOfTests; ++ii) {
             final String nextIsin = allIsins.next();
-            final char checkDigit = FinancialCodeUtils.calculateIsinCheckDigit(nextIsin.substring(0, 11));
+            final char checkDigit = FinancialCodeUtils.isinCheckDigit(nextIsin, 0, 11);
             assertThat(nextIsin.charAt(11), equalTo(checkDigit));
         }
     }
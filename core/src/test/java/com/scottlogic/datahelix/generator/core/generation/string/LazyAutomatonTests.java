@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyAutomatonTests {
+    private static final String REGEX = "(a|b)*a(a|b){3}";
+
+    @Test
+    void run_withNondeterministicAutomaton_acceptsTheSameStringsAsTheRegex() {
+        LazyAutomaton automaton = new LazyAutomaton(nondeterministic(REGEX));
+
+        assertAcceptsTheSameStringsAs(automaton, REGEX);
+    }
+
+    @Test
+    void run_withSmallCache_emptiesTheCacheAndStillAcceptsTheSameStrings() {
+        LazyAutomaton automaton = new LazyAutomaton(nondeterministic(REGEX), 4);
+
+        assertAcceptsTheSameStringsAs(automaton, REGEX);
+        assertThat(automaton.getNumberOfCachedStates(), lessThanOrEqualTo(4));
+        assertThat(automaton.getNumberOfFlushes(), greaterThan(0L));
+    }
+
+    @Test
+    void run_withSeveralAutomata_acceptsStringsAcceptedByAll() {
+        LazyAutomaton automaton = new LazyAutomaton(Arrays.asList(
+            AutomatonUtils.createNondeterministicAutomaton("[ab]*a", true),
+            AutomatonUtils.createAutomaton("b.*", true)));
+
+        assertTrue(automaton.run("bba"));
+        assertFalse(automaton.run("aba"));
+        assertFalse(automaton.run("bbb"));
+    }
+
+    @Test
+    void run_onlyBuildsStatesNextToThoseVisited() {
+        LazyAutomaton automaton = new LazyAutomaton(nondeterministic("(a|b)*a(a|b){20}"));
+
+        automaton.run("ab");
+
+        // the states visited, each built along with the states its transitions lead to
+        assertThat(automaton.getNumberOfCachedStates(), lessThanOrEqualTo(5));
+    }
+
+    @Test
+    void explore_withSmallAutomaton_isCompleteAndFindsShortestString() {
+        LazyAutomaton automaton = new LazyAutomaton(nondeterministic("(ab|c)(de|f)+"));
+
+        LazyAutomaton.Exploration exploration = automaton.explore(100);
+
+        assertTrue(exploration.isComplete());
+        assertFalse(exploration.isEmpty());
+        assertThat(exploration.getShortestAcceptedLength(), equalTo(2));
+    }
+
+    @Test
+    void explore_withLargeAutomaton_stopsAtTheLimit() {
+        LazyAutomaton automaton = new LazyAutomaton(nondeterministic("(a|b)*a(a|b){20}"));
+
+        LazyAutomaton.Exploration exploration = automaton.explore(100);
+
+        assertFalse(exploration.isComplete());
+        assertFalse(exploration.isEmpty());
+        assertThat(exploration.getNumberOfStates(), equalTo(100));
+    }
+
+    @Test
+    void explore_withContradictoryAutomata_isEmpty() {
+        LazyAutomaton automaton = new LazyAutomaton(Arrays.asList(
+            AutomatonUtils.createNondeterministicAutomaton("a+", true),
+            AutomatonUtils.createNondeterministicAutomaton("b+", true)));
+
+        assertTrue(automaton.explore(100).isEmpty());
+    }
+
+    private static List<Automaton> nondeterministic(String regex) {
+        return Collections.singletonList(AutomatonUtils.createNondeterministicAutomaton(regex, true));
+    }
+
+    private static void assertAcceptsTheSameStringsAs(LazyAutomaton automaton, String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        for (int length = 0; length <= 8; length++) {
+            for (int bits = 0; bits < 1 << length; bits++) {
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    chars[i] = (bits & (1 << i)) == 0 ? 'a' : 'b';
+                }
+                String string = new String(chars);
+                assertThat(string, automaton.run(string), equalTo(pattern.matcher(string).matches()));
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import com.scottlogic.datahelix.generator.core.generation.string.generators.LazyRegexStringGenerator;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.NoStringsStringGenerator;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.RegexStringGenerator;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.StringGenerator;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyRegexStringGeneratorTests {
+    private static final String COMPLEX_REGEX = "(a|b)*a(a|b){20}";
+
+    @Test
+    void create_withSimpleRegex_determinisesUpFront() {
+        assertThat(RegexStringGenerator.create("[a-c]{3}", true), instanceOf(RegexStringGenerator.class));
+    }
+
+    @Test
+    void create_withRegexWithLargeDeterministicAutomaton_buildsItLazily() {
+        assertThat(RegexStringGenerator.create(COMPLEX_REGEX, true), instanceOf(LazyRegexStringGenerator.class));
+    }
+
+    @Test
+    void create_withCountedRepetitionsEitherSideOfAThousand_givesComparableLengths() {
+        StringGenerator below = RegexStringGenerator.create("[a-z]{1,999}", true);
+        StringGenerator above = RegexStringGenerator.create("[a-z]{1,1001}", true);
+
+        assertThat(below, instanceOf(RegexStringGenerator.class));
+        assertThat(above, instanceOf(RegexStringGenerator.class));
+        assertThat(averageLength(below), closeTo(averageLength(above), 50));
+        assertThat(averageLength(above), greaterThan(400.0));
+    }
+
+    @Test
+    void create_withMoreStatesThanTheCountsBudgetAllows_buildsItLazily() {
+        // a state per character, each of which would need a count for every length up to the maximum
+        assertThat(RegexStringGenerator.create("[a-z]{1,5000}", true), instanceOf(LazyRegexStringGenerator.class));
+    }
+
+    @Test
+    void generateRandomValues_producesValuesThatMatchTheRegex() {
+        StringGenerator generator = new LazyRegexStringGenerator(COMPLEX_REGEX, true);
+        Pattern pattern = Pattern.compile(COMPLEX_REGEX);
+
+        List<String> values = generator.generateRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(1_000)
+            .collect(Collectors.toList());
+
+        assertTrue(values.stream().allMatch(value -> pattern.matcher(value).matches() && generator.matches(value)));
+    }
+
+    @Test
+    void generateRandomValues_intersectedWithLengths_producesValuesOfPermittedLengths() {
+        StringGenerator generator = new LazyRegexStringGenerator(COMPLEX_REGEX, true)
+            .intersect(new RegexStringGenerator("^.{23,25}$", true));
+
+        List<String> values = generator.generateRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(1_000)
+            .collect(Collectors.toList());
+
+        assertTrue(values.stream().allMatch(value -> value.length() >= 23 && value.length() <= 25));
+        assertThat(values.stream().map(String::length).distinct().count(), equalTo(3L));
+    }
+
+    @Test
+    void generateAllValues_producesValuesInOrder() {
+        StringGenerator generator = new LazyRegexStringGenerator("[ab]c?|d", true);
+
+        List<String> values = generator.generateAllValues().collect(Collectors.toList());
+
+        assertThat(values, contains("a", "ac", "b", "bc", "d"));
+    }
+
+    @Test
+    void generateAllValues_intersectedWithLengths_onlyProducesValuesOfPermittedLengths() {
+        StringGenerator generator = new LazyRegexStringGenerator(COMPLEX_REGEX, true)
+            .intersect(new RegexStringGenerator("^.{0,21}$", true));
+
+        List<String> values = generator.generateAllValues().limit(3).collect(Collectors.toList());
+
+        assertThat(values, contains(
+            repeat('a', 21),
+            repeat('a', 20) + "b",
+            repeat('a', 19) + "ba"));
+    }
+
+    @Test
+    void matches_intersectedWithRegex_requiresBoth() {
+        StringGenerator generator = new LazyRegexStringGenerator(COMPLEX_REGEX, true)
+            .intersect(new RegexStringGenerator("b.*", true));
+
+        assertTrue(generator.matches("ba" + repeat('b', 20)));
+        assertFalse(generator.matches("aa" + repeat('b', 20)));
+    }
+
+    @Test
+    void intersect_withContradictoryLengths_returnsNoStrings() {
+        StringGenerator generator = new LazyRegexStringGenerator("(a|b)*a(a|b){5}", true)
+            .intersect(new RegexStringGenerator("^.{0,5}$", true));
+
+        assertThat(generator, instanceOf(NoStringsStringGenerator.class));
+    }
+
+    private static double averageLength(StringGenerator generator) {
+        return generator.generateRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(1_000)
+            .mapToInt(String::length)
+            .average()
+            .getAsDouble();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.core.generation.string.factorys.LengthAwareStringSampler;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.scottlogic.datahelix.generator.core.generation.string.factorys.LengthAwareStringSampler.LengthDistribution.UNIFORM_OVER_LANGUAGE;
+import static com.scottlogic.datahelix.generator.core.generation.string.factorys.LengthAwareStringSampler.LengthDistribution.UNIFORM_OVER_LENGTHS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class LengthAwareStringSamplerTests {
+    private final JavaUtilRandomNumberGenerator random = new JavaUtilRandomNumberGenerator(0);
+
+    @Test
+    void sample_producesOnlyAcceptedStringsAndCoversThem() {
+        Automaton automaton = AutomatonUtils.createAutomaton("[ab]c?", true);
+        LengthAwareStringSampler sampler = createSampler(automaton, 10, UNIFORM_OVER_LENGTHS);
+
+        Set<String> generated = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            String value = sampler.sample(random);
+            assertThat(automaton.run(value), is(true));
+            generated.add(value);
+        }
+
+        assertThat(generated, containsInAnyOrder("a", "b", "ac", "bc"));
+    }
+
+    @Test
+    void getLanguageSize_countsEveryAcceptedString() {
+        assertThat(createSampler("[ab]c?", 10).getLanguageSize(), equalTo(BigInteger.valueOf(4)));
+        assertThat(createSampler("[a-z]{3}", 10).getLanguageSize(), equalTo(BigInteger.valueOf(26 * 26 * 26)));
+    }
+
+    @Test
+    void getLanguageSize_withUnboundedRegex_countsStringsUpToMaximumLength() {
+        assertThat(createSampler("[01]*", 64).getLanguageSize(), equalTo(BigInteger.ONE.shiftLeft(65).subtract(BigInteger.ONE)));
+    }
+
+    @Test
+    void sample_withUnboundedRegex_neverExceedsMaximumLength() {
+        LengthAwareStringSampler sampler = createSampler("x*", 5);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(sampler.sample(random).length(), lessThanOrEqualTo(5));
+        }
+    }
+
+    @Test
+    void sample_withUniformLengths_picksEachLengthEvenly() {
+        // there is 1 string of length 1 but 10,000 of length 5, each length should still appear about half the time
+        LengthAwareStringSampler sampler = createSampler("a|[0-9]{5}", 10);
+
+        int shortValues = 0;
+        for (int i = 0; i < 2000; i++) {
+            if (sampler.sample(random).length() == 1) {
+                shortValues++;
+            }
+        }
+
+        assertThat(shortValues, allOf(greaterThan(800), lessThan(1200)));
+    }
+
+    @Test
+    void sample_withUniformLanguage_picksEachStringEvenly() {
+        // 2 strings of length 1 and 4 of length 2, so each of the 6 strings should appear about 1/6 of the time
+        Automaton automaton = AutomatonUtils.createAutomaton("[ab]|[cd][ef]", true);
+        LengthAwareStringSampler sampler = createSampler(automaton, 10, UNIFORM_OVER_LANGUAGE);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 6000; i++) {
+            counts.merge(sampler.sample(random), 1, Integer::sum);
+        }
+
+        assertThat(counts.keySet(), hasSize(6));
+        for (int count : counts.values()) {
+            assertThat(count, allOf(greaterThan(800), lessThan(1200)));
+        }
+    }
+
+    @Test
+    void sample_acrossSurrogateRange_neverProducesSurrogates() {
+        LengthAwareStringSampler sampler = createSampler(Automaton.makeCharRange('\uD000', '\uE000'), 10, UNIFORM_OVER_LENGTHS);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(Character.isSurrogate(sampler.sample(random).charAt(0)), is(false));
+        }
+        assertThat(sampler.getLanguageSize(), equalTo(BigInteger.valueOf(0x1001 - 0x800)));
+    }
+
+    @Test
+    void sample_withEmptyLanguage_throws() {
+        LengthAwareStringSampler sampler = createSampler("[a-z]{20}", 10);
+
+        assertThat(sampler.isEmpty(), is(true));
+        Assertions.assertThrows(ValidationException.class, () -> sampler.sample(random));
+    }
+
+    private static LengthAwareStringSampler createSampler(String regex, int maxLength) {
+        return createSampler(AutomatonUtils.createAutomaton(regex, true), maxLength, UNIFORM_OVER_LENGTHS);
+    }
+
+    private static LengthAwareStringSampler createSampler(Automaton automaton,
+                                                          int maxLength,
+                                                          LengthAwareStringSampler.LengthDistribution distribution) {
+        return new LengthAwareStringSampler(TransitionTable.compile(automaton), maxLength, distribution);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class LengthRankedStringEnumeratorTests {
+    @Test
+    void get_returnsShortestStringsFirst() {
+        LengthRankedStringEnumerator enumerator = createEnumerator("[ab]c?|d", 10);
+
+        List<String> strings = new ArrayList<>();
+        for (int rank = 0; rank < enumerator.size(); rank++) {
+            strings.add(enumerator.get(rank));
+        }
+
+        assertThat(strings, contains("a", "b", "d", "ac", "bc"));
+    }
+
+    @Test
+    void size_withStringsBeyondMaximumLength_leavesThemOut() {
+        assertThat(createEnumerator("[ab]{0,5}", 2).size(), equalTo(1L + 2 + 4));
+    }
+
+    @Test
+    void get_withMoreStringsThanALong_numbersTheShortestOnes() {
+        LengthRankedStringEnumerator enumerator = createEnumerator("[a-z]{1,999}", 1000);
+
+        assertThat(enumerator.size(), equalTo(Long.MAX_VALUE));
+        assertThat(enumerator.get(0), equalTo("a"));
+        assertThat(enumerator.get(26), equalTo("aa"));
+        assertThat(enumerator.get(Long.MAX_VALUE - 1).length(), equalTo(14));
+    }
+
+    @Test
+    void get_outsideLanguage_throws() {
+        LengthRankedStringEnumerator enumerator = createEnumerator("[ab]", 10);
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> enumerator.get(2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> enumerator.get(-1));
+    }
+
+    private static LengthRankedStringEnumerator createEnumerator(String regex, int maxLength) {
+        return new LengthRankedStringEnumerator(
+            TransitionTable.compile(AutomatonUtils.createAutomaton(regex, true)),
+            maxLength);
+    }
+}
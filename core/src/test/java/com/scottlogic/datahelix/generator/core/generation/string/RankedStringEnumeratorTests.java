@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import com.scottlogic.datahelix.generator.core.generation.string.iterators.FiniteStringAutomatonIterator;
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RankedStringEnumeratorTests {
+    @Test
+    void size_countsEveryString() {
+        assertThat(createEnumerator("[ab]c?").size(), equalTo(BigInteger.valueOf(4)));
+        assertThat(createEnumerator("[a-z]{0,3}").size(), equalTo(BigInteger.valueOf(1 + 26 + 26 * 26 + 26 * 26 * 26)));
+    }
+
+    @Test
+    void size_withEmptyLanguage_isZero() {
+        RankedStringEnumerator enumerator = new RankedStringEnumerator(TransitionTable.compile(Automaton.makeEmpty()));
+
+        assertThat(enumerator.size(), equalTo(BigInteger.ZERO));
+        assertThat(enumerator.iterator(BigInteger.ZERO).hasNext(), is(false));
+    }
+
+    @Test
+    void get_returnsStringsInLexicographicOrder() {
+        RankedStringEnumerator enumerator = createEnumerator("[ab]c?|d");
+
+        List<String> strings = new ArrayList<>();
+        for (int rank = 0; rank < 5; rank++) {
+            strings.add(enumerator.get(rank));
+        }
+
+        assertThat(strings, contains("a", "ac", "b", "bc", "d"));
+    }
+
+    @Test
+    void get_withLargeLanguage_findsStringDirectly() {
+        RankedStringEnumerator enumerator = createEnumerator("[a-z]{20}");
+
+        assertThat(enumerator.get(BigInteger.ZERO), equalTo("aaaaaaaaaaaaaaaaaaaa"));
+        assertThat(enumerator.get(BigInteger.valueOf(27)), equalTo("aaaaaaaaaaaaaaaaaabb"));
+        assertThat(enumerator.get(enumerator.size().subtract(BigInteger.ONE)), equalTo("zzzzzzzzzzzzzzzzzzzz"));
+    }
+
+    @Test
+    void get_outsideLanguage_throws() {
+        RankedStringEnumerator enumerator = createEnumerator("[ab]");
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> enumerator.get(2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> enumerator.get(-1));
+    }
+
+    @Test
+    void iterator_producesTheSameStringsAsRanking() {
+        RankedStringEnumerator enumerator = createEnumerator("(x|[a-c]{1,3})(y[0-2])?");
+
+        Iterator<String> iterator = enumerator.iterator(BigInteger.ZERO);
+        for (long rank = 0; rank < enumerator.size().longValue(); rank++) {
+            assertThat(iterator.next(), equalTo(enumerator.get(rank)));
+        }
+        assertThat(iterator.hasNext(), is(false));
+    }
+
+    @Test
+    void iterator_fromOffset_continuesFromThatString() {
+        RankedStringEnumerator enumerator = createEnumerator("[ab]c?|d");
+
+        List<String> strings = new ArrayList<>();
+        enumerator.iterator(BigInteger.valueOf(2)).forEachRemaining(strings::add);
+
+        assertThat(strings, contains("b", "bc", "d"));
+    }
+
+    @Test
+    void iterator_producesSameStringsAsAutomatonIterator() {
+        Automaton automaton = AutomatonUtils.createAutomaton("[a-c]{1,2}(1|23)?", true);
+
+        List<String> ranked = new ArrayList<>();
+        new RankedStringEnumerator(TransitionTable.compile(automaton)).iterator(BigInteger.ZERO).forEachRemaining(ranked::add);
+        List<String> walked = new ArrayList<>();
+        new FiniteStringAutomatonIterator(automaton).forEachRemaining(walked::add);
+
+        assertThat(ranked, containsInAnyOrder(walked.toArray()));
+    }
+
+    @Test
+    void rankingAcrossSurrogateRange_leavesOutSurrogates() {
+        RankedStringEnumerator enumerator = new RankedStringEnumerator(
+            TransitionTable.compile(Automaton.makeCharRange('\uD7FF', '\uE000')));
+
+        List<String> strings = new ArrayList<>();
+        enumerator.iterator(BigInteger.ZERO).forEachRemaining(strings::add);
+
+        assertThat(strings, contains("\uD7FF", "\uE000"));
+    }
+
+    @Test
+    void construct_withInfiniteLanguage_throws() {
+        TransitionTable table = TransitionTable.compile(AutomatonUtils.createAutomaton("a+", true));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RankedStringEnumerator(table));
+    }
+
+    private static RankedStringEnumerator createEnumerator(String regex) {
+        return new RankedStringEnumerator(TransitionTable.compile(AutomatonUtils.createAutomaton(regex, true)));
+    }
+}
@@ -24,6 +24,7 @@ import org.hamcrest.core.Is;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -105,6 +106,40 @@ class RegexStringGeneratorTests {
         expectFirstResult("0");
     }
 
+    @Test
+    void shouldGenerateEachStringOnceWhenUniqueRandom() {
+        RegexStringGenerator generator = new RegexStringGenerator("[a-c][0-9]", true);
+
+        List<String> values = generator.generateUniqueRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .collect(Collectors.toList());
+
+        assertThat(values, hasSize(30));
+        assertThat(new HashSet<>(values), equalTo(generator.generateAllValues().collect(Collectors.toSet())));
+        assertThat(values, not(equalTo(generator.generateAllValuesFrom(BigInteger.ZERO).collect(Collectors.toList()))));
+    }
+
+    @Test
+    void shouldGenerateUniqueRandomValuesOfEveryLengthForLargeLanguages() {
+        RegexStringGenerator generator = new RegexStringGenerator("[a-z]{1,999}", true);
+
+        List<String> values = generator.generateUniqueRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(1_000)
+            .collect(Collectors.toList());
+
+        assertThat(new HashSet<>(values), hasSize(1_000));
+        assertThat(values, everyItem(not(startsWith("aaaaaaaa"))));
+        assertThat(values.stream().mapToInt(String::length).max().getAsInt(), lessThanOrEqualTo(14));
+    }
+
+    @Test
+    void shouldGenerateAllValuesFromRank() {
+        RegexStringGenerator generator = new RegexStringGenerator("[a-c][0-9]", true);
+
+        assertThat(generator.generateAllValuesFrom(BigInteger.valueOf(28)).collect(Collectors.toList()),
+            contains("c8", "c9"));
+        assertThat(generator.getLanguageSize(), equalTo(BigInteger.valueOf(30)));
+    }
+
     @Test
     void shouldCorrectlySampleInfiniteResults() {
         StringGenerator generator = StringRestrictionsFactory.forStringMatching(Pattern.compile("[a]+"), false).createGenerator();
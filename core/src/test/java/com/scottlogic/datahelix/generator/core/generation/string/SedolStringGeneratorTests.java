@@ -39,7 +39,7 @@ public class SedolStringGeneratorTests {
 
         for (int i = 0; i < NumberOfTests; ++i) {
             final String nextSedol = allSedols.next();
-            final char checkDigit = FinancialCodeUtils.calculateSedolCheckDigit(nextSedol.substring(0, 6));
+            final char checkDigit = FinancialCodeUtils.sedolCheckDigit(nextSedol, 0, 6);
             assertThat(nextSedol.charAt(6), equalTo(checkDigit));
         }
     }
@@ -54,7 +54,7 @@ public class SedolStringGeneratorTests {
 
         for (int i = 0; i < NumberOfTests; ++i) {
             final String nextSedol = allSedols.next();
-            final char checkDigit = FinancialCodeUtils.calculateSedolCheckDigit(nextSedol.substring(0, 6));
+            final char checkDigit = FinancialCodeUtils.sedolCheckDigit(nextSedol, 0, 6);
             assertThat(nextSedol.charAt(6), equalTo(checkDigit));
         }
     }
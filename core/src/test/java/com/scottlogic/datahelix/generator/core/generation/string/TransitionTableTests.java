@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TransitionTableTests {
+    @Test
+    void compile_keepsStatesAndTransitionsOfAutomaton() {
+        Automaton automaton = AutomatonUtils.createAutomaton("[a-c]x|d", true);
+
+        TransitionTable table = TransitionTable.compile(automaton);
+
+        assertThat(table.getNumberOfStates(), equalTo(automaton.getNumberOfStates()));
+        assertThat(table.isAccept(table.getInitialState()), is(false));
+        assertThat(table.getNumberOfTransitions(table.getInitialState()), equalTo(2));
+        int first = table.getTransition(table.getInitialState(), 0);
+        assertThat(table.getMin(first), equalTo('a'));
+        assertThat(table.getMax(first), equalTo('c'));
+    }
+
+    @Test
+    void run_agreesWithAutomaton() {
+        Automaton automaton = AutomatonUtils.createAutomaton("[a-c]{1,3}(x|yz)?", true);
+        TransitionTable table = TransitionTable.compile(automaton);
+
+        for (String input : Arrays.asList("", "a", "abc", "abcd", "abx", "abyz", "aby", "x", "cccyz")) {
+            assertThat(input, table.run(input), equalTo(automaton.run(input)));
+        }
+    }
+}
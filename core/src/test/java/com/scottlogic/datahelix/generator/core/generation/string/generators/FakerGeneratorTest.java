@@ -15,6 +15,7 @@
  */
 package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
+import com.scottlogic.datahelix.generator.common.ValidationException;
 import com.scottlogic.datahelix.generator.common.util.Defaults;
 import com.scottlogic.datahelix.generator.core.restrictions.string.StringRestrictions;
 import com.scottlogic.datahelix.generator.core.restrictions.string.StringRestrictionsFactory;
@@ -22,11 +23,17 @@ import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerat
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FakerGeneratorTest {
@@ -34,7 +41,7 @@ class FakerGeneratorTest {
     @Test
     void generateRandomValuesUnrestricted() {
         StringRestrictions restrictions = StringRestrictionsFactory.forMaxLength(Defaults.MAX_STRING_LENGTH);
-        RegexStringGenerator regex = (RegexStringGenerator) restrictions.createGenerator();
+        StringGenerator regex = restrictions.createGenerator();
         FakerGenerator generator = new FakerGenerator(regex, "name.firstName");
 
         final int size = 10;
@@ -50,7 +57,7 @@ class FakerGeneratorTest {
     void generateRandomValuesRestrictedMin() {
         final int length = 9;
         StringRestrictions restrictions = StringRestrictionsFactory.forMinLength(length);
-        RegexStringGenerator regex = (RegexStringGenerator) restrictions.createGenerator();
+        StringGenerator regex = restrictions.createGenerator();
         FakerGenerator generator = new FakerGenerator(regex, "name.firstName");
 
         final int size = 10;
@@ -65,7 +72,7 @@ class FakerGeneratorTest {
     void generateRandomValuesRestrictedMax() {
         final int length = 4;
         StringRestrictions restrictions = StringRestrictionsFactory.forMaxLength(length);
-        RegexStringGenerator regex = (RegexStringGenerator) restrictions.createGenerator();
+        StringGenerator regex = restrictions.createGenerator();
         FakerGenerator generator = new FakerGenerator(regex, "name.firstName");
 
         final int size = 10;
@@ -82,7 +89,7 @@ class FakerGeneratorTest {
         StringRestrictions restrictions = StringRestrictionsFactory.forStringMatching(
             Pattern.compile(jobTitleRegex), false
         );
-        RegexStringGenerator regex = (RegexStringGenerator) restrictions.createGenerator();
+        StringGenerator regex = restrictions.createGenerator();
         FakerGenerator generator = new FakerGenerator(regex, "job.title");
 
         final int size = 10;
@@ -92,4 +99,65 @@ class FakerGeneratorTest {
 
         assertTrue(results.allMatch(str -> str.matches(jobTitleRegex)));
     }
+
+    @Test
+    void generateWithNonStringMethod() {
+        StringRestrictions restrictions = StringRestrictionsFactory.forMaxLength(Defaults.MAX_STRING_LENGTH);
+        StringGenerator regex = restrictions.createGenerator();
+        FakerGenerator generator = new FakerGenerator(regex, "number.randomDigit");
+
+        Stream<String> results = generator.generateRandomValues(new JavaUtilRandomNumberGenerator())
+            .limit(10);
+
+        assertTrue(results.allMatch(str -> str.matches("^[0-9]$")));
+    }
+
+    @Test
+    void generateInParallel() throws Exception {
+        String jobTitleRegex = "^[A-Za-z]+ [A-Za-z]+$";
+        FakerGenerator jobTitles = new FakerGenerator(
+            StringRestrictionsFactory.forStringMatching(Pattern.compile(jobTitleRegex), false).createGenerator(),
+            "job.title");
+        final int maxLength = 5;
+        FakerGenerator shortFirstNames = new FakerGenerator(
+            StringRestrictionsFactory.forMaxLength(maxLength).createGenerator(),
+            "name.firstName");
+
+        // every task shares its thread's faker with tasks for the other spec
+        List<Callable<Long>> tasks = IntStream.range(0, 16)
+            .mapToObj(task -> (Callable<Long>) () -> task % 2 == 0
+                ? jobTitles.generateRandomValues(new JavaUtilRandomNumberGenerator())
+                    .limit(200)
+                    .filter(str -> str.matches(jobTitleRegex))
+                    .count()
+                : shortFirstNames.generateRandomValues(new JavaUtilRandomNumberGenerator())
+                    .limit(200)
+                    .filter(str -> !str.isEmpty() && str.length() <= maxLength)
+                    .count())
+            .collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        long validCount = 0;
+        try {
+            for (Future<Long> result : executor.invokeAll(tasks)) {
+                validCount += result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(3200, validCount);
+    }
+
+    @Test
+    void generateWithUnsatisfiableConstraints() {
+        StringRestrictions restrictions = StringRestrictionsFactory.forStringMatching(
+            Pattern.compile("^[0-9]+$"), false
+        );
+        StringGenerator regex = restrictions.createGenerator();
+        FakerGenerator generator = new FakerGenerator(regex, "name.firstName");
+
+        assertThrows(
+            ValidationException.class,
+            () -> generator.generateRandomValues(new JavaUtilRandomNumberGenerator()).findFirst());
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.core.utils.FinancialCodeUtils;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.scottlogic.datahelix.generator.core.generation.string.generators.ChecksumStringGeneratorFactory.createCusipGenerator;
+import static com.scottlogic.datahelix.generator.core.generation.string.generators.ChecksumStringGeneratorFactory.createIsinGenerator;
+import static com.scottlogic.datahelix.generator.core.generation.string.generators.ChecksumStringGeneratorFactory.createSedolGenerator;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FinancialCodeGeneratorTests {
+    @Test
+    void matches_withInvalidCountryCode_returnsFalse() {
+        assertFalse(createIsinGenerator().matches(withIsinCheckDigit("QQ00000KPAL")));
+    }
+
+    @Test
+    void matches_withInvalidLength_returnsFalse() {
+        assertFalse(createIsinGenerator().matches("ADKPAL"));
+    }
+
+    @Test
+    void matches_withInvalidGbCode_returnsFalse() {
+        assertFalse(createIsinGenerator().matches(withIsinCheckDigit("GB11RJ6BYL2")));
+    }
+
+    @Test
+    void matches_withInvalidCheckDigit_returnsFalse() {
+        assertFalse(createIsinGenerator().matches("GB0002634947"));
+    }
+
+    @Test
+    void matches_withValidString_returnsTrue() {
+        assertTrue(createIsinGenerator().matches(withIsinCheckDigit("AD00000KPAL")));
+    }
+
+    @Test
+    void matches_withNonAsciiString_returnsFalse() {
+        assertFalse(createSedolGenerator().matches("\u00e90263494"));
+    }
+
+    @Test
+    void generateAllValues_countsThroughCodesInOrder() {
+        List<String> cusips = createCusipGenerator().generateAllValues().limit(3).collect(Collectors.toList());
+
+        assertThat(cusips, contains("000000000", "000000018", "000000026"));
+    }
+
+    @Test
+    void generateAllValues_producesOnlyValidCodes() {
+        StringGenerator generator = createIsinGenerator();
+
+        assertTrue(generator.generateAllValues().limit(1000).allMatch(generator::matches));
+    }
+
+    @Test
+    void generateRandomValues_producesOnlyValidCodes() {
+        StringGenerator sedols = createSedolGenerator();
+        StringGenerator isins = createIsinGenerator();
+        JavaUtilRandomNumberGenerator random = new JavaUtilRandomNumberGenerator(0);
+
+        assertTrue(sedols.generateRandomValues(random).limit(1000).allMatch(sedols::matches));
+        assertTrue(isins.generateRandomValues(random).limit(1000).allMatch(isins::matches));
+    }
+
+    private static String withIsinCheckDigit(String isinWithoutCheckDigit) {
+        return isinWithoutCheckDigit + FinancialCodeUtils.isinCheckDigit(isinWithoutCheckDigit, 0, isinWithoutCheckDigit.length());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LengthOnlyStringGeneratorTests {
+    @Test
+    void generateRandomValues_producesOnlyPermittedLengths() {
+        StringGenerator generator = new LengthOnlyStringGenerator(2, 5, Collections.singleton(3));
+
+        Set<Integer> lengths = generator.generateRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(1_000)
+            .map(String::length)
+            .collect(Collectors.toSet());
+
+        assertThat(lengths, containsInAnyOrder(2, 4, 5));
+    }
+
+    @Test
+    void generateRandomValues_producesValuesTheEquivalentRegexMatches() {
+        LengthOnlyStringGenerator generator = new LengthOnlyStringGenerator(0, 10, Collections.emptySet());
+
+        List<String> values = generator.generateRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(1_000)
+            .collect(Collectors.toList());
+
+        RegexStringGenerator regexGenerator = generator.toRegexGenerator();
+        assertTrue(values.stream().allMatch(regexGenerator::matches));
+    }
+
+    @Test
+    void generateAllValues_producesTheSameValuesAsTheEquivalentRegex() {
+        LengthOnlyStringGenerator generator = new LengthOnlyStringGenerator(1, 3, Collections.singleton(2));
+
+        List<String> values = generator.generateAllValues().limit(500).collect(Collectors.toList());
+
+        List<String> expected = generator.toRegexGenerator().generateAllValues().limit(500).collect(Collectors.toList());
+        assertThat(values, equalTo(expected));
+    }
+
+    @Test
+    void generateUniqueRandomValues_producesEveryValueOnce() {
+        LengthOnlyStringGenerator generator = new LengthOnlyStringGenerator(0, 2, Collections.singleton(1));
+
+        List<String> values = generator.generateUniqueRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .collect(Collectors.toList());
+
+        assertThat(values.size(), equalTo(1 + 95 * 95));
+        assertThat(new HashSet<>(values).size(), equalTo(values.size()));
+        assertThat(generator.getLanguageSize(), equalTo(BigInteger.valueOf(values.size())));
+    }
+
+    @Test
+    void matches_checksLengthAndCharacters() {
+        StringGenerator generator = new LengthOnlyStringGenerator(1, null, Collections.singleton(3));
+
+        assertTrue(generator.matches("a"));
+        assertTrue(generator.matches(String.join("", Collections.nCopies(2_000, "a"))));
+        assertFalse(generator.matches(""));
+        assertFalse(generator.matches("abc"));
+        assertFalse(generator.matches("a\n"));
+    }
+
+    @Test
+    void intersect_withLengthOnlyGenerator_mergesLengths() {
+        StringGenerator generator = new LengthOnlyStringGenerator(1, 10, Collections.singleton(5))
+            .intersect(new LengthOnlyStringGenerator(3, null, Collections.singleton(7)));
+
+        assertThat(generator, equalTo(new LengthOnlyStringGenerator(3, 10, new HashSet<>(Arrays.asList(5, 7)))));
+    }
+
+    @Test
+    void intersect_withContradictoryLengths_returnsNoStrings() {
+        StringGenerator generator = new LengthOnlyStringGenerator(1, 3, Collections.singleton(2))
+            .intersect(new LengthOnlyStringGenerator(2, 2, Collections.emptySet()));
+
+        assertThat(generator, instanceOf(NoStringsStringGenerator.class));
+    }
+
+    @Test
+    void intersect_withRegex_usesTheEquivalentRegex() {
+        StringGenerator generator = new LengthOnlyStringGenerator(2, 3, Collections.emptySet())
+            .intersect(new RegexStringGenerator("[a-b]*", true));
+
+        List<String> values = generator.generateAllValues().collect(Collectors.toList());
+
+        assertThat(values, hasSize(12));
+        assertThat(values, everyItem(matchesPattern("[a-b]{2,3}")));
+    }
+}
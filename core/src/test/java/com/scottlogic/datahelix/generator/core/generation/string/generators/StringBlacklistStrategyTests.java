@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class StringBlacklistStrategyTests {
+    private StringBlacklistDecisions decisions;
+
+    @BeforeEach
+    void beforeEach() {
+        decisions = new StringBlacklistDecisions();
+    }
+
+    @Test
+    void exclude_withNoGeneratableValues_returnsGeneratorUnchanged() {
+        StringGenerator generator = new RegexStringGenerator("[a-z]{3}", true);
+
+        StringGenerator result = StringBlacklistStrategy.exclude(generator, new HashSet<>(Arrays.asList("A", "abcd")), decisions);
+
+        assertThat(result, sameInstance(generator));
+    }
+
+    @Test
+    void exclude_withSmallBlacklist_subtractsFromAutomaton() {
+        StringGenerator generator = new RegexStringGenerator("^.{0,10}$", true);
+
+        StringGenerator result = StringBlacklistStrategy.exclude(generator, new HashSet<>(Arrays.asList("a", "bb")), decisions);
+
+        assertThat(result, instanceOf(RegexStringGenerator.class));
+        assertFalse(result.matches("a"));
+        assertFalse(result.matches("bb"));
+        assertTrue(result.matches("c"));
+    }
+
+    @Test
+    void exclude_withLargeBlacklistOfUnboundedLanguage_filtersGeneratedValues() {
+        StringGenerator generator = new RegexStringGenerator("^[a-z0-9]{4,}$", true);
+        Set<String> blacklist = customerIds(5_000);
+
+        StringGenerator result = StringBlacklistStrategy.exclude(generator, blacklist, decisions);
+
+        assertThat(result, instanceOf(BlacklistFilteringStringGenerator.class));
+        assertFalse(result.matches("cust0000"));
+        assertTrue(result.matches("custzzzz"));
+        List<String> values = result.generateRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(1_000)
+            .collect(Collectors.toList());
+        assertThat(values, everyItem(not(isIn(blacklist))));
+    }
+
+    @Test
+    void exclude_withLargeBlacklistOfFiniteLanguage_subtractsFromAutomaton() {
+        StringGenerator generator = new RegexStringGenerator("cust[0-9]{4}", true);
+
+        StringGenerator result = StringBlacklistStrategy.exclude(generator, customerIds(9_990), decisions);
+
+        assertThat(result, instanceOf(RegexStringGenerator.class));
+        assertThat(result.generateAllValues().count(), equalTo(10L));
+    }
+
+    @Test
+    void exclude_fromGeneratorWithoutAutomaton_filtersGeneratedValues() {
+        StringGenerator generator = ChecksumStringGeneratorFactory.createSedolGenerator();
+        String sedol = generator.generateAllValues().findFirst().get();
+
+        StringGenerator result = StringBlacklistStrategy.exclude(generator, new HashSet<>(Arrays.asList(sedol, "A")), decisions);
+
+        assertThat(result, instanceOf(BlacklistFilteringStringGenerator.class));
+        assertFalse(result.matches(sedol));
+        assertThat(result.generateAllValues().findFirst().get(), not(equalTo(sedol)));
+    }
+
+    @Test
+    void generateRandomValues_whenEveryValueIsBlacklisted_throws() {
+        StringGenerator generator = new BlacklistFilteringStringGenerator(
+            new RegexStringGenerator("[ab]", true),
+            new HashSet<>(Arrays.asList("a", "b")));
+
+        assertThrows(
+            ValidationException.class,
+            () -> generator.generateRandomValues(new JavaUtilRandomNumberGenerator(0)).findFirst());
+    }
+
+    @Test
+    void getSummary_countsDecisionsAndDescribesThem() {
+        StringBlacklistStrategy.exclude(new RegexStringGenerator("^.{0,10}$", true), new HashSet<>(Arrays.asList("a", "bb")), decisions);
+        StringBlacklistStrategy.exclude(new RegexStringGenerator("^[a-z0-9]{4,}$", true), customerIds(5_000), decisions);
+        StringBlacklistStrategy.exclude(new RegexStringGenerator("[a-z]{3}", true), new HashSet<>(Arrays.asList("A")), decisions);
+
+        String summary = decisions.getSummary();
+
+        assertThat(summary, startsWith("String blacklists: 1 filtered, 1 kept as it is, 1 subtracted"));
+        assertThat(summary, containsString("Blacklist for /^.{0,10}$/ subtracted: 2 blacklisted values"));
+    }
+
+    @Test
+    void getSummary_withoutBlacklists_isNull() {
+        assertThat(decisions.getSummary(), nullValue());
+    }
+
+    @Test
+    void getSummary_isOnlyOfTheDecisionsRecordedInIt() {
+        StringBlacklistDecisions otherDecisions = new StringBlacklistDecisions();
+        StringBlacklistStrategy.exclude(
+            new RegexStringGenerator("^.{0,10}$", true), new HashSet<>(Arrays.asList("a")), otherDecisions);
+
+        StringBlacklistStrategy.exclude(
+            new RegexStringGenerator("[a-z]{3}", true), new HashSet<>(Arrays.asList("A")), decisions);
+
+        assertThat(decisions.getSummary(), startsWith("String blacklists: 1 kept as it is" + System.lineSeparator()));
+    }
+
+    @Test
+    void getSummary_whenInjected_isPrintedByTheMonitorAtTheEndOfGeneration() {
+        DataGeneratorMonitor monitor = mock(DataGeneratorMonitor.class);
+
+        StringBlacklistDecisions injectedDecisions = new StringBlacklistDecisions(monitor);
+
+        ArgumentCaptor<Supplier> line = ArgumentCaptor.forClass(Supplier.class);
+        verify(monitor).addLineToPrintAtEndOfGeneration(line.capture());
+        StringBlacklistStrategy.exclude(
+            new RegexStringGenerator("[a-z]{3}", true), new HashSet<>(Arrays.asList("A")), injectedDecisions);
+        assertThat(line.getValue().get(), equalTo(injectedDecisions.getSummary()));
+    }
+
+    private static Set<String> customerIds(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(id -> String.format("cust%04d", id))
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation.string.iterators;
+
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonUtils;
+import com.scottlogic.datahelix.generator.core.generation.string.TransitionTable;
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class FiniteStringAutomatonIteratorTests {
+    @Test
+    void next_producesStringsInLexicographicOrder() {
+        List<String> strings = allStrings(AutomatonUtils.createAutomaton("([ab]c?|d)?", true));
+
+        assertThat(strings, contains("", "a", "ac", "b", "bc", "d"));
+    }
+
+    @Test
+    void next_withInfiniteLanguage_producesStringsLazily() {
+        Iterator<String> iterator = new FiniteStringAutomatonIterator(AutomatonUtils.createAutomaton("a+b?", true));
+
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            strings.add(iterator.next());
+        }
+
+        assertThat(strings, contains("a", "aa", "aaa", "aaaa"));
+    }
+
+    @Test
+    void next_withDeadStates_skipsThem() {
+        Automaton automaton = AutomatonUtils.createAutomaton("a[bc]", true)
+            .intersection(AutomatonUtils.createAutomaton("[a-z]c", true));
+
+        assertThat(allStrings(automaton), contains("ac"));
+    }
+
+    @Test
+    void next_withLongStrings_growsBuffer() {
+        List<String> strings = allStrings(AutomatonUtils.createAutomaton("x{40}", true));
+
+        assertThat(strings, contains(new String(new char[40]).replace('\0', 'x')));
+    }
+
+    @Test
+    void construct_fromValue_continuesFromThatString() {
+        TransitionTable table = TransitionTable.compile(AutomatonUtils.createAutomaton("[ab][0-2]", true));
+
+        List<String> strings = new ArrayList<>();
+        new FiniteStringAutomatonIterator(table, "b1").forEachRemaining(strings::add);
+
+        assertThat(strings, contains("b1", "b2"));
+    }
+
+    @Test
+    void construct_fromValueNotInLanguage_throws() {
+        TransitionTable table = TransitionTable.compile(AutomatonUtils.createAutomaton("[ab][0-2]", true));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FiniteStringAutomatonIterator(table, "c1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FiniteStringAutomatonIterator(table, "b"));
+    }
+
+    private static List<String> allStrings(Automaton automaton) {
+        List<String> strings = new ArrayList<>();
+        new FiniteStringAutomatonIterator(automaton).forEachRemaining(strings::add);
+        return strings;
+    }
+}
@@ -521,14 +521,14 @@ class TextualRestrictionsTests {
     }
 
     @Test
-    void createGenerator_withNotOfLengthSameAsMaxLength_shouldPermitStringsUpToMaxLengthLess1() {
+    void createGenerator_withNotOfLengthOneLessThanMaxLength_shouldPermitMaxLength() {
         Optional<StringRestrictions> result =
             maxLength(5)
                 .intersect(ofLength(4, true));
 
         StringGenerator generator = ((StringRestrictions)result.get()).createGenerator();
 
-        Assert.assertThat(generator.toString(), equalTo("/^.{0,3}$/"));
+        Assert.assertThat(generator.toString(), equalTo("/^(.{0,3}|.{5})$/"));
     }
 
     @Test
@@ -540,6 +540,30 @@ class TextualRestrictionsTests {
         Assert.assertThat(intersect, equalTo(Optional.empty()));
     }
 
+    @Test
+    void createGenerator_forSeparatelyBuiltEquivalentRestrictions_shouldGiveEqualGenerators() {
+        StringRestrictions first = matchingRegex("[a-z]{0,9}", false).intersect(maxLength(5)).get();
+        StringRestrictions second = maxLength(5).intersect(matchingRegex("[a-z]{0,9}", false)).get();
+
+        Assert.assertThat(second.createGenerator(), equalTo(first.createGenerator()));
+    }
+
+    @Test
+    void createGenerator_withExcludedLengthOutsideRange_shouldGiveGeneratorEqualToOneWithoutIt() {
+        StringRestrictions withoutExclusion = setLength(2, 5);
+        StringRestrictions withExclusion = new StringRestrictions(
+            2,
+            5,
+            Collections.emptySet(),
+            Collections.emptySet(),
+            Collections.singleton(8),
+            Collections.emptySet(),
+            Collections.emptySet(),
+            null);
+
+        Assert.assertThat(withExclusion.createGenerator(), equalTo(withoutExclusion.createGenerator()));
+    }
+
     private static StringRestrictions ofLength(int length, boolean negate){
         return new StringRestrictions(
             negate ? null : length,
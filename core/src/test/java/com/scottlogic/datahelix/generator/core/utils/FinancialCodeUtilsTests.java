@@ -46,7 +46,7 @@ public class FinancialCodeUtilsTests {
     @Test
     public void testCorrectCheckDigitIsCalculated() {
         for (String isin : VALID_ISINS) {
-            final char checkDigit = FinancialCodeUtils.calculateIsinCheckDigit(isin.substring(0, 11));
+            final char checkDigit = FinancialCodeUtils.isinCheckDigit(isin, 0, 11);
             assertThat(isin.charAt(11), equalTo(checkDigit));
         }
     }
@@ -78,4 +78,12 @@ public class FinancialCodeUtilsTests {
             assertThat(FinancialCodeUtils.isValidIsin(isin), is(false));
         }
     }
+
+    @Test
+    public void testSedolAndCusipCheckDigitsCorrectlyCalculated() {
+        assertThat(FinancialCodeUtils.sedolCheckDigit("026349", 0, 6), equalTo('4'));
+        assertThat(FinancialCodeUtils.sedolCheckDigit("B0YBKJ", 0, 6), equalTo('7'));
+        assertThat(FinancialCodeUtils.cusipCheckDigit("03783310", 0, 8), equalTo('0'));
+        assertThat(FinancialCodeUtils.cusipCheckDigit("38259P50", 0, 8), equalTo('8'));
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.walker.rowspec;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
+import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+import com.scottlogic.datahelix.generator.core.generation.databags.RowSpecDataBagGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.*;
+
+class RowSpecDataBagCacheTests {
+    private final Field field = createField("field");
+    private final DataBag first = DataBagBuilder.of(field, "first");
+    private final DataBag second = DataBagBuilder.of(field, "second");
+    private final RowSpecDataBagGenerator generator = mock(RowSpecDataBagGenerator.class);
+    private final RowSpec rowSpec = mock(RowSpec.class);
+    private final RowSpec otherRowSpec = mock(RowSpec.class);
+
+    @Test
+    void next_forTheSameRowSpec_drawsFromTheSameDataBags() {
+        when(generator.createDataBags(rowSpec)).thenReturn(Stream.of(first, second));
+        RowSpecDataBagCache cache = new RowSpecDataBagCache(generator, 2);
+
+        assertThat(cache.next(rowSpec), sameInstance(first));
+        assertThat(cache.next(rowSpec), sameInstance(second));
+        verify(generator, times(1)).createDataBags(rowSpec);
+    }
+
+    @Test
+    void next_whenTheDataBagsRunOut_startsThemAgain() {
+        when(generator.createDataBags(rowSpec)).thenReturn(Stream.of(first), Stream.of(second));
+        RowSpecDataBagCache cache = new RowSpecDataBagCache(generator, 2);
+
+        assertThat(cache.next(rowSpec), sameInstance(first));
+        assertThat(cache.next(rowSpec), sameInstance(second));
+        verify(generator, times(2)).createDataBags(rowSpec);
+    }
+
+    @Test
+    void next_withMoreRowSpecsThanCapacity_dropsTheLeastRecentlyUsed() {
+        when(generator.createDataBags(rowSpec)).thenReturn(Stream.of(first, second), Stream.of(first, second));
+        when(generator.createDataBags(otherRowSpec)).thenReturn(Stream.of(first, second));
+        RowSpecDataBagCache cache = new RowSpecDataBagCache(generator, 1);
+
+        cache.next(rowSpec);
+        cache.next(otherRowSpec);
+
+        assertThat(cache.next(rowSpec), sameInstance(first));
+        verify(generator, times(2)).createDataBags(rowSpec);
+    }
+}
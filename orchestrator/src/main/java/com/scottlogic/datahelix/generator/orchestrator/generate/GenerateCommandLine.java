@@ -23,6 +23,8 @@ import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategy
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
 import com.scottlogic.datahelix.generator.core.config.detail.VisualiserLevel;
+import com.scottlogic.datahelix.generator.core.generation.UniqueKeyDataGenerator;
+import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.ExhaustiveCombinationStrategy;
 import com.scottlogic.datahelix.generator.orchestrator.CommonOptionInfo;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllModule;
@@ -111,6 +113,18 @@ public class GenerateCommandLine implements AllConfigSource, Callable<Integer> {
         description = "Determines the type of combination strategy used (${COMPLETION-CANDIDATES})")
     private CombinationStrategyType combinationType = MINIMAL;
 
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--max-buffered-values"},
+        description = "Defines how many field values the exhaustive combination strategy holds in memory for reuse before writing them to temporary files")
+    private long maxBufferedValues = ExhaustiveCombinationStrategy.DEFAULT_MAXIMUM_BUFFERED_VALUES;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--max-consecutive-duplicates"},
+        description = "Defines how many rows in a row may repeat a unique key in random generation before the keys are taken to be exhausted")
+    private long maxConsecutiveDuplicates = UniqueKeyDataGenerator.DEFAULT_MAX_CONSECUTIVE_DUPLICATES;
+
     @SuppressWarnings("FieldCanBeLocal")
     @CommandLine.Option(
         names = {"-n", "--max-rows"},
@@ -187,6 +201,16 @@ public class GenerateCommandLine implements AllConfigSource, Callable<Integer> {
         return combinationType;
     }
 
+    @Override
+    public long getMaxBufferedValues() {
+        return maxBufferedValues;
+    }
+
+    @Override
+    public long getMaxConsecutiveDuplicates() {
+        return maxConsecutiveDuplicates;
+    }
+
     @Override
     public MonitorType getMonitorType() {
         if (this.verbose) {
@@ -32,13 +32,23 @@ Feature: As a user
     And bar has type "string"
     And bar is equal to "not unique"
     And the generation strategy is random
+    Then 5 rows of data are generated
+    And unique contains numeric values greater than or equal to 1
+    And unique contains only distinct values
+    And foo contains numeric values greater than or equal to 1
+    And foo contains only distinct values
+    And bar contains only the string "not unique"
+
+  Scenario: The one where random generation produces every unique value once
+    Given unique is less than 6
+    And the generation strategy is random
     Then the following data should be generated:
-      | unique | foo | bar          |
-      | 1      | 1   | "not unique" |
-      | 2      | 2   | "not unique" |
-      | 3      | 3   | "not unique" |
-      | 4      | 4   | "not unique" |
-      | 5      | 5   | "not unique" |
+      | unique |
+      | 1      |
+      | 2      |
+      | 3      |
+      | 4      |
+      | 5      |
 
   Scenario: The one where the range is exceeded
     Given unique is less than 3
@@ -28,6 +28,7 @@ import cucumber.api.java.en.*;
 import org.hamcrest.Matcher;
 import org.junit.Assert;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -93,6 +94,11 @@ public class GeneralTestStep {
         this.state.setFieldUnique(fieldName);
     }
 
+    @And("^the fields (.+) are unique together$")
+    public void fieldsAreUniqueTogether(String fieldNames) {
+        this.state.addUniqueKey(Arrays.asList(fieldNames.split(",\\s*")));
+    }
+
     @And("^(.+) is equal to field (.+)$")
     public void fieldEqualTo(String field, String otherField) {
         state.addRelationConstraint(field, ConstraintType.EQUAL_TO_FIELD, otherField);
@@ -307,6 +313,11 @@ public class GeneralTestStep {
             equalTo(expectedNumberOfRows));
     }
 
+    @Then("{fieldVar} contains only distinct values")
+    public void producedDataShouldContainDistinctValuesForField(String fieldName) {
+        cucumberTestHelper.assertFieldContainsDistinctValues(fieldName);
+    }
+
     @Given("the generator can generate at most {long} row(s)")
     public void theGeneratorCanGenerateAtMostRows(long maxNumberOfRows) {
         state.maxRows = maxNumberOfRows;
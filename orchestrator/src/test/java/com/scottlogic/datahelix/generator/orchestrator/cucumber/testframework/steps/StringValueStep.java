@@ -80,6 +80,11 @@ public class StringValueStep {
         helper.assertFieldContainsNullOrMatching(fieldName, String.class);
     }
 
+    @Then("^([A-z0-9]+) contains only the string \"(.*)\"$")
+    public void producedDataShouldContainOnlyTheStringForField(String fieldName, String value) {
+        helper.assertFieldContainsOnly(fieldName, value::equals);
+    }
+
     @Then("{fieldVar} contains string data")
     public void producedDataShouldContainStringValuesForField(String fieldName) {
         helper.assertFieldContainsSomeOf(fieldName, String.class);
@@ -21,6 +21,8 @@ import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategy
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
 import com.scottlogic.datahelix.generator.core.config.detail.VisualiserLevel;
+import com.scottlogic.datahelix.generator.core.generation.UniqueKeyDataGenerator;
+import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.ExhaustiveCombinationStrategy;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
 import com.scottlogic.datahelix.generator.common.output.OutputFormat;
 
@@ -45,6 +47,16 @@ public class CucumberGenerationConfigSource implements AllConfigSource {
         return state.combinationStrategyType;
     }
 
+    @Override
+    public long getMaxBufferedValues() {
+        return ExhaustiveCombinationStrategy.DEFAULT_MAXIMUM_BUFFERED_VALUES;
+    }
+
+    @Override
+    public long getMaxConsecutiveDuplicates() {
+        return UniqueKeyDataGenerator.DEFAULT_MAX_CONSECUTIVE_DUPLICATES;
+    }
+
     @Override
     public MonitorType getMonitorType() {
         return MonitorType.QUIET;
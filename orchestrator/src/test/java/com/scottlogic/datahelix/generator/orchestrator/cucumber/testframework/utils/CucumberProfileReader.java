@@ -55,6 +55,7 @@ public class CucumberProfileReader extends JsonProfileReader {
         ProfileDTO profileDTO = new ProfileDTO();
         profileDTO.fields = state.profileFields;
         profileDTO.constraints = state.constraints;
+        profileDTO.uniqueKeys = state.uniqueKeys;
         return new ProfileSerialiser().serialise(profileDTO);
     }
 }
@@ -33,6 +33,8 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.equalTo;
+
 /**
  * Responsible for generating data in cucumber tests.
  */
@@ -178,6 +180,24 @@ public class CucumberTestHelper {
         Assert.assertThat(dataForField, new ListPredicateMatcher(predicate));
     }
 
+    public void assertFieldContainsDistinctValues(String fieldName) {
+        if (!getIndexOfField(fieldName).isPresent()) {
+            throw new IllegalArgumentException(String.format(
+                "Field [%s] has not been defined",
+                fieldName
+            ));
+        }
+
+        List<Object> dataForField = this.generateAndGetData().stream()
+            .map(row -> row.get(fieldName))
+            .collect(Collectors.toList());
+
+        Assert.assertThat(
+            String.format("Field [%s] contains duplicate values", fieldName),
+            new HashSet<>(dataForField).size(),
+            equalTo(dataForField.size()));
+    }
+
     private Optional<Integer> getIndexOfField(String fieldName) {
         for (int index = 0; index < testState.profileFields.size(); index++) {
             FieldDTO field = testState.profileFields.get(index);
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.profile.dtos.FieldDTO;
+import com.scottlogic.datahelix.generator.profile.dtos.UniqueKeyDTO;
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.ConstraintDTO;
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.ConstraintType;
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.GeneratorConstraintDTO;
@@ -68,6 +69,7 @@ public class CucumberTestState {
     List<Map<String, Object>> generatedObjects = new ArrayList<>();
     List<FieldDTO> profileFields = new ArrayList<>();
     List<ConstraintDTO> constraints = new ArrayList<>();
+    List<UniqueKeyDTO> uniqueKeys = new ArrayList<>();
     List<Exception> testExceptions = new ArrayList<>();
     Map<String, List<List<String>>> inMapFiles = new HashMap<>();
 
@@ -397,6 +399,12 @@ public class CucumberTestState {
             }).collect(Collectors.toList());
     }
 
+    public void addUniqueKey(List<String> fieldNames) {
+        UniqueKeyDTO uniqueKey = new UniqueKeyDTO();
+        uniqueKey.fields = fieldNames;
+        uniqueKeys.add(uniqueKey);
+    }
+
     public void setFieldType(String fieldName, String type) {
         profileFields = profileFields.stream()
             .map(fieldDTO -> {
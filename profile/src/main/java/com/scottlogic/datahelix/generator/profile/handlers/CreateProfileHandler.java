@@ -24,15 +24,18 @@ import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
 import com.scottlogic.datahelix.generator.common.validators.Validator;
 import com.scottlogic.datahelix.generator.core.profile.Profile;
+import com.scottlogic.datahelix.generator.core.profile.UniqueKey;
 import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.NotNullConstraint;
 import com.scottlogic.datahelix.generator.core.profile.relationships.Relationship;
 import com.scottlogic.datahelix.generator.profile.commands.CreateProfile;
 import com.scottlogic.datahelix.generator.profile.commands.ReadRelationships;
+import com.scottlogic.datahelix.generator.profile.dtos.UniqueKeyDTO;
 import com.scottlogic.datahelix.generator.profile.custom.CustomConstraintFactory;
 import com.scottlogic.datahelix.generator.profile.services.ConstraintService;
 import com.scottlogic.datahelix.generator.profile.services.FieldService;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -77,7 +80,25 @@ public class CreateProfileHandler extends CommandHandler<CreateProfile, Profile>
         constraints.addAll(createSpecificTypeConstraints(fields));
         constraints.addAll(createCustomGeneratorConstraints(fields));
 
-        return CommandResult.success(new Profile(command.profileDTO.description, fields, constraints, relationships.value));
+        return CommandResult.success(new Profile(
+            command.profileDTO.description,
+            fields,
+            constraints,
+            relationships.value,
+            createUniqueKeys(command.profileDTO.uniqueKeys, fields)));
+    }
+
+    private List<UniqueKey> createUniqueKeys(List<UniqueKeyDTO> uniqueKeys, Fields fields)
+    {
+        if (uniqueKeys == null) {
+            return Collections.emptyList();
+        }
+        return uniqueKeys.stream()
+            .map(dto -> new UniqueKey(
+                dto.fields.stream().map(fields::getByName).collect(Collectors.toList()),
+                dto.falsePositiveRate,
+                dto.expectedRows))
+            .collect(Collectors.toList());
     }
 
     private List<Constraint> createNullableConstraints(Fields fields)
@@ -20,6 +20,7 @@ import com.scottlogic.datahelix.generator.common.ValidationException;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 
 import java.io.*;
+import java.util.Map;
 
 public class CsvFileInputReader implements CsvInputReader {
     private final File path;
@@ -36,9 +37,9 @@ public class CsvFileInputReader implements CsvInputReader {
         }
     }
 
-    public DistributedList<String> retrieveLines(String key) {
+    public Map<String, DistributedList<String>> retrieveColumns() {
         try (InputStream stream = createStream()) {
-            return new CsvStreamInputReader(stream, path.getName()).retrieveLines(key);
+            return new CsvStreamInputReader(stream, path.getName()).retrieveColumns();
         } catch (IOException exc){
             throw new UncheckedIOException(exc);
         }
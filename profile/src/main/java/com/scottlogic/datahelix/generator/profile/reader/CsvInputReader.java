@@ -18,7 +18,9 @@ package com.scottlogic.datahelix.generator.profile.reader;
 
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 
+import java.util.Map;
+
 public interface CsvInputReader{
     DistributedList<String> retrieveLines();
-    DistributedList<String> retrieveLines(String key);
+    Map<String, DistributedList<String>> retrieveColumns();
 }
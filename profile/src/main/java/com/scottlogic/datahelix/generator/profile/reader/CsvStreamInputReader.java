@@ -17,6 +17,7 @@
 package com.scottlogic.datahelix.generator.profile.reader;
 
 import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.whitelist.CompactStringList;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.common.whitelist.WeightedElement;
 import org.apache.commons.csv.CSVFormat;
@@ -25,9 +26,7 @@ import org.apache.commons.csv.CSVRecord;
 
 import java.io.*;
 import java.nio.charset.Charset;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.*;
 
 public class CsvStreamInputReader implements CsvInputReader {
     private final InputStream stream;
@@ -38,45 +37,58 @@ public class CsvStreamInputReader implements CsvInputReader {
         this.file = file;
     }
 
+    /**
+     * Reads every line as a value with an optional weight in the second column, dropping lines that repeat
+     * both the value and the weight of an earlier line.
+     */
     public DistributedList<String> retrieveLines() {
-        List<CSVRecord> records = parse(stream);
-        return new DistributedList<>(records.stream()
-            .map(this::createWeightedElementFromRecord)
-            .collect(Collectors.toList()));
+        CompactStringList.Builder lines = new CompactStringList.Builder(true);
+        for (CSVRecord record : parse(stream)) {
+            addWeightedElementFromRecord(lines, record);
+        }
+        return lines.build();
     }
 
-    public DistributedList<String> retrieveLines(String key) {
-        List<CSVRecord> records = parse(stream);
-
-        int index = getIndexForKey(records.get(0), key);
-
-        //Remove the header
-        records.remove(0);
+    /**
+     * Reads every column of a file with a header row in a single pass, keyed by the column's title
+     */
+    public Map<String, DistributedList<String>> retrieveColumns() {
+        Iterator<CSVRecord> records = parse(stream).iterator();
+        if (!records.hasNext()) {
+            return Collections.emptyMap();
+        }
 
-        return new DistributedList<>(records.stream()
-            .map(record -> record.get(index))
-            .map(record -> createWeightedElement(record, Optional.empty()))
-            .collect(Collectors.toList()));
-    }
+        CSVRecord header = records.next();
+        List<CompactStringList.Builder> columns = new ArrayList<>(header.size());
+        for (int i = 0; i < header.size(); i++) {
+            columns.add(new CompactStringList.Builder(false));
+        }
 
-    private static int getIndexForKey(CSVRecord header, String key) {
-        int index = 0;
-        for (String title : header) {
-            if (title.equals(key)) {
-                return index;
+        while (records.hasNext()) {
+            CSVRecord record = records.next();
+            if (record.size() != header.size()) {
+                throw new ValidationException("Line " + record.getRecordNumber() + " of file '" + file + "' has " +
+                    record.size() + " values but the header has " + header.size());
             }
-            index++;
+            for (int i = 0; i < columns.size(); i++) {
+                columns.get(i).add(record.get(i), WeightedElement.DEFAULT_WEIGHT);
+            }
+        }
+
+        Map<String, DistributedList<String>> columnsByTitle = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnsByTitle.putIfAbsent(header.get(i), columns.get(i).build());
         }
-        throw new ValidationException("unable to find data for key " + key);
+        return columnsByTitle;
     }
 
-    private WeightedElement<String> createWeightedElementFromRecord(CSVRecord record) {
+    private void addWeightedElementFromRecord(CompactStringList.Builder lines, CSVRecord record) {
         try {
-            Optional<Double> weighting = record.size() == 1
-                ? Optional.empty()
-                : Optional.of(Double.parseDouble(record.get(1)));
+            double weighting = record.size() == 1
+                ? WeightedElement.DEFAULT_WEIGHT
+                : Double.parseDouble(record.get(1));
 
-            return createWeightedElement(record.get(0), weighting);
+            lines.add(record.get(0), weighting);
         } catch (NumberFormatException e) {
             throw new RuntimeException(
                 "Weighting '" + record.get(1) + "' is not a valid number\n" +
@@ -85,15 +97,9 @@ public class CsvStreamInputReader implements CsvInputReader {
         }
     }
 
-    private static WeightedElement<String> createWeightedElement(String element, Optional<Double> weight) {
-        return weight.map(integer -> new WeightedElement<>(element, integer))
-            .orElseGet(() -> WeightedElement.withDefaultWeight(element));
-    }
-
-    private static List<CSVRecord> parse(InputStream stream) {
+    private static CSVParser parse(InputStream stream) {
         try {
-            CSVParser parser = CSVParser.parse(stream, Charset.defaultCharset(), CSVFormat.DEFAULT);
-            return parser.getRecords();
+            return CSVParser.parse(stream, Charset.defaultCharset(), CSVFormat.DEFAULT);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
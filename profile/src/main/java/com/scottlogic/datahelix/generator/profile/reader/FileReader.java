@@ -16,38 +16,108 @@
 package com.scottlogic.datahelix.generator.profile.reader;
 
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.scottlogic.datahelix.generator.common.ValidationException;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
-import com.scottlogic.datahelix.generator.common.whitelist.WeightedElement;
 
 import java.io.File;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Reads the data files referenced by a profile. Parsed files are cached, keyed on their canonical path, modification
+ * time and length, so a file referenced by several constraints (or relationship sub-profiles) is only parsed once.
+ * Map files are parsed into every column at once, so constraints on different keys of the same file share the parse.
+ * Only the latest version read of each path is kept, so a file that changes between runs is not held more than once.
+ */
+@Singleton
 public class FileReader {
     private final CsvInputStreamReaderFactory csvReaderFactory;
 
+    private final Map<String, CachedFile<DistributedList<String>>> sets = new ConcurrentHashMap<>();
+    private final Map<String, CachedFile<Map<String, DistributedList<String>>>> maps = new ConcurrentHashMap<>();
+
     @Inject
     public FileReader(CsvInputStreamReaderFactory csvReaderFactory) {
         this.csvReaderFactory = csvReaderFactory;
     }
 
+    @SuppressWarnings("unchecked")
     public DistributedList<Object> setFromFile(File file) {
-        CsvInputReader reader = csvReaderFactory.getReaderForFile(file);
-        DistributedList<String> names = reader.retrieveLines();
-
-        return new DistributedList<>(
-            names.distributedList().stream()
-                .map(holder -> new WeightedElement<>((Object) holder.element(), holder.weight()))
-                .distinct()
-                .collect(Collectors.toList()));
+        DistributedList<String> lines = read(sets, file, () -> csvReaderFactory.getReaderForFile(file).retrieveLines());
+
+        // the reader has already dropped duplicates, and the list is immutable so can be widened without copying
+        return (DistributedList<Object>) (DistributedList<?>) lines;
     }
 
     public DistributedList<String> listFromMapFile(File file, String key) {
-        CsvInputReader reader = csvReaderFactory.getReaderForFile(file);
-        DistributedList<String> names = reader.retrieveLines(key);
+        Map<String, DistributedList<String>> columns =
+            read(maps, file, () -> csvReaderFactory.getReaderForFile(file).retrieveColumns());
+
+        DistributedList<String> column = columns.get(key);
+        if (column == null) {
+            throw new ValidationException("unable to find data for key " + key);
+        }
+        return column;
+    }
+
+    // replaces whatever was cached for the file's path if it was read from a different version of the file
+    private static <T> T read(Map<String, CachedFile<T>> cache, File file, Supplier<T> reader) {
+        FileVersion version = FileVersion.of(file);
+        return cache.compute(
+            version.canonicalPath,
+            (path, cached) -> cached != null && cached.version.equals(version)
+                ? cached
+                : new CachedFile<>(version, reader.get()))
+            .contents;
+    }
+
+    private static final class CachedFile<T> {
+        private final FileVersion version;
+        private final T contents;
+
+        private CachedFile(FileVersion version, T contents) {
+            this.version = version;
+            this.contents = contents;
+        }
+    }
+
+    private static final class FileVersion {
+        private final String canonicalPath;
+        private final long lastModified;
+        private final long length;
+
+        private FileVersion(String canonicalPath, long lastModified, long length) {
+            this.canonicalPath = canonicalPath;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        static FileVersion of(File file) {
+            try {
+                return new FileVersion(file.getCanonicalPath(), file.lastModified(), file.length());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            FileVersion that = (FileVersion) o;
+            return lastModified == that.lastModified &&
+                length == that.length &&
+                canonicalPath.equals(that.canonicalPath);
+        }
 
-        return new DistributedList<>(
-            names.distributedList().stream()
-                .map(holder -> new WeightedElement<>(holder.element(), holder.weight()))
-                .collect(Collectors.toList()));
+        @Override
+        public int hashCode() {
+            return Objects.hash(canonicalPath, lastModified, length);
+        }
     }
 }
@@ -22,11 +22,13 @@ import com.scottlogic.datahelix.generator.common.validators.Validator;
 import com.scottlogic.datahelix.generator.core.generation.GenerationConfigSource;
 import com.scottlogic.datahelix.generator.profile.dtos.FieldDTO;
 import com.scottlogic.datahelix.generator.profile.dtos.ProfileDTO;
+import com.scottlogic.datahelix.generator.profile.dtos.UniqueKeyDTO;
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.ConstraintDTO;
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.atomic.AtomicConstraintDTO;
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.grammatical.ConditionalConstraintDTO;
 import com.scottlogic.datahelix.generator.profile.services.FieldService;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -55,7 +57,8 @@ public class ProfileValidator implements Validator<ProfileDTO>
         if (!constraintsMustBeValid.isSuccess) return constraintsMustBeValid;
 
         return ValidationResult.combine(uniqueFieldsMustNotBeInIfStatements(dto),
-            uniqueFieldsMustNotBePresentUsingMinimalCombinationStrategy(dto));
+            uniqueFieldsMustNotBePresentUsingMinimalCombinationStrategy(dto),
+            uniqueKeysMustBeValid(dto));
     }
 
 
@@ -134,6 +137,44 @@ public class ProfileValidator implements Validator<ProfileDTO>
         return ValidationResult.success();
     }
 
+    private ValidationResult uniqueKeysMustBeValid(ProfileDTO dto)
+    {
+        if (dto.uniqueKeys == null)
+        {
+            return ValidationResult.success();
+        }
+
+        Set<String> fieldNames = dto.fields.stream().map(f -> f.name).collect(Collectors.toSet());
+        List<String> errors = new ArrayList<>();
+        for (UniqueKeyDTO uniqueKey : dto.uniqueKeys)
+        {
+            if (uniqueKey.fields == null || uniqueKey.fields.isEmpty())
+            {
+                errors.add("Unique keys must specify at least one field");
+                continue;
+            }
+            uniqueKey.fields.stream()
+                .filter(f -> !fieldNames.contains(f))
+                .map(f -> "Unique key field " + f + " must be defined in fields")
+                .forEach(errors::add);
+            if (new HashSet<>(uniqueKey.fields).size() != uniqueKey.fields.size())
+            {
+                errors.add("Unique key fields must not be repeated | Fields: " + String.join(", ", uniqueKey.fields));
+            }
+            if (uniqueKey.falsePositiveRate != null && !(uniqueKey.falsePositiveRate > 0 && uniqueKey.falsePositiveRate < 1))
+            {
+                errors.add("Unique key false positive rate must be between 0 and 1 | Rate: " + uniqueKey.falsePositiveRate);
+            }
+            if (uniqueKey.expectedRows != null && uniqueKey.expectedRows < 1)
+            {
+                errors.add("Unique key expected rows must be positive | Expected rows: " + uniqueKey.expectedRows);
+            }
+        }
+
+        return errors.isEmpty()
+            ? ValidationResult.success()
+            : ValidationResult.failure(errors);
+    }
 
     public ValidationResult constraintsMustBeValid(ProfileDTO dto)
     {
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.profile.reader.file;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
+import com.scottlogic.datahelix.generator.profile.reader.CsvInputReader;
+import com.scottlogic.datahelix.generator.profile.reader.CsvInputStreamReaderFactory;
+import com.scottlogic.datahelix.generator.profile.reader.FileReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileReaderTest {
+    @TempDir
+    File tempDir;
+
+    private int filesRead;
+
+    private final FileReader fileReader = new FileReader(new CsvInputStreamReaderFactory() {
+        @Override
+        public CsvInputReader getReaderForFile(File csvFile) {
+            filesRead++;
+            return super.getReaderForFile(csvFile);
+        }
+    });
+
+    @Test
+    void listFromMapFile_readsEachColumnFromASingleParse() throws IOException {
+        File file = write("map.csv", "code,name", "GB,Britain", "FR,France");
+
+        DistributedList<String> codes = fileReader.listFromMapFile(file, "code");
+        DistributedList<String> names = fileReader.listFromMapFile(file, "name");
+
+        assertEquals(Arrays.asList("GB", "FR"), codes.list());
+        assertEquals(Arrays.asList("Britain", "France"), names.list());
+        assertEquals(1, filesRead);
+    }
+
+    @Test
+    void listFromMapFile_withUnknownKey_throws() throws IOException {
+        File file = write("map.csv", "code,name", "GB,Britain");
+
+        assertThrows(ValidationException.class, () -> fileReader.listFromMapFile(file, "population"));
+    }
+
+    @Test
+    void setFromFile_sameFileThroughDifferentPaths_isReadOnce() throws IOException {
+        File file = write("set.csv", "a", "b", "a");
+        File samePath = new File(new File(tempDir, "."), "set.csv");
+
+        DistributedList<Object> first = fileReader.setFromFile(file);
+        DistributedList<Object> second = fileReader.setFromFile(samePath);
+
+        assertEquals(Arrays.asList("a", "b"), first.list());
+        assertEquals(first, second);
+        assertEquals(1, filesRead);
+    }
+
+    @Test
+    void setFromFile_whenFileChanges_isReadAgain() throws IOException {
+        File file = write("set.csv", "a");
+        fileReader.setFromFile(file);
+
+        write("set.csv", "a", "b");
+        DistributedList<Object> changed = fileReader.setFromFile(file);
+
+        assertEquals(Arrays.asList("a", "b"), changed.list());
+        assertEquals(2, filesRead);
+    }
+
+    @Test
+    void setFromFile_whenFileChanges_releasesTheEarlierVersion() throws IOException, InterruptedException {
+        File file = write("set.csv", "a");
+        WeakReference<DistributedList<Object>> original = new WeakReference<>(fileReader.setFromFile(file));
+
+        write("set.csv", "a", "b");
+        fileReader.setFromFile(file);
+
+        for (int attempt = 0; attempt < 10 && original.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(original.get());
+    }
+
+    private File write(String name, String... lines) throws IOException {
+        File file = new File(tempDir, name);
+        Files.write(file.toPath(), Arrays.asList(lines));
+        return file;
+    }
+}
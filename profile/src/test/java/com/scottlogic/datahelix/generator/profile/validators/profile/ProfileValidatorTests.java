@@ -18,6 +18,7 @@ package com.scottlogic.datahelix.generator.profile.validators.profile;
 import com.scottlogic.datahelix.generator.common.validators.ValidationResult;
 import com.scottlogic.datahelix.generator.profile.creation.FieldDTOBuilder;
 import com.scottlogic.datahelix.generator.profile.dtos.ProfileDTO;
+import com.scottlogic.datahelix.generator.profile.dtos.UniqueKeyDTO;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -105,4 +106,60 @@ public class ProfileValidatorTests
         // Assert
         assertFalse(validationResult.isSuccess);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void validateProfile_withUniqueKeyOnDefinedFields_succeeds()
+    {
+        // Arrange
+        ProfileDTO dto = new ProfileDTO();
+        dto.fields = Arrays.asList(FieldDTOBuilder.create("a"), FieldDTOBuilder.create("b"));
+        dto.constraints = new ArrayList<>();
+        dto.uniqueKeys = Collections.singletonList(uniqueKey(0.01, "a", "b"));
+
+        // Act
+        ValidationResult validationResult = profileValidator.validate(dto);
+
+        // Assert
+        assertTrue(validationResult.isSuccess);
+    }
+
+    @Test
+    public void validateProfile_withUniqueKeyOnUndefinedField_fails()
+    {
+        // Arrange
+        ProfileDTO dto = new ProfileDTO();
+        dto.fields = Collections.singletonList(FieldDTOBuilder.create("a"));
+        dto.constraints = new ArrayList<>();
+        dto.uniqueKeys = Collections.singletonList(uniqueKey(null, "a", "missing"));
+
+        // Act
+        ValidationResult validationResult = profileValidator.validate(dto);
+
+        // Assert
+        assertFalse(validationResult.isSuccess);
+    }
+
+    @Test
+    public void validateProfile_withUniqueKeyFalsePositiveRateOfOne_fails()
+    {
+        // Arrange
+        ProfileDTO dto = new ProfileDTO();
+        dto.fields = Collections.singletonList(FieldDTOBuilder.create("a"));
+        dto.constraints = new ArrayList<>();
+        dto.uniqueKeys = Collections.singletonList(uniqueKey(1.0, "a"));
+
+        // Act
+        ValidationResult validationResult = profileValidator.validate(dto);
+
+        // Assert
+        assertFalse(validationResult.isSuccess);
+    }
+
+    private static UniqueKeyDTO uniqueKey(Double falsePositiveRate, String... fields)
+    {
+        UniqueKeyDTO uniqueKey = new UniqueKeyDTO();
+        uniqueKey.fields = Arrays.asList(fields);
+        uniqueKey.falsePositiveRate = falsePositiveRate;
+        return uniqueKey;
+    }
+}